@@ -39,6 +39,12 @@ dependencies {
     // implementation "org.djunits:djunits:4.01.07"
 
     implementation("org.team2363:helixtrajectory:0.0.0-pre5")
+
+    testImplementation("org.junit.jupiter:junit-jupiter:5.9.1")
+}
+
+tasks.test {
+    useJUnitPlatform()
 }
 
 application {
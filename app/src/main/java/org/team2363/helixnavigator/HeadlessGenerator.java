@@ -0,0 +1,406 @@
+package org.team2363.helixnavigator;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.team2363.helixnavigator.document.HDocument;
+import org.team2363.helixnavigator.document.HPath;
+import org.team2363.helixnavigator.generation.ControlIntervals;
+import org.team2363.helixnavigator.generation.GenerationExecutor;
+import org.team2363.helixnavigator.generation.GenerationResult;
+import org.team2363.helixnavigator.generation.GenerationStatus;
+import org.team2363.helixnavigator.generation.MultiStartGenerator;
+import org.team2363.helixnavigator.generation.ParallelTrajectoryGenerator;
+import org.team2363.helixnavigator.generation.SolverFarm;
+import org.team2363.helixnavigator.generation.TimeBudgetGenerator;
+import org.team2363.helixnavigator.generation.TimeScaling;
+import org.team2363.helixnavigator.generation.TrajectoryGenerator;
+import org.team2363.helixnavigator.generation.TrajectoryGenerators;
+import org.team2363.helixnavigator.generation.VisibilityGraph;
+import org.team2363.helixnavigator.global.DefaultResources;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+import com.jlbabilino.json.InvalidJSONTranslationConfiguration;
+import com.jlbabilino.json.JSONDeserializer;
+import com.jlbabilino.json.JSONDeserializerException;
+import com.jlbabilino.json.JSONEntry.JSONType;
+import com.jlbabilino.json.JSONParserException;
+import com.jlbabilino.json.JSONSerializable;
+import com.jlbabilino.json.JSONSerializer;
+import com.jlbabilino.json.JSONSerializerException;
+import com.jlbabilino.json.SerializedJSONObjectValue;
+
+/**
+ * <p>
+ * Generates every trajectory in a set of documents without starting the user
+ * interface, so that trajectories can be regenerated in CI whenever a document
+ * changes. Run it with:
+ * </p>
+ * <pre>
+ * HelixNavigator --generate [--output DIR] [--threads N] [--generator NAME] [--segmented] [--isolated] [--starts N]
+ *                           [--cull] [--auto-guess] [--budget SECONDS] [--speeds PERCENT,...]
+ *                           [--nodes HOST[:PORT],... | --local-nodes N] DOCUMENT...
+ * </pre>
+ * <p>
+ * Each trajectory is written to {@code DIR/<document>/<path>.json}, and a
+ * machine-readable report of every path is written to {@code DIR/summary.json}.
+ * Characters that aren't safe in file names are replaced with {@code _}, and
+ * documents or paths that would end up with the same name get {@code -2},
+ * {@code -3} and so on added to it.
+ * The exit code is 0 if every path was generated, 1 if any document or path
+ * failed, and 2 if the arguments are invalid. The JavaFX toolkit is never
+ * started. The generator defaults to {@code optimal}; {@code preview} does not
+ * need the native solver (see {@link TrajectoryGenerators}). With
+ * {@code --segmented}, paths are split and their pieces solved in parallel (see
+ * {@link org.team2363.helixnavigator.generation.SegmentedGenerator}). With
+ * {@code --isolated}, each solve runs in a worker process (see
+ * {@link org.team2363.helixnavigator.generation.ProcessPoolGenerator}). With
+ * {@code --starts N}, paths with obstacles are solved from N initial guesses and
+ * the fastest result is kept (see
+ * {@link MultiStartGenerator}). With {@code --cull}, obstacles far from each
+ * segment are left out of its solve (see
+ * {@link org.team2363.helixnavigator.generation.ObstacleCullingGenerator}).
+ * Paths linked to another start in the state the trajectory of the path
+ * before them ends in, and are solved after it, like in the editor.
+ * With {@code --auto-guess}, segments blocked by obstacles are given initial
+ * guesses that go around them (see {@link VisibilityGraph}).
+ * With {@code --budget SECONDS}, each path is given
+ * up on after that long and reported as {@code timed_out}, unless a start of a
+ * multi-start solve has finished by then (see {@link TimeBudgetGenerator}). The
+ * solves then run in worker processes, which are killed when they run out of time.
+ * With {@code --speeds}, a copy of each trajectory running at each of the
+ * given percentages of its speed is also written, to
+ * {@code DIR/<document>/<path>-<percent>pct.json} (see {@link TimeScaling}).
+ * </p>
+ * <p>
+ * With {@code --nodes}, paths are solved on running solver nodes instead of on
+ * this machine (see {@link SolverFarm}). {@code --local-nodes} starts that many
+ * nodes as local processes, sharing {@code --threads} between them, which is
+ * how the distributed mode can be tried on one machine.
+ * </p>
+ */
+public class HeadlessGenerator {
+
+    public static final String COMMAND = "--generate";
+    public static final String SUMMARY_FILE_NAME = "summary.json";
+
+    private static final String USAGE = "Usage: HelixNavigator " + COMMAND + " [--output DIR] [--segmented] [--isolated] [--starts N]"
+            + " [--cull] [--auto-guess] [--speeds PERCENT,...] " + SolverOptions.USAGE + " DOCUMENT...";
+
+    /**
+     * The report for one path, or for a document that could not be read at all.
+     */
+    @JSONSerializable(JSONType.OBJECT)
+    public static class PathReport {
+        @SerializedJSONObjectValue(key = "document")
+        public final String document;
+        @SerializedJSONObjectValue(key = "path")
+        public final String path;
+        @SerializedJSONObjectValue(key = "status")
+        public String status = GenerationStatus.QUEUED.toString();
+        @SerializedJSONObjectValue(key = "error")
+        public String error = "";
+        @SerializedJSONObjectValue(key = "output")
+        public String output = "";
+        @SerializedJSONObjectValue(key = "solve_time")
+        public double solveTime = 0.0;
+        @SerializedJSONObjectValue(key = "wall_time")
+        public double wallTime = 0.0;
+        @SerializedJSONObjectValue(key = "trajectory_duration")
+        public double trajectoryDuration = 0.0;
+        @SerializedJSONObjectValue(key = "sample_count")
+        public int sampleCount = 0;
+        @SerializedJSONObjectValue(key = "speed_variants")
+        public final List<String> speedVariants = new ArrayList<>();
+
+        private PathReport(String document, String path) {
+            this.document = document;
+            this.path = path;
+        }
+
+        private void fail(String error) {
+            fail(GenerationStatus.FAILED, error);
+        }
+
+        private void fail(GenerationStatus status, String error) {
+            this.status = status.toString();
+            this.error = error;
+        }
+    }
+
+    /**
+     * The report for a whole run, written to {@value #SUMMARY_FILE_NAME}.
+     */
+    @JSONSerializable(JSONType.OBJECT)
+    public static class Summary {
+        @SerializedJSONObjectValue(key = "generator")
+        public String generator;
+        @SerializedJSONObjectValue(key = "thread_count")
+        public int threadCount;
+        @SerializedJSONObjectValue(key = "total_time")
+        public double totalTime;
+        @SerializedJSONObjectValue(key = "succeeded_count")
+        public int succeededCount;
+        @SerializedJSONObjectValue(key = "failed_count")
+        public int failedCount;
+        @SerializedJSONObjectValue(key = "paths")
+        public final List<PathReport> paths = new ArrayList<>();
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the generator.
+     *
+     * @param args the arguments after {@value #COMMAND}
+     * @return the process exit code
+     */
+    public static int run(String[] args) {
+        File outputDirectory = new File("trajectories");
+        SolverOptions solverOptions = new SolverOptions();
+        boolean segmented = false;
+        boolean isolated = false;
+        int startCount = 1;
+        boolean culled = false;
+        boolean automaticGuesses = false;
+        double[] speedPercentages = new double[0];
+        List<File> documentFiles = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                int last = solverOptions.parse(args, i);
+                if (last != -1) {
+                    i = last;
+                    continue;
+                }
+                switch (args[i]) {
+                    case "--output":
+                        outputDirectory = new File(args[++i]);
+                        break;
+                    case "--segmented":
+                        segmented = true;
+                        break;
+                    case "--isolated":
+                        isolated = true;
+                        break;
+                    case "--starts":
+                        startCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "--cull":
+                        culled = true;
+                        break;
+                    case "--auto-guess":
+                        automaticGuesses = true;
+                        break;
+                    case "--speeds":
+                        String[] percentages = args[++i].split(",");
+                        speedPercentages = new double[percentages.length];
+                        for (int j = 0; j < percentages.length; j++) {
+                            speedPercentages[j] = Double.parseDouble(percentages[j].trim());
+                            if (!(speedPercentages[j] > 0.0) || Double.isInfinite(speedPercentages[j])) {
+                                throw new IllegalArgumentException(percentages[j]);
+                            }
+                        }
+                        break;
+                    default:
+                        documentFiles.add(new File(args[i]));
+                        break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (documentFiles.isEmpty() || startCount < 1 || !solverOptions.isValid()) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        TrajectoryGenerator generator = solverOptions.baseGenerator();
+        if (isolated) {
+            generator = TrajectoryGenerators.isolated(generator);
+        }
+        if (startCount > 1) {
+            generator = new MultiStartGenerator(generator, startCount);
+        }
+        if (culled) {
+            generator = TrajectoryGenerators.culled(generator);
+        }
+        if (segmented) {
+            generator = TrajectoryGenerators.segmented(generator);
+        }
+        generator = solverOptions.budgeted(generator);
+        GenerationExecutor executor = solverOptions.startExecutor();
+        if (executor == null) {
+            return 1;
+        }
+        DefaultResources.loadAllResources();
+        Summary summary = generate(generator, documentFiles, outputDirectory, executor, automaticGuesses, speedPercentages);
+        try {
+            outputDirectory.mkdirs();
+            JSONSerializer.serializeFile(summary, new File(outputDirectory, SUMMARY_FILE_NAME));
+        } catch (IOException | InvalidJSONTranslationConfiguration | JSONSerializerException e) {
+            System.err.println("Could not write summary: " + e.getMessage());
+            return 1;
+        }
+        System.out.printf("Generated %d of %d trajectories in %.3f s.%n",
+                summary.succeededCount, summary.succeededCount + summary.failedCount, summary.totalTime);
+        return summary.failedCount == 0 ? 0 : 1;
+    }
+
+    /**
+     * Generates every path of every document in parallel on local threads and
+     * writes the trajectories to the output directory.
+     *
+     * @param generator the generator to use
+     * @param documentFiles the documents to read
+     * @param outputDirectory the directory to write trajectories into
+     * @param threadCount the number of solver threads
+     * @return the report of the run
+     */
+    public static Summary generate(TrajectoryGenerator generator, List<File> documentFiles, File outputDirectory, int threadCount) {
+        return generate(generator, documentFiles, outputDirectory, new ParallelTrajectoryGenerator(threadCount));
+    }
+
+    /**
+     * Generates every path of every document with an executor and writes the
+     * trajectories to the output directory. The executor is shut down afterwards.
+     *
+     * @param generator the generator to use
+     * @param documentFiles the documents to read
+     * @param outputDirectory the directory to write trajectories into
+     * @param pool the executor to solve with
+     * @return the report of the run
+     */
+    public static Summary generate(TrajectoryGenerator generator, List<File> documentFiles, File outputDirectory, GenerationExecutor pool) {
+        return generate(generator, documentFiles, outputDirectory, pool, false, new double[0]);
+    }
+
+    /**
+     * Generates every path of every document with an executor and writes the
+     * trajectories to the output directory. The executor is shut down afterwards.
+     *
+     * @param generator the generator to use
+     * @param documentFiles the documents to read
+     * @param outputDirectory the directory to write trajectories into
+     * @param pool the executor to solve with
+     * @param automaticGuesses whether to give segments blocked by obstacles initial guesses around them
+     * @param speedPercentages the speeds, as percentages, of the time-scaled copies to write of each trajectory
+     * @return the report of the run
+     */
+    public static Summary generate(TrajectoryGenerator generator, List<File> documentFiles, File outputDirectory, GenerationExecutor pool,
+            boolean automaticGuesses, double[] speedPercentages) {
+        long startTime = System.nanoTime();
+        Summary summary = new Summary();
+        summary.generator = generator.getName();
+        summary.threadCount = pool.getThreadCount();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        Set<String> documentNames = new HashSet<>();
+        documentNames.add(SUMMARY_FILE_NAME);
+        try {
+            for (File documentFile : documentFiles) {
+                HDocument document;
+                try {
+                    document = JSONDeserializer.deserialize(documentFile, HDocument.class);
+                } catch (IOException | JSONParserException | InvalidJSONTranslationConfiguration | JSONDeserializerException e) {
+                    PathReport report = new PathReport(documentFile.getPath(), "");
+                    report.fail("Could not read document: " + e.getMessage());
+                    summary.paths.add(report);
+                    System.err.println(documentFile.getPath() + ": " + report.error);
+                    continue;
+                }
+                File documentOutputDirectory = new File(outputDirectory, fileName(documentFile.getName().replaceFirst("\\.json$", ""), documentNames));
+                Set<String> pathNames = new HashSet<>();
+                SwerveDrivetrain drive = document.getRobotConfiguration().toDrive();
+                LinkedSolves solves = new LinkedSolves(document, path -> {
+                    if (automaticGuesses) {
+                        path = VisibilityGraph.addInitialGuesses(path, drive);
+                    }
+                    return ControlIntervals.assign(path, drive, document.getControlIntervalDensity());
+                }, path -> pool.submit(generator, drive, path));
+                for (HPath hPath : document.getPaths()) {
+                    PathReport report = new PathReport(documentFile.getPath(), hPath.getName());
+                    summary.paths.add(report);
+                    File outputFile = new File(documentOutputDirectory, fileName(hPath.getName(), pathNames) + ".json");
+                    long submitTime = System.nanoTime();
+                    report.status = GenerationStatus.GENERATING.toString();
+                    futures.add(solves.solve(hPath).handle((result, error) -> {
+                        report.wallTime = (System.nanoTime() - submitTime) / 1e9;
+                        finish(report, result, error, outputFile, speedPercentages);
+                        return null;
+                    }));
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+        for (PathReport report : summary.paths) {
+            if (report.status.equals(GenerationStatus.SUCCEEDED.toString())) {
+                summary.succeededCount++;
+            } else {
+                summary.failedCount++;
+            }
+        }
+        summary.totalTime = (System.nanoTime() - startTime) / 1e9;
+        return summary;
+    }
+
+    /**
+     * Turns a document or path name into a name that stays inside the directory
+     * it is written to, and that isn't taken yet.
+     *
+     * @param name the name
+     * @param usedNames the names already taken in the directory, in lower case; the new name is added
+     * @return the name to write to
+     */
+    private static String fileName(String name, Set<String> usedNames) {
+        String safeName = name.replaceAll("[^A-Za-z0-9 ._-]", "_").trim();
+        if (safeName.isEmpty() || safeName.matches("\\.*")) {
+            // "." and ".." are the directory itself and its parent
+            safeName = "_" + safeName;
+        }
+        String uniqueName = safeName;
+        // file systems on Windows and macOS ignore case
+        for (int i = 2; !usedNames.add(uniqueName.toLowerCase(Locale.ROOT)); i++) {
+            uniqueName = safeName + "-" + i;
+        }
+        return uniqueName;
+    }
+
+    private static void finish(PathReport report, GenerationResult result, Throwable error, File outputFile, double[] speedPercentages) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            report.fail(GenerationStatus.ofFailure(cause), cause.toString());
+        } else {
+            report.solveTime = result.solveTime;
+            report.trajectoryDuration = result.trajectory.duration;
+            report.sampleCount = result.trajectory.samples.size();
+            try {
+                outputFile.getParentFile().mkdirs();
+                JSONSerializer.serializeFile(result.trajectory, outputFile);
+                report.output = outputFile.getPath();
+                for (double percentage : speedPercentages) {
+                    File variantFile = new File(outputFile.getParentFile(), outputFile.getName().replaceFirst("\\.json$", "")
+                            + "-" + BigDecimal.valueOf(percentage).stripTrailingZeros().toPlainString() + "pct.json");
+                    JSONSerializer.serializeFile(TimeScaling.scale(result.trajectory, percentage / 100.0), variantFile);
+                    report.speedVariants.add(variantFile.getPath());
+                }
+                report.status = GenerationStatus.SUCCEEDED.toString();
+            } catch (IOException | InvalidJSONTranslationConfiguration | JSONSerializerException e) {
+                report.fail("Could not write trajectory: " + e.getMessage());
+            }
+        }
+        System.out.printf("%s / %s: %s%s%n", report.document, report.path, report.status,
+                report.error.isEmpty() ? String.format(" (%.3f s)", report.solveTime) : " - " + report.error);
+    }
+}
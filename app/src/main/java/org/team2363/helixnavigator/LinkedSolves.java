@@ -0,0 +1,89 @@
+package org.team2363.helixnavigator;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import org.team2363.helixnavigator.document.HDocument;
+import org.team2363.helixnavigator.document.HPath;
+import org.team2363.helixnavigator.generation.GenerationException;
+import org.team2363.helixnavigator.generation.GenerationResult;
+import org.team2363.helixnavigator.generation.SolverInputs;
+import org.team2363.helixtrajectory.HolonomicPath;
+
+/**
+ * Solves the paths of a document for the command line tools the same way the
+ * editor does: a path linked to another is only solved once the path before it
+ * has been, starting in the state that trajectory ends in (see
+ * {@link HDocument#linkPaths(HPath, HPath)}). Paths that aren't linked to each
+ * other are still solved in parallel. Each path is solved at most once.
+ */
+final class LinkedSolves {
+
+    private final HDocument document;
+    private final UnaryOperator<HolonomicPath> prepare;
+    private final Function<HolonomicPath, CompletableFuture<GenerationResult>> submit;
+    private final Map<HPath, CompletableFuture<GenerationResult>> solves = new IdentityHashMap<>();
+
+    /**
+     * @param document the document the paths are in
+     * @param prepare adds initial guesses and control intervals to a path after its hand-off is applied
+     * @param submit starts the solve of a prepared path
+     */
+    LinkedSolves(HDocument document, UnaryOperator<HolonomicPath> prepare, Function<HolonomicPath, CompletableFuture<GenerationResult>> submit) {
+        this.document = document;
+        this.prepare = prepare;
+        this.submit = submit;
+    }
+
+    /**
+     * Starts the solve of a path, along with the solves of the paths before it if
+     * they haven't been started. Only call this from one thread.
+     *
+     * @param hPath a path in the document
+     * @return the solve, which fails with an {@link IllegalArgumentException} if the
+     *         path is invalid, or with a {@link GenerationException} if a path before
+     *         it could not be solved
+     */
+    CompletableFuture<GenerationResult> solve(HPath hPath) {
+        CompletableFuture<GenerationResult> solve = solves.get(hPath);
+        if (solve == null) {
+            solve = startAfterUpstream(hPath);
+            solves.put(hPath, solve);
+        }
+        return solve;
+    }
+
+    private CompletableFuture<GenerationResult> startAfterUpstream(HPath hPath) {
+        HolonomicPath path;
+        try {
+            path = hPath.toPath();
+        } catch (RuntimeException e) {
+            return invalid(e);
+        }
+        HPath upstreamPath = document.getUpstreamPath(hPath);
+        if (upstreamPath == null) {
+            return start(path, null);
+        }
+        return solve(upstreamPath).handle((upstream, error) -> error == null
+                ? start(path, upstream)
+                : CompletableFuture.<GenerationResult>failedFuture(new GenerationException(
+                        "Could not generate \"" + upstreamPath.getName() + "\", which this path starts from.", error)))
+                .thenCompose(Function.identity());
+    }
+
+    private CompletableFuture<GenerationResult> start(HolonomicPath path, GenerationResult upstream) {
+        try {
+            path = prepare.apply(SolverInputs.withStartState(path, upstream == null ? null : upstream.trajectory));
+        } catch (RuntimeException e) {
+            return invalid(e);
+        }
+        return submit.apply(path);
+    }
+
+    private static CompletableFuture<GenerationResult> invalid(RuntimeException e) {
+        return CompletableFuture.failedFuture(new IllegalArgumentException("Invalid path: " + e, e));
+    }
+}
@@ -1,7 +1,27 @@
 package org.team2363.helixnavigator;
 
+import java.util.Arrays;
+
+import org.team2363.helixnavigator.generation.SolverNode;
+
 public class Main {
     public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals(HeadlessGenerator.COMMAND)) {
+            HeadlessGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(ParameterSweep.COMMAND)) {
+            ParameterSweep.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(RoutineComposer.COMMAND)) {
+            RoutineComposer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals(SolverNode.COMMAND)) {
+            SolverNode.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         App.main(args);
         // Test.main(args);
 
@@ -0,0 +1,401 @@
+package org.team2363.helixnavigator;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+import java.util.function.ToDoubleFunction;
+
+import org.team2363.helixnavigator.document.HDocument;
+import org.team2363.helixnavigator.document.HPath;
+import org.team2363.helixnavigator.document.HRobotConfiguration;
+import org.team2363.helixnavigator.generation.ControlIntervals;
+import org.team2363.helixnavigator.generation.GenerationExecutor;
+import org.team2363.helixnavigator.generation.GenerationStatus;
+import org.team2363.helixnavigator.generation.TrajectoryGenerator;
+import org.team2363.helixnavigator.global.DefaultResources;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+import com.jlbabilino.json.InvalidJSONTranslationConfiguration;
+import com.jlbabilino.json.JSONDeserializer;
+import com.jlbabilino.json.JSONDeserializerException;
+import com.jlbabilino.json.JSONParserException;
+
+/**
+ * <p>
+ * Generates every path of a set of documents once for each combination of
+ * robot configuration parameters, to see how gearing or weight changes affect
+ * the autos. Run it with:
+ * </p>
+ * <pre>
+ * HelixNavigator --sweep [--output FILE] [--threads N] [--generator NAME] [--budget SECONDS]
+ *                        [--mass RANGE] [--moment-of-inertia RANGE] [--motor-max-torque RANGE]
+ *                        [--motor-max-speed RANGE] [--wheel-radius RANGE]
+ *                        [--nodes HOST[:PORT],... | --local-nodes N] DOCUMENT...
+ * </pre>
+ * <p>
+ * A range is either a list of values, like {@code 50,55,60}, or
+ * {@code MIN:MAX:COUNT} for {@code COUNT} evenly spaced values. Parameters
+ * that are not swept keep each document's own value. Every path of every
+ * combination is solved in parallel, except that a path linked to another is
+ * solved after it, starting where it ends. One row per combination and path
+ * is written to the CSV file {@code FILE} (default {@value #DEFAULT_OUTPUT})
+ * with the parameters, status, and trajectory duration. A table of how many
+ * paths were feasible and their total duration for each combination is
+ * printed at the end. The exit code is 0 if the CSV file was written, even if
+ * some paths were infeasible, 1 if it could not be, and 2 if the arguments
+ * are invalid.
+ * </p>
+ */
+public class ParameterSweep {
+
+    public static final String COMMAND = "--sweep";
+    public static final String DEFAULT_OUTPUT = "sweep.csv";
+
+    private static final String USAGE = "Usage: HelixNavigator " + COMMAND + " [--output FILE]"
+            + " [--mass RANGE] [--moment-of-inertia RANGE] [--motor-max-torque RANGE] [--motor-max-speed RANGE] [--wheel-radius RANGE]"
+            + " " + SolverOptions.USAGE + " DOCUMENT...";
+
+    /**
+     * A robot configuration parameter that can be swept.
+     */
+    public enum Parameter {
+        MASS("--mass", "mass", HRobotConfiguration::getMass, HRobotConfiguration::setMass),
+        MOMENT_OF_INERTIA("--moment-of-inertia", "moment_of_inertia", HRobotConfiguration::getMomentOfInertia, HRobotConfiguration::setMomentOfInertia),
+        MOTOR_MAX_TORQUE("--motor-max-torque", "motor_max_torque", HRobotConfiguration::getMotorMaxTorque, HRobotConfiguration::setMotorMaxTorque),
+        MOTOR_MAX_SPEED("--motor-max-speed", "motor_max_angular_speed", HRobotConfiguration::getMotorMaxAngularSpeed, HRobotConfiguration::setMotorMaxAngularSpeed),
+        WHEEL_RADIUS("--wheel-radius", "wheel_radius", HRobotConfiguration::getWheelRadius, HRobotConfiguration::setWheelRadius);
+
+        public final String flag;
+        public final String column;
+        private final ToDoubleFunction<HRobotConfiguration> getter;
+        private final BiConsumer<HRobotConfiguration, Double> setter;
+
+        private Parameter(String flag, String column, ToDoubleFunction<HRobotConfiguration> getter, BiConsumer<HRobotConfiguration, Double> setter) {
+            this.flag = flag;
+            this.column = column;
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        private static Parameter forFlag(String flag) {
+            for (Parameter parameter : values()) {
+                if (parameter.flag.equals(flag)) {
+                    return parameter;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The result of one path under one combination of parameters.
+     */
+    public static class Result {
+        /**
+         * The index of the combination, in the order of {@link #combinations(Map)}
+         */
+        public final int combination;
+        public final String document;
+        public final String path;
+        /**
+         * The value of every parameter, including the ones that were not swept
+         */
+        public final Map<Parameter, Double> parameters;
+        public String status = GenerationStatus.QUEUED.toString();
+        public String error = "";
+        public double trajectoryDuration = 0.0;
+        public double solveTime = 0.0;
+
+        private Result(int combination, String document, String path, Map<Parameter, Double> parameters) {
+            this.combination = combination;
+            this.document = document;
+            this.path = path;
+            this.parameters = parameters;
+        }
+
+        public boolean isFeasible() {
+            return status.equals(GenerationStatus.SUCCEEDED.toString());
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the sweep.
+     *
+     * @param args the arguments after {@value #COMMAND}
+     * @return the exit code
+     */
+    public static int run(String[] args) {
+        File outputFile = new File(DEFAULT_OUTPUT);
+        SolverOptions solverOptions = new SolverOptions();
+        Map<Parameter, double[]> ranges = new EnumMap<>(Parameter.class);
+        List<File> documentFiles = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                Parameter parameter = Parameter.forFlag(args[i]);
+                if (parameter != null) {
+                    ranges.put(parameter, parseRange(args[++i]));
+                    continue;
+                }
+                int last = solverOptions.parse(args, i);
+                if (last != -1) {
+                    i = last;
+                    continue;
+                }
+                switch (args[i]) {
+                    case "--output":
+                        outputFile = new File(args[++i]);
+                        break;
+                    default:
+                        documentFiles.add(new File(args[i]));
+                        break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (documentFiles.isEmpty() || !solverOptions.isValid()) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        TrajectoryGenerator generator = solverOptions.budgeted(solverOptions.baseGenerator());
+        GenerationExecutor executor = solverOptions.startExecutor();
+        if (executor == null) {
+            return 1;
+        }
+        DefaultResources.loadAllResources();
+        List<Map<Parameter, Double>> combinations = combinations(ranges);
+        System.out.printf("Sweeping %d configurations.%n", combinations.size());
+        List<Result> results = sweep(generator, documentFiles, combinations, executor);
+        try {
+            writeCSV(results, outputFile);
+        } catch (IOException e) {
+            System.err.println("Could not write results: " + e.getMessage());
+            return 1;
+        }
+        printTable(results, combinations, ranges.keySet());
+        return 0;
+    }
+
+    /**
+     * Parses a range, either a comma separated list of values or
+     * {@code MIN:MAX:COUNT}.
+     *
+     * @param range the range
+     * @return the values in the range
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public static double[] parseRange(String range) {
+        String[] bounds = range.split(":");
+        if (bounds.length == 3) {
+            double min = Double.parseDouble(bounds[0]);
+            double max = Double.parseDouble(bounds[1]);
+            int count = Integer.parseInt(bounds[2]);
+            if (count < 1) {
+                throw new IllegalArgumentException("Invalid range " + range);
+            }
+            double[] values = new double[count];
+            for (int i = 0; i < count; i++) {
+                values[i] = count == 1 ? min : min + (max - min) * i / (count - 1);
+            }
+            return values;
+        } else if (bounds.length == 1) {
+            String[] items = range.split(",");
+            double[] values = new double[items.length];
+            for (int i = 0; i < items.length; i++) {
+                values[i] = Double.parseDouble(items[i].trim());
+            }
+            return values;
+        }
+        throw new IllegalArgumentException("Invalid range " + range);
+    }
+
+    /**
+     * Lists every combination of the swept values. The first parameter changes
+     * slowest.
+     *
+     * @param ranges the values of each swept parameter
+     * @return the combinations, with only the swept parameters set
+     */
+    public static List<Map<Parameter, Double>> combinations(Map<Parameter, double[]> ranges) {
+        List<Map<Parameter, Double>> combinations = new ArrayList<>();
+        combinations.add(new EnumMap<>(Parameter.class));
+        for (Map.Entry<Parameter, double[]> range : ranges.entrySet()) {
+            List<Map<Parameter, Double>> expanded = new ArrayList<>(combinations.size() * range.getValue().length);
+            for (Map<Parameter, Double> combination : combinations) {
+                for (double value : range.getValue()) {
+                    Map<Parameter, Double> copy = new EnumMap<>(Parameter.class);
+                    copy.putAll(combination);
+                    copy.put(range.getKey(), value);
+                    expanded.add(copy);
+                }
+            }
+            combinations = expanded;
+        }
+        return combinations;
+    }
+
+    /**
+     * Generates every path of every document under every combination in
+     * parallel. Documents that cannot be read are reported and skipped. The
+     * executor is shut down afterwards.
+     *
+     * @param generator the generator to use
+     * @param documentFiles the documents to read
+     * @param combinations the parameter values to apply over each document's robot configuration
+     * @param pool the executor to solve with
+     * @return the results, ordered by combination, then document, then path
+     */
+    public static List<Result> sweep(TrajectoryGenerator generator, List<File> documentFiles, List<Map<Parameter, Double>> combinations, GenerationExecutor pool) {
+        Map<String, HDocument> documents = new LinkedHashMap<>();
+        for (File documentFile : documentFiles) {
+            try {
+                documents.put(documentFile.getName().replaceFirst("\\.json$", ""), JSONDeserializer.deserialize(documentFile, HDocument.class));
+            } catch (IOException | JSONParserException | InvalidJSONTranslationConfiguration | JSONDeserializerException e) {
+                System.err.println(documentFile.getPath() + ": Could not read document: " + e.getMessage());
+            }
+        }
+        return sweep(generator, documents, combinations, pool);
+    }
+
+    /**
+     * Generates every path of every document under every combination in
+     * parallel. The documents are not modified. The executor is shut down
+     * afterwards.
+     *
+     * @param generator the generator to use
+     * @param documents the documents by name, in the order to report them
+     * @param combinations the parameter values to apply over each document's robot configuration
+     * @param pool the executor to solve with
+     * @return the results, ordered by combination, then document, then path
+     */
+    public static List<Result> sweep(TrajectoryGenerator generator, Map<String, HDocument> documents, List<Map<Parameter, Double>> combinations, GenerationExecutor pool) {
+        List<Result> results = new ArrayList<>();
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try {
+            for (int c = 0; c < combinations.size(); c++) {
+                for (Map.Entry<String, HDocument> entry : documents.entrySet()) {
+                    HDocument document = entry.getValue();
+                    HRobotConfiguration configuration = new HRobotConfiguration();
+                    configuration.importConfiguration(document.getRobotConfiguration());
+                    combinations.get(c).forEach((parameter, value) -> parameter.setter.accept(configuration, value));
+                    Map<Parameter, Double> parameters = new EnumMap<>(Parameter.class);
+                    for (Parameter parameter : Parameter.values()) {
+                        parameters.put(parameter, parameter.getter.applyAsDouble(configuration));
+                    }
+                    SwerveDrivetrain drive = configuration.toDrive();
+                    LinkedSolves solves = new LinkedSolves(document,
+                            path -> ControlIntervals.assign(path, drive, document.getControlIntervalDensity()),
+                            path -> pool.submit(generator, drive, path));
+                    for (HPath hPath : document.getPaths()) {
+                        Result result = new Result(c, entry.getKey(), hPath.getName(), parameters);
+                        results.add(result);
+                        result.status = GenerationStatus.GENERATING.toString();
+                        futures.add(solves.solve(hPath).handle((generated, error) -> {
+                            if (error != null) {
+                                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                                result.status = GenerationStatus.ofFailure(cause).toString();
+                                result.error = cause.toString();
+                            } else {
+                                result.status = GenerationStatus.SUCCEEDED.toString();
+                                result.trajectoryDuration = generated.trajectory.duration;
+                                result.solveTime = generated.solveTime;
+                            }
+                            return null;
+                        }));
+                    }
+                }
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    /**
+     * Writes one row for each result, with a column for every parameter.
+     *
+     * @param results the results
+     * @param outputFile the CSV file to write
+     * @throws IOException if the file could not be written
+     */
+    public static void writeCSV(List<Result> results, File outputFile) throws IOException {
+        File parent = outputFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (PrintWriter writer = new PrintWriter(outputFile, "UTF-8")) {
+            StringBuilder header = new StringBuilder("configuration");
+            for (Parameter parameter : Parameter.values()) {
+                header.append(',').append(parameter.column);
+            }
+            header.append(",document,path,status,feasible,trajectory_duration,solve_time,error");
+            writer.println(header);
+            for (Result result : results) {
+                StringBuilder row = new StringBuilder(Integer.toString(result.combination));
+                for (Parameter parameter : Parameter.values()) {
+                    row.append(',').append(result.parameters.get(parameter));
+                }
+                row.append(',').append(quote(result.document))
+                        .append(',').append(quote(result.path))
+                        .append(',').append(result.status)
+                        .append(',').append(result.isFeasible())
+                        .append(',').append(result.isFeasible() ? Double.toString(result.trajectoryDuration) : "")
+                        .append(',').append(result.solveTime)
+                        .append(',').append(quote(result.error));
+                writer.println(row);
+            }
+            if (writer.checkError()) {
+                throw new IOException("Could not write " + outputFile);
+            }
+        }
+    }
+
+    private static String quote(String field) {
+        if (field.contains(",") || field.contains("\"") || field.contains("\n")) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+
+    private static void printTable(List<Result> results, List<Map<Parameter, Double>> combinations, Iterable<Parameter> swept) {
+        int[] feasibleCounts = new int[combinations.size()];
+        int[] pathCounts = new int[combinations.size()];
+        double[] totalDurations = new double[combinations.size()];
+        for (Result result : results) {
+            pathCounts[result.combination]++;
+            if (result.isFeasible()) {
+                feasibleCounts[result.combination]++;
+                totalDurations[result.combination] += result.trajectoryDuration;
+            }
+        }
+        StringBuilder header = new StringBuilder(String.format("%4s", "#"));
+        for (Parameter parameter : swept) {
+            header.append(String.format(" %24s", parameter.column));
+        }
+        header.append(String.format(" %9s %14s", "feasible", "total time (s)"));
+        System.out.println(header);
+        for (int c = 0; c < combinations.size(); c++) {
+            StringBuilder row = new StringBuilder(String.format("%4d", c));
+            for (Parameter parameter : swept) {
+                row.append(String.format(" %24.4f", combinations.get(c).get(parameter)));
+            }
+            row.append(String.format(" %4d/%-4d %14.3f", feasibleCounts[c], pathCounts[c], totalDurations[c]));
+            System.out.println(row);
+        }
+    }
+}
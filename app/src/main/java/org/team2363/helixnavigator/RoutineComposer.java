@@ -0,0 +1,378 @@
+package org.team2363.helixnavigator;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.team2363.helixnavigator.document.HDocument;
+import org.team2363.helixnavigator.document.HPath;
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixnavigator.generation.ControlIntervals;
+import org.team2363.helixnavigator.generation.GenerationExecutor;
+import org.team2363.helixnavigator.generation.GenerationResult;
+import org.team2363.helixnavigator.generation.GenerationStatus;
+import org.team2363.helixnavigator.generation.TrajectoryGenerator;
+import org.team2363.helixnavigator.global.DefaultResources;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+import com.jlbabilino.json.InvalidJSONTranslationConfiguration;
+import com.jlbabilino.json.JSONDeserializer;
+import com.jlbabilino.json.JSONDeserializerException;
+import com.jlbabilino.json.JSONParserException;
+
+/**
+ * <p>
+ * Composes an autonomous routine out of legs that each have several candidate
+ * paths, picking the combination that scores the most within a time limit.
+ * Run it with:
+ * </p>
+ * <pre>
+ * HelixNavigator --compose [--time-limit SECONDS] [--tolerance METERS] [--threads N]
+ *                          [--generator NAME] [--budget SECONDS] [--nodes HOST[:PORT],... | --local-nodes N]
+ *                          --leg PATH[=SCORE][|PATH[=SCORE]...] [--leg ...] DOCUMENT
+ * </pre>
+ * <p>
+ * Each {@code --leg} lists the paths of the document that can be driven for
+ * that leg, with the points each one is worth (default 0). The legs are driven
+ * in the order given. Every listed path is generated once, all in parallel,
+ * and then one path is chosen for each leg so that each path starts within
+ * {@code --tolerance} meters (default {@value #DEFAULT_TOLERANCE}) of where the
+ * one before it ends, the total time fits in {@code --time-limit} seconds
+ * (default {@value #DEFAULT_TIME_LIMIT}), and the total score is as high as
+ * possible, with the shortest total time breaking ties. The timeline of the
+ * chosen routine is printed. The options that choose how paths are solved,
+ * like {@code --budget} and {@code --nodes}, are the same as in
+ * {@link HeadlessGenerator}. The exit code is 0 if a routine fits, 1 if
+ * none does, and 2 if the arguments are invalid.
+ * </p>
+ */
+public class RoutineComposer {
+
+    public static final String COMMAND = "--compose";
+    public static final double DEFAULT_TIME_LIMIT = 15.0;
+    public static final double DEFAULT_TOLERANCE = 0.1;
+
+    private static final String USAGE = "Usage: HelixNavigator " + COMMAND + " [--time-limit SECONDS] [--tolerance METERS]"
+            + " " + SolverOptions.USAGE + " --leg PATH[=SCORE][|PATH[=SCORE]...] [--leg ...] DOCUMENT";
+
+    /**
+     * One of the paths that can be driven for a leg.
+     */
+    public static class Variant {
+        /**
+         * The index of the leg
+         */
+        public final int leg;
+        public final String path;
+        public final double score;
+        public String status = GenerationStatus.QUEUED.toString();
+        public String error = "";
+        public HTrajectory trajectory = null;
+
+        public Variant(int leg, String path, double score) {
+            this.leg = leg;
+            this.path = path;
+            this.score = score;
+        }
+
+        public boolean isFeasible() {
+            return trajectory != null;
+        }
+
+        /**
+         * @return the duration of the trajectory in seconds
+         */
+        public double getDuration() {
+            return trajectory.duration;
+        }
+
+        /**
+         * Checks whether this variant can be driven right after another.
+         *
+         * @param previous the variant of the leg before
+         * @param tolerance the largest distance in meters between the end of {@code previous} and the start of this variant
+         * @return {@code true} if this variant starts where {@code previous} ends
+         */
+        public boolean canFollow(Variant previous, double tolerance) {
+            HTrajectorySample end = previous.trajectory.samples.get(previous.trajectory.samples.size() - 1);
+            HTrajectorySample start = trajectory.samples.get(0);
+            return Math.hypot(start.x - end.x, start.y - end.y) <= tolerance;
+        }
+    }
+
+    /**
+     * A choice of one variant for each leg.
+     */
+    public static class Routine {
+        public final List<Variant> variants;
+        public final double totalTime;
+        public final double totalScore;
+
+        private Routine(List<Variant> variants) {
+            this.variants = variants;
+            double totalTime = 0.0;
+            double totalScore = 0.0;
+            for (Variant variant : variants) {
+                totalTime += variant.getDuration();
+                totalScore += variant.score;
+            }
+            this.totalTime = totalTime;
+            this.totalScore = totalScore;
+        }
+    }
+
+    /**
+     * A partial routine that ends with a variant: the best way found to get there
+     * for a given score.
+     */
+    private static class Label {
+        private final Variant variant;
+        private final Label previous;
+        private final double time;
+        private final double score;
+
+        private Label(Variant variant, Label previous) {
+            this.variant = variant;
+            this.previous = previous;
+            this.time = (previous == null ? 0.0 : previous.time) + variant.getDuration();
+            this.score = (previous == null ? 0.0 : previous.score) + variant.score;
+        }
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args));
+    }
+
+    /**
+     * Runs the composer.
+     *
+     * @param args the arguments after {@value #COMMAND}
+     * @return the exit code
+     */
+    public static int run(String[] args) {
+        double timeLimit = DEFAULT_TIME_LIMIT;
+        double tolerance = DEFAULT_TOLERANCE;
+        SolverOptions solverOptions = new SolverOptions();
+        List<Variant> variants = new ArrayList<>();
+        int legCount = 0;
+        File documentFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                int last = solverOptions.parse(args, i);
+                if (last != -1) {
+                    i = last;
+                    continue;
+                }
+                switch (args[i]) {
+                    case "--time-limit":
+                        timeLimit = Double.parseDouble(args[++i]);
+                        break;
+                    case "--tolerance":
+                        tolerance = Double.parseDouble(args[++i]);
+                        break;
+                    case "--leg":
+                        variants.addAll(parseLeg(legCount++, args[++i]));
+                        break;
+                    default:
+                        if (documentFile != null) {
+                            System.err.println(USAGE);
+                            return 2;
+                        }
+                        documentFile = new File(args[i]);
+                        break;
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(USAGE);
+            return 2;
+        }
+        if (documentFile == null || legCount == 0 || !(timeLimit > 0.0) || !(tolerance >= 0.0) || !solverOptions.isValid()) {
+            System.err.println(USAGE);
+            return 2;
+        }
+
+        DefaultResources.loadAllResources();
+        HDocument document;
+        try {
+            document = JSONDeserializer.deserialize(documentFile, HDocument.class);
+        } catch (IOException | JSONParserException | InvalidJSONTranslationConfiguration | JSONDeserializerException e) {
+            System.err.println(documentFile.getPath() + ": Could not read document: " + e.getMessage());
+            return 1;
+        }
+        for (Variant variant : variants) {
+            if (findPath(document, variant.path) == null) {
+                System.err.println(documentFile.getPath() + ": No path named \"" + variant.path + "\".");
+                return 2;
+            }
+        }
+        GenerationExecutor executor = solverOptions.startExecutor();
+        if (executor == null) {
+            return 1;
+        }
+        System.out.printf("Generating %d variants of %d legs.%n", variants.size(), legCount);
+        generate(solverOptions.budgeted(solverOptions.baseGenerator()), document, variants, executor);
+        for (Variant variant : variants) {
+            if (!variant.isFeasible()) {
+                System.out.printf("Leg %d, \"%s\": %s %s%n", variant.leg + 1, variant.path, variant.status, variant.error);
+            }
+        }
+        Routine routine = compose(variants, legCount, timeLimit, tolerance);
+        if (routine == null) {
+            System.out.printf("No routine fits in %.3f s.%n", timeLimit);
+            return 1;
+        }
+        printTimeline(routine, timeLimit);
+        return 0;
+    }
+
+    /**
+     * Parses the variants of a leg, separated by {@code |}, each a path name
+     * optionally followed by {@code =SCORE}.
+     *
+     * @param leg the index of the leg
+     * @param spec the variants
+     * @return the variants
+     * @throws IllegalArgumentException if a variant is invalid
+     */
+    public static List<Variant> parseLeg(int leg, String spec) {
+        List<Variant> variants = new ArrayList<>();
+        for (String item : spec.split("\\|")) {
+            int equals = item.lastIndexOf('=');
+            String path = (equals == -1 ? item : item.substring(0, equals)).trim();
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("Invalid leg " + spec);
+            }
+            double score = equals == -1 ? 0.0 : Double.parseDouble(item.substring(equals + 1).trim());
+            variants.add(new Variant(leg, path, score));
+        }
+        return variants;
+    }
+
+    /**
+     * Generates the path of every variant in parallel, each path only once even
+     * if it is in several legs. A path linked to another is generated after it,
+     * starting in the state it ends in. The document is not modified. The executor is
+     * shut down afterwards.
+     *
+     * @param generator the generator to use
+     * @param document the document the paths are in
+     * @param variants the variants
+     * @param pool the executor to solve with
+     */
+    public static void generate(TrajectoryGenerator generator, HDocument document, List<Variant> variants, GenerationExecutor pool) {
+        SwerveDrivetrain drive = document.getRobotConfiguration().toDrive();
+        LinkedSolves solves = new LinkedSolves(document,
+                path -> ControlIntervals.assign(path, drive, document.getControlIntervalDensity()),
+                path -> pool.submit(generator, drive, path));
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        try {
+            for (Variant variant : variants) {
+                CompletableFuture<GenerationResult> solve = solves.solve(findPath(document, variant.path));
+                variant.status = GenerationStatus.GENERATING.toString();
+                futures.add(solve.handle((result, error) -> {
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        variant.status = GenerationStatus.ofFailure(cause).toString();
+                        variant.error = cause.toString();
+                    } else {
+                        variant.status = GenerationStatus.SUCCEEDED.toString();
+                        variant.trajectory = result.trajectory;
+                    }
+                    return null;
+                }));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Picks one feasible variant for each leg so that each starts where the one
+     * before ends and the total time fits the time limit, with the highest total
+     * score and then the shortest total time.
+     * <p>
+     * Leg by leg, only the partial routines that no other partial routine ending
+     * with the same variant beats on both score and time are kept, so the work
+     * grows with the number of legs and variants rather than with the number of
+     * combinations.
+     * </p>
+     *
+     * @param variants the generated variants of every leg
+     * @param legCount the number of legs
+     * @param timeLimit the time limit in seconds
+     * @param tolerance the largest distance in meters between the end of a leg and the start of the next
+     * @return the best routine, or {@code null} if none fits
+     */
+    public static Routine compose(List<Variant> variants, int legCount, double timeLimit, double tolerance) {
+        List<Label> labels = new ArrayList<>();
+        labels.add(null); // the empty routine
+        for (int leg = 0; leg < legCount; leg++) {
+            List<Label> nextLabels = new ArrayList<>();
+            for (Variant variant : variants) {
+                if (variant.leg != leg || !variant.isFeasible()) {
+                    continue;
+                }
+                List<Label> candidates = new ArrayList<>();
+                for (Label label : labels) {
+                    if (label == null || variant.canFollow(label.variant, tolerance)) {
+                        Label next = new Label(variant, label);
+                        if (next.time <= timeLimit) {
+                            candidates.add(next);
+                        }
+                    }
+                }
+                // fastest first, keeping each one that scores more than every faster one
+                candidates.sort(Comparator.<Label>comparingDouble(label -> label.time).thenComparingDouble(label -> -label.score));
+                double bestScore = Double.NEGATIVE_INFINITY;
+                for (Label candidate : candidates) {
+                    if (candidate.score > bestScore) {
+                        nextLabels.add(candidate);
+                        bestScore = candidate.score;
+                    }
+                }
+            }
+            labels = nextLabels;
+        }
+        Label best = null;
+        for (Label label : labels) {
+            if (label != null && (best == null || label.score > best.score || (label.score == best.score && label.time < best.time))) {
+                best = label;
+            }
+        }
+        if (best == null) {
+            return null;
+        }
+        List<Variant> chosen = new ArrayList<>(legCount);
+        for (Label label = best; label != null; label = label.previous) {
+            chosen.add(0, label.variant);
+        }
+        return new Routine(chosen);
+    }
+
+    private static HPath findPath(HDocument document, String name) {
+        for (HPath hPath : document.getPaths()) {
+            if (hPath.getName().equals(name)) {
+                return hPath;
+            }
+        }
+        return null;
+    }
+
+    private static void printTimeline(Routine routine, double timeLimit) {
+        System.out.println(String.format("%4s %-24s %9s %9s %9s %7s", "leg", "path", "start (s)", "end (s)", "time (s)", "score"));
+        double time = 0.0;
+        for (Variant variant : routine.variants) {
+            System.out.println(String.format("%4d %-24s %9.3f %9.3f %9.3f %7.1f", variant.leg + 1, variant.path,
+                    time, time + variant.getDuration(), variant.getDuration(), variant.score));
+            time += variant.getDuration();
+        }
+        System.out.println(String.format("Total: %.3f s of %.3f s (%.3f s to spare), score %.1f.",
+                routine.totalTime, timeLimit, timeLimit - routine.totalTime, routine.totalScore));
+    }
+}
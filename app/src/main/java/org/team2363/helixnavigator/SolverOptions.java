@@ -0,0 +1,113 @@
+package org.team2363.helixnavigator;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixnavigator.generation.GenerationExecutor;
+import org.team2363.helixnavigator.generation.ParallelTrajectoryGenerator;
+import org.team2363.helixnavigator.generation.SolverFarm;
+import org.team2363.helixnavigator.generation.TimeBudgetGenerator;
+import org.team2363.helixnavigator.generation.TrajectoryGenerator;
+import org.team2363.helixnavigator.generation.TrajectoryGenerators;
+
+/**
+ * The options every command line tool takes to choose how paths are solved:
+ * {@code --threads N}, {@code --generator NAME}, {@code --budget SECONDS}, and
+ * {@code --nodes HOST[:PORT],...} or {@code --local-nodes N} to solve on a
+ * {@link SolverFarm}.
+ */
+final class SolverOptions {
+
+    static final String USAGE = "[--threads N] [--generator NAME] [--budget SECONDS] [--nodes HOST[:PORT],... | --local-nodes N]";
+
+    int threadCount = Runtime.getRuntime().availableProcessors();
+    TrajectoryGenerator generator = TrajectoryGenerators.OPTIMAL;
+    double budgetSeconds = 0.0;
+    final List<InetSocketAddress> nodeAddresses = new ArrayList<>();
+    int localNodeCount = 0;
+
+    /**
+     * Reads one of these options, if {@code args[i]} is one.
+     *
+     * @param args the arguments
+     * @param i the index of the argument to read
+     * @return the index of the last argument read, or {@code -1} if {@code args[i]} isn't one of these options
+     * @throws IllegalArgumentException if the value of the option is invalid
+     * @throws ArrayIndexOutOfBoundsException if the value of the option is missing
+     */
+    int parse(String[] args, int i) {
+        switch (args[i]) {
+            case "--threads":
+                threadCount = Integer.parseInt(args[++i]);
+                return i;
+            case "--generator":
+                generator = TrajectoryGenerators.forName(args[++i]);
+                if (generator == null) {
+                    System.err.println("Unknown generator \"" + args[i] + "\".");
+                    throw new IllegalArgumentException("Unknown generator " + args[i]);
+                }
+                return i;
+            case "--budget":
+                budgetSeconds = Double.parseDouble(args[++i]);
+                return i;
+            case "--nodes":
+                for (String address : args[++i].split(",")) {
+                    nodeAddresses.add(SolverFarm.parseAddress(address.trim()));
+                }
+                return i;
+            case "--local-nodes":
+                localNodeCount = Integer.parseInt(args[++i]);
+                return i;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * @return {@code true} if the values read go together
+     */
+    boolean isValid() {
+        return threadCount >= 1 && budgetSeconds >= 0.0 && localNodeCount >= 0 && (localNodeCount == 0 || nodeAddresses.isEmpty());
+    }
+
+    /**
+     * @return the generator chosen, run so that it can be stopped when the budget runs out if there is one
+     *         (see {@link TrajectoryGenerators#stoppable(TrajectoryGenerator)})
+     */
+    TrajectoryGenerator baseGenerator() {
+        return budgetSeconds > 0.0 ? TrajectoryGenerators.stoppable(generator) : generator;
+    }
+
+    /**
+     * Gives a generator the time budget, if there is one.
+     *
+     * @param generator the generator, {@link #baseGenerator()} or one built around it
+     * @return the generator to solve with
+     */
+    TrajectoryGenerator budgeted(TrajectoryGenerator generator) {
+        return budgetSeconds > 0.0 ? new TimeBudgetGenerator(generator, (long) (budgetSeconds * 1000)) : generator;
+    }
+
+    /**
+     * Starts the executor to solve with: the solver farm if nodes were given,
+     * otherwise {@link #threadCount} local threads. Errors are printed.
+     *
+     * @return the executor, or {@code null} if the solver farm could not be started
+     */
+    GenerationExecutor startExecutor() {
+        try {
+            if (localNodeCount > 0) {
+                return SolverFarm.startLocal(localNodeCount, Math.max(1, threadCount / localNodeCount));
+            } else if (!nodeAddresses.isEmpty()) {
+                return SolverFarm.connect(nodeAddresses);
+            } else {
+                return new ParallelTrajectoryGenerator(threadCount);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not start solver farm: " + e.getMessage());
+            return null;
+        }
+    }
+}
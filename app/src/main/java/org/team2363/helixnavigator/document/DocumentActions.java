@@ -1,7 +1,20 @@
 package org.team2363.helixnavigator.document;
 
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
 
 import org.team2363.helixnavigator.document.field.image.HFieldImage;
 import org.team2363.helixnavigator.document.obstacle.HCircleObstacle;
@@ -12,16 +25,37 @@ import org.team2363.helixnavigator.document.timeline.HHardWaypoint;
 import org.team2363.helixnavigator.document.timeline.HInitialGuessWaypoint;
 import org.team2363.helixnavigator.document.timeline.HSoftWaypoint;
 import org.team2363.helixnavigator.document.timeline.HWaypoint;
+import org.team2363.helixnavigator.generation.ControlIntervals;
+import org.team2363.helixnavigator.generation.GenerationException;
+import org.team2363.helixnavigator.generation.GenerationInputCodec;
+import org.team2363.helixnavigator.generation.GenerationMetrics;
+import org.team2363.helixnavigator.generation.GenerationPriority;
+import org.team2363.helixnavigator.generation.GenerationRequest;
+import org.team2363.helixnavigator.generation.GenerationResult;
+import org.team2363.helixnavigator.generation.GenerationScheduler;
+import org.team2363.helixnavigator.generation.GenerationStatus;
+import org.team2363.helixnavigator.generation.LocalResolve;
+import org.team2363.helixnavigator.generation.MetricsLog;
+import org.team2363.helixnavigator.generation.MultiStartGenerator;
+import org.team2363.helixnavigator.generation.ObstacleCullingGenerator;
+import org.team2363.helixnavigator.generation.ProcessPoolGenerator;
+import org.team2363.helixnavigator.generation.ReachabilityMap;
+import org.team2363.helixnavigator.generation.SegmentedGenerator;
+import org.team2363.helixnavigator.generation.SolverInputs;
+import org.team2363.helixnavigator.generation.SolverSession;
+import org.team2363.helixnavigator.generation.TimeBudgetGenerator;
+import org.team2363.helixnavigator.generation.TimeScaling;
+import org.team2363.helixnavigator.generation.TrajectoryCache;
+import org.team2363.helixnavigator.generation.TrajectoryGenerator;
+import org.team2363.helixnavigator.generation.TrajectoryGenerators;
+import org.team2363.helixnavigator.generation.VisibilityGraph;
+import org.team2363.helixnavigator.generation.VisitOrder;
+import org.team2363.helixnavigator.generation.WarmStart;
 import org.team2363.helixnavigator.ui.prompts.RobotConfigDialog;
 import org.team2363.helixnavigator.ui.prompts.TransformDialog;
 import org.team2363.helixtrajectory.HolonomicPath;
-import org.team2363.helixtrajectory.HolonomicTrajectory;
-import org.team2363.helixtrajectory.InvalidPathException;
-import org.team2363.helixtrajectory.Obstacle;
-import org.team2363.helixtrajectory.OptimalTrajectoryGenerator;
-import org.team2363.helixtrajectory.PluginLoadException;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
 import org.team2363.helixtrajectory.SwerveDrivetrain;
-import org.team2363.helixtrajectory.TrajectoryGenerationException;
 
 import com.jlbabilino.json.InvalidJSONTranslationConfiguration;
 import com.jlbabilino.json.JSONArray;
@@ -34,12 +68,25 @@ import com.jlbabilino.json.JSONParserException;
 import com.jlbabilino.json.JSONSerializer;
 import com.jlbabilino.json.JSONSerializerException;
 
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyIntegerProperty;
+import javafx.beans.property.ReadOnlyIntegerWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
-import javafx.concurrent.Service;
-import javafx.concurrent.Task;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableMap;
 import javafx.geometry.Point2D;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
@@ -50,21 +97,34 @@ import javafx.scene.transform.Rotate;
 import javafx.scene.transform.Scale;
 import javafx.scene.transform.Transform;
 import javafx.scene.transform.Translate;
+import javafx.util.Duration;
 
 public class DocumentActions {
 
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.document");
+
+    private static final Duration LIVE_GENERATION_DELAY = Duration.millis(250);
+
     private final DocumentManager documentManager;
 
     private final BooleanProperty lockZoom = new SimpleBooleanProperty(this, "lockZoom", false);
     private final BooleanProperty showOrigin = new SimpleBooleanProperty(this, "showOrigin", false);
     private final BooleanProperty autoWaypoint = new SimpleBooleanProperty(this, "autoWaypoint", false);
 
+    private final Map<HPath, HPathInputBuilder> inputBuilders = new HashMap<>();
+    private final ListChangeListener<HPath> onPathsChanged = this::pathsChanged;
+    private final ChangeListener<HPath> onSelectedPathChanged = this::selectedPathChanged;
+
     private RobotConfigDialog robotConfigDialog = null;
     private TransformDialog transformDialog = null;
 
     DocumentActions(DocumentManager documentManager) {
         this.documentManager = documentManager;
 
+        liveDebounce.setOnFinished(event -> generateTrajectory());
+        liveGeneration.addListener(this::liveGenerationChanged);
+        showReachability.addListener((obsVal, wasShown, isShown) -> updateReachabilityMap());
+
         loadDocument(this.documentManager.getDocument());
         this.documentManager.documentProperty().addListener(this::documentChanged);
     }
@@ -79,15 +139,89 @@ public class DocumentActions {
             transformDialog.close();
             robotConfigDialog = null;
             transformDialog = null;
+            if (getLiveGeneration()) {
+                stopLiveGeneration(oldDocument);
+            }
+            oldDocument.getPaths().removeListener(onPathsChanged);
+            oldDocument.selectedPathProperty().removeListener(onSelectedPathChanged);
+            inputBuilders.values().forEach(HPathInputBuilder::dispose);
+            inputBuilders.clear();
+            scheduler.cancelAll();
+            endBatch();
+            reachabilityCancelled.set(true);
+            reachabilityMap.set(null);
         }
     }
     private void loadDocument(HDocument newDocument) {
         if (newDocument != null) {
             robotConfigDialog = new RobotConfigDialog(newDocument.getRobotConfiguration());
             transformDialog = new TransformDialog(newDocument);
+            if (getLiveGeneration()) {
+                startLiveGeneration(newDocument);
+            }
+            newDocument.getPaths().addListener(onPathsChanged);
+            newDocument.selectedPathProperty().addListener(onSelectedPathChanged);
+            if (getShowReachability()) {
+                updateReachabilityMap();
+            }
+        }
+    }
+
+    private void pathsChanged(ListChangeListener.Change<? extends HPath> change) {
+        while (change.next()) {
+            for (HPath removedPath : change.getRemoved()) {
+                HPathInputBuilder builder = inputBuilders.remove(removedPath);
+                if (builder != null) {
+                    builder.dispose();
+                }
+            }
         }
     }
 
+    private void selectedPathChanged(ObservableValue<? extends HPath> currentPath, HPath oldPath, HPath newPath) {
+        // a path waiting in a "generate all" request jumps the queue once it is selected
+        if (oldPath != null) {
+            scheduler.setPriority(oldPath, GenerationPriority.BACKGROUND);
+        }
+        if (newPath != null) {
+            scheduler.setPriority(newPath, GenerationPriority.SELECTED);
+        }
+        if (getShowReachability()) {
+            updateReachabilityMap();
+        }
+    }
+
+    private HPathInputBuilder inputBuilder(HPath hPath) {
+        return inputBuilders.computeIfAbsent(hPath, HPathInputBuilder::new);
+    }
+
+    private HolonomicPath solverInput(HDocument document, HPath hPath, SwerveDrivetrain drive) {
+        return solverInput(document, waypointInput(document, hPath), drive, null);
+    }
+
+    /**
+     * @return the waypoints of a path as the solver gets them, before initial guesses and
+     *         control intervals are added
+     */
+    private HolonomicPath waypointInput(HDocument document, HPath hPath) {
+        HolonomicPath path = inputBuilder(hPath).build();
+        HPath upstreamPath = document.getUpstreamPath(hPath);
+        HTrajectory handOff = upstreamPath == null ? null : upstreamPath.getTrajectory();
+        if (previewTrajectories.contains(handOff)) {
+            handOff = trajectoriesUnderPreview.get(upstreamPath);
+        }
+        return SolverInputs.withStartState(path, handOff);
+    }
+
+    private HolonomicPath solverInput(HDocument document, HolonomicPath path, SwerveDrivetrain drive, SolverSession session) {
+        if (getAutomaticGuesses()) {
+            path = VisibilityGraph.addInitialGuesses(path, drive);
+        }
+        return session == null
+                ? ControlIntervals.assign(path, drive, document.getControlIntervalDensity())
+                : session.prepare(path, drive, document.getControlIntervalDensity());
+    }
+
     public RobotConfigDialog getRobotConfigDialog() {
         return robotConfigDialog;
     }
@@ -396,59 +530,1116 @@ public class DocumentActions {
         }
     }
 
-    private static class TrajectoryGenerationService extends Service<HolonomicTrajectory> {
+    private final GenerationScheduler scheduler = new GenerationScheduler();
+    private final TrajectoryCache trajectoryCache = new TrajectoryCache();
+    private final MetricsLog metricsLog = new MetricsLog();
+    private final ObservableMap<HPath, GenerationMetrics> generationMetrics = FXCollections.<HPath, GenerationMetrics>observableHashMap();
+    private final ObjectProperty<TrajectoryGenerator> generator = new SimpleObjectProperty<>(this, "generator", TrajectoryGenerators.OPTIMAL);
+    private final BooleanProperty previewGeneration = new SimpleBooleanProperty(this, "previewGeneration", true);
+    private final BooleanProperty segmentedGeneration = new SimpleBooleanProperty(this, "segmentedGeneration", false);
+    private final BooleanProperty isolatedGeneration = new SimpleBooleanProperty(this, "isolatedGeneration", false);
+    private final BooleanProperty multiStartGeneration = new SimpleBooleanProperty(this, "multiStartGeneration", false);
+    private final DoubleProperty timeBudget = new SimpleDoubleProperty(this, "timeBudget", 0.0);
+    private final BooleanProperty obstacleCulling = new SimpleBooleanProperty(this, "obstacleCulling", false);
+    private final BooleanProperty automaticGuesses = new SimpleBooleanProperty(this, "automaticGuesses", false);
+    private final ReadOnlyBooleanWrapper previewShown = new ReadOnlyBooleanWrapper(this, "previewShown", false);
+    private final Set<HTrajectory> previewTrajectories = Collections.newSetFromMap(new WeakHashMap<>());
+    private final Map<HPath, HTrajectory> trajectoriesUnderPreview = new WeakHashMap<>();
+    private final Map<HPath, SolvedInput> solvedInputs = new WeakHashMap<>();
+    private final BooleanProperty localResolve = new SimpleBooleanProperty(this, "localResolve", false);
+    private final BooleanProperty solverSessions = new SimpleBooleanProperty(this, "solverSessions", false);
+    private final Map<HPath, SolverSession> sessions = new WeakHashMap<>();
+    private final BooleanProperty showReachability = new SimpleBooleanProperty(this, "showReachability", false);
+    private final ReadOnlyObjectWrapper<ReachabilityMap> reachabilityMap = new ReadOnlyObjectWrapper<>(this, "reachabilityMap", null);
+    private final ForkJoinPool reachabilityPool = new ForkJoinPool();
+    private AtomicBoolean reachabilityCancelled = new AtomicBoolean(false);
+    private final BooleanProperty warmStart = new SimpleBooleanProperty(this, "warmStart", false);
+    private final BooleanProperty liveGeneration = new SimpleBooleanProperty(this, "liveGeneration", false);
+    private final PauseTransition liveDebounce = new PauseTransition(LIVE_GENERATION_DELAY);
+    private final ChangeListener<HPath> onLiveSelectedPathChanged = (currentPath, oldPath, newPath) -> {
+        watchLivePath(newPath);
+        scheduleLiveGeneration();
+    };
+    private final ChangeListener<Object> onLiveRobotConfigurationChanged = (currentValue, oldValue, newValue) -> scheduleLiveGeneration();
+    private HPathWatcher livePathWatcher = null;
+    private long generationRequestCount = 0;
+    private int runningGenerationCount = 0;
+    private final ResultOrder<HPath> resultOrder = new ResultOrder<>();
+    private final ObservableMap<HPath, SolveTimes> solveTimes = FXCollections.<HPath, SolveTimes>observableHashMap();
+    private final ReadOnlyBooleanWrapper generationRunning = new ReadOnlyBooleanWrapper(this, "generationRunning", false);
 
-        private SwerveDrivetrain drive = null;
-        private HolonomicPath path = null;
+    /**
+     * The solver input that produced the trajectory shown for a path.
+     */
+    private static final class SolvedInput {
+        private final byte[] drive;
+        private final byte[] input;
+        private final HolonomicPath path;
+        private final HTrajectory trajectory;
 
-        TrajectoryGenerationService() {
+        private SolvedInput(SwerveDrivetrain drive, HolonomicPath path, HTrajectory trajectory) {
+            this.drive = GenerationInputCodec.encode(drive);
+            this.input = GenerationInputCodec.encode(drive, path);
+            this.path = path;
+            this.trajectory = trajectory;
         }
 
-        @Override
-        protected Task<HolonomicTrajectory> createTask() {
-            Task<HolonomicTrajectory> optimizeTask = new Task<HolonomicTrajectory>() {
-                @Override
-                protected HolonomicTrajectory call() throws PluginLoadException, InvalidPathException, TrajectoryGenerationException {
-                    System.out.println("Path optimizing: " + path.toString());
-                    if (drive != null && path != null) {
-                        HolonomicTrajectory traj = OptimalTrajectoryGenerator.generate(drive, path);
-                        System.out.println("Generation complete, closing task...");
-                        return traj;
-                    } else {
-                        throw new TrajectoryGenerationException("No path specified for optimization service.");
-                    }
-                }
-            };
-            return optimizeTask;
+        private boolean isFor(SwerveDrivetrain drive) {
+            return Arrays.equals(this.drive, GenerationInputCodec.encode(drive));
+        }
+
+        private boolean isFor(SwerveDrivetrain drive, HolonomicPath path) {
+            return Arrays.equals(input, GenerationInputCodec.encode(drive, path));
         }
     }
 
-    private final TrajectoryGenerationService service = new TrajectoryGenerationService();
+    /**
+     * Whether a request made with "Generate" is queued or being solved.
+     *
+     * @return the generation running property
+     */
     public final ReadOnlyBooleanProperty generationRunningProperty() {
-        return service.runningProperty();
+        return generationRunning.getReadOnlyProperty();
+    }
+
+    private final void setGenerationRunning(boolean value) {
+        generationRunning.set(value);
+    }
+
+    public final boolean getGenerationRunning() {
+        return generationRunning.get();
+    }
+
+    /**
+     * @return the scheduler every generation request of this editor is queued on
+     */
+    public final GenerationScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * The generator used by "Generate", "Generate All", and live generation.
+     * 
+     * @return the generator property
+     */
+    public final ObjectProperty<TrajectoryGenerator> generatorProperty() {
+        return generator;
+    }
+
+    public final void setGenerator(TrajectoryGenerator value) {
+        generator.set(value);
+    }
+
+    public final TrajectoryGenerator getGenerator() {
+        return generator.get();
+    }
+
+    /**
+     * When enabled, paths are split where the robot stops with its whole state
+     * constrained and the pieces are generated in parallel (see
+     * {@link SegmentedGenerator}).
+     * 
+     * @return the segmented generation property
+     */
+    public final BooleanProperty segmentedGenerationProperty() {
+        return segmentedGeneration;
+    }
+
+    public final void setSegmentedGeneration(boolean value) {
+        segmentedGeneration.set(value);
+    }
+
+    public final boolean getSegmentedGeneration() {
+        return segmentedGeneration.get();
+    }
+
+    /**
+     * When enabled, solves run in separate worker processes (see
+     * {@link ProcessPoolGenerator}) so that a solver crash can't close the editor
+     * and a stuck solve can be stopped with {@link #cancelGeneration()}.
+     * 
+     * @return the isolated generation property
+     */
+    public final BooleanProperty isolatedGenerationProperty() {
+        return isolatedGeneration;
+    }
+
+    public final void setIsolatedGeneration(boolean value) {
+        isolatedGeneration.set(value);
+    }
+
+    public final boolean getIsolatedGeneration() {
+        return isolatedGeneration.get();
+    }
+
+    /**
+     * When enabled, paths with obstacles are solved from several initial guesses
+     * at once and the fastest trajectory is kept (see {@link MultiStartGenerator}).
+     * 
+     * @return the multi-start generation property
+     */
+    public final BooleanProperty multiStartGenerationProperty() {
+        return multiStartGeneration;
+    }
+
+    public final void setMultiStartGeneration(boolean value) {
+        multiStartGeneration.set(value);
+    }
+
+    public final boolean getMultiStartGeneration() {
+        return multiStartGeneration.get();
+    }
+
+    /**
+     * When enabled, obstacles far from a segment are left out of its solve (see
+     * {@link ObstacleCullingGenerator}).
+     * 
+     * @return the obstacle culling property
+     */
+    public final BooleanProperty obstacleCullingProperty() {
+        return obstacleCulling;
+    }
+
+    public final void setObstacleCulling(boolean value) {
+        obstacleCulling.set(value);
+    }
+
+    public final boolean getObstacleCulling() {
+        return obstacleCulling.get();
+    }
+
+    /**
+     * When enabled, segments without initial guess points that are blocked by
+     * obstacles are given guesses that go around them (see
+     * {@link VisibilityGraph}).
+     * 
+     * @return the automatic guesses property
+     */
+    public final BooleanProperty automaticGuessesProperty() {
+        return automaticGuesses;
     }
+
+    public final void setAutomaticGuesses(boolean value) {
+        automaticGuesses.set(value);
+    }
+
+    public final boolean getAutomaticGuesses() {
+        return automaticGuesses.get();
+    }
+
+    /**
+     * When enabled, "Generate" solves only the part of the selected path around
+     * the waypoints that changed since its trajectory was generated, and splices
+     * the result into that trajectory (see {@link LocalResolve}).
+     * 
+     * @return the local re-solve property
+     */
+    public final BooleanProperty localResolveProperty() {
+        return localResolve;
+    }
+
+    public final void setLocalResolve(boolean value) {
+        localResolve.set(value);
+    }
+
+    public final boolean getLocalResolve() {
+        return localResolve.get();
+    }
+
+    /**
+     * When enabled, "Generate" keeps a {@link SolverSession} for each path, so
+     * repeated solves of a path whose structure hasn't changed keep the same
+     * control intervals and start from the last solution.
+     * 
+     * @return the solver sessions property
+     */
+    public final BooleanProperty solverSessionsProperty() {
+        return solverSessions;
+    }
+
+    public final void setSolverSessions(boolean value) {
+        solverSessions.set(value);
+    }
+
+    public final boolean getSolverSessions() {
+        return solverSessions.get();
+    }
+
+    /**
+     * The time in seconds each generation request may take, or {@code 0} for no
+     * limit. A request that runs out of time fails, unless multi-start
+     * generation is enabled and one of its starts has finished, in which case
+     * the best of those is used (see {@link TimeBudgetGenerator}). While there is
+     * a limit, solves run in worker processes so that they are stopped when they
+     * run out of time (see {@link TrajectoryGenerators#stoppable(TrajectoryGenerator)}).
+     * 
+     * @return the time budget property
+     */
+    public final DoubleProperty timeBudgetProperty() {
+        return timeBudget;
+    }
+
+    public final void setTimeBudget(double value) {
+        timeBudget.set(value);
+    }
+
+    public final double getTimeBudget() {
+        return timeBudget.get();
+    }
+
+    private TrajectoryGenerator requestGenerator() {
+        TrajectoryGenerator requestGenerator = getGenerator();
+        if (getIsolatedGeneration()) {
+            requestGenerator = TrajectoryGenerators.isolated(requestGenerator);
+        } else if (getTimeBudget() > 0.0) {
+            requestGenerator = TrajectoryGenerators.stoppable(requestGenerator);
+        }
+        if (getMultiStartGeneration()) {
+            requestGenerator = TrajectoryGenerators.multiStart(requestGenerator);
+        }
+        if (getObstacleCulling()) {
+            requestGenerator = TrajectoryGenerators.culled(requestGenerator);
+        }
+        if (getSegmentedGeneration()) {
+            requestGenerator = TrajectoryGenerators.segmented(requestGenerator);
+        }
+        if (getTimeBudget() > 0.0) {
+            requestGenerator = new TimeBudgetGenerator(requestGenerator, (long) (getTimeBudget() * 1000));
+        }
+        return requestGenerator;
+    }
+
+    /**
+     * Cancels every queued and running generation request and kills every solve
+     * running in a worker process. The document is left as it was. Solves running
+     * in the editor's own process can't be interrupted, so they finish in the
+     * background and their results are discarded.
+     */
+    public void cancelGeneration() {
+        scheduler.cancelAll();
+        TrajectoryGenerators.isolated(getGenerator()).cancelAll();
+    }
+
+    /**
+     * When enabled, a {@link TrajectoryGenerators#PREVIEW preview} of the selected
+     * path is shown as soon as generation is requested, and is replaced once the
+     * slower generator finishes.
+     * 
+     * @return the preview generation property
+     */
+    public final BooleanProperty previewGenerationProperty() {
+        return previewGeneration;
+    }
+
+    public final void setPreviewGeneration(boolean value) {
+        previewGeneration.set(value);
+    }
+
+    public final boolean getPreviewGeneration() {
+        return previewGeneration.get();
+    }
+
+    /**
+     * Whether the trajectory most recently shown by "Generate" is a preview that
+     * is still waiting to be replaced.
+     * 
+     * @return the preview shown property
+     */
+    public final ReadOnlyBooleanProperty previewShownProperty() {
+        return previewShown.getReadOnlyProperty();
+    }
+
+    private final void setPreviewShown(boolean value) {
+        previewShown.set(value);
+    }
+
+    public final boolean getPreviewShown() {
+        return previewShown.get();
+    }
+
+    /**
+     * When enabled, the selected path's current trajectory is used as the initial
+     * guess for its next solve (see {@link WarmStart}).
+     * 
+     * @return the warm start property
+     */
+    public final BooleanProperty warmStartProperty() {
+        return warmStart;
+    }
+
+    public final void setWarmStart(boolean value) {
+        warmStart.set(value);
+    }
+
+    public final boolean getWarmStart() {
+        return warmStart.get();
+    }
+
+    /**
+     * @return the times of the last cold and warm started solves of each path
+     *         started with "Generate"
+     */
+    public final ObservableMap<HPath, SolveTimes> getSolveTimes() {
+        return solveTimes;
+    }
+
+    /**
+     * <p>
+     * Generates a trajectory for the selected path. The request is queued on the
+     * {@link #getScheduler() scheduler} ahead of background work and supersedes
+     * any earlier request for the same path, so repeated calls always end with a
+     * trajectory for the latest state of the path. A superseded solve that has
+     * already started finishes first, since it cannot be interrupted.
+     * </p>
+     * <p>
+     * A result is only shown if nothing newer has been shown for the same path
+     * since the solve was requested; for example a cache hit for a later edit wins
+     * over a slow solve for an earlier one. If preview generation is enabled, a
+     * preview is shown right away for every request, including queued ones.
+     * </p>
+     */
     public void generateTrajectory() {
         if (documentManager.getIsDocumentOpen() && documentManager.getDocument().isPathSelected()) {
+            Instant requestTime = Instant.now();
+            long requestStart = System.nanoTime();
             HDocument hDocument = documentManager.getDocument();
             HPath hPath = documentManager.getDocument().getSelectedPath();
+            TrajectoryGenerator requestGenerator = requestGenerator();
             SwerveDrivetrain drive = hDocument.getRobotConfiguration().toDrive();
-            List<Obstacle> obstacles = new ArrayList<>(hPath.getObstacles().size());
-            for (int i = 0; i < hPath.getObstacles().size(); i++) {
-                obstacles.add(hPath.getObstacles().get(i).toObstacle());
-            }
-            HolonomicPath path = hPath.toPath(obstacles);
-            service.drive = drive;
-            service.path = path;
-            service.setOnSucceeded(workerState -> {
-                HolonomicTrajectory traj = (HolonomicTrajectory) workerState.getSource().getValue();
-                hPath.setTrajectory(HTrajectory.fromTrajectory(traj));
+            SolverSession session = getSolverSessions() ? sessions.computeIfAbsent(hPath, key -> new SolverSession()) : null;
+            double density = hDocument.getControlIntervalDensity();
+            HolonomicPath path;
+            try {
+                path = solverInput(hDocument, waypointInput(hDocument, hPath), drive, session);
+            } catch (RuntimeException e) {
+                logger.warning("Could not convert path \"" + hPath.getName() + "\" for generation: " + e);
+                double buildTime = (System.nanoTime() - requestStart) / 1e9;
+                recordMetrics(hPath, GenerationMetrics.failed(requestTime, hPath.getName(), requestGenerator, drive, null,
+                        false, buildTime, buildTime, e));
+                return;
+            }
+            double buildTime = (System.nanoTime() - requestStart) / 1e9;
+            long requestNumber = ++generationRequestCount;
+            // cache keys don't include the generator, so only optimal results are cached
+            String cacheKey = TrajectoryGenerators.isOptimal(requestGenerator) ? TrajectoryCache.key(drive, path) : null;
+            HTrajectory cachedTrajectory = cacheKey == null ? null : trajectoryCache.get(cacheKey);
+            if (cachedTrajectory != null) {
+                logger.info("Using cached trajectory for path \"" + hPath.getName() + "\".");
+                if (applyGeneratedTrajectory(requestNumber, false, hPath, cachedTrajectory)) {
+                    solvedInputs.put(hPath, new SolvedInput(drive, path, cachedTrajectory));
+                }
+                recordMetrics(hPath, GenerationMetrics.succeeded(requestTime, hPath.getName(), requestGenerator, drive, path,
+                        true, false, buildTime, 0.0, (System.nanoTime() - requestStart) / 1e9, cachedTrajectory));
+                return;
+            }
+            HTrajectory previousTrajectory = hPath.getTrajectory();
+            if (previewTrajectories.contains(previousTrajectory)) {
+                previousTrajectory = trajectoriesUnderPreview.get(hPath);
+            }
+            HolonomicPath fullPath = path;
+            SolvedInput previousInput = solvedInputs.get(hPath);
+            LocalResolve.Span span = getLocalResolve() && previousInput != null && previousInput.trajectory == previousTrajectory
+                    && previousInput.isFor(drive) ? LocalResolve.findSpan(previousInput.path, previousInput.trajectory, path) : null;
+            HTrajectory preview = getPreviewGeneration() && getGenerator() != TrajectoryGenerators.PREVIEW
+                    ? showPreview(requestNumber, hPath, drive, path) : null;
+            boolean warmStarted = span == null && (session != null ? session.canSeed() : getWarmStart() && previousTrajectory != null);
+            if (warmStarted) {
+                path = session != null ? session.seed(path) : WarmStart.seed(path, previousTrajectory);
+            }
+            if (span != null) {
+                logger.fine("Solving waypoints " + span.startWaypoint + " to " + span.endWaypoint + " of path \"" + hPath.getName() + "\" again.");
+                path = span.path;
+            }
+            HolonomicPath solvedPath = path;
+            runningGenerationCount++;
+            setGenerationRunning(true);
+            scheduler.submit(new GenerationRequest(hPath, GenerationPriority.SELECTED, requestGenerator, drive, path))
+                    .whenComplete((result, error) -> Platform.runLater(() -> {
+                runningGenerationCount--;
+                setGenerationRunning(runningGenerationCount > 0);
+                double wallTime = (System.nanoTime() - requestStart) / 1e9;
+                if (error instanceof CancellationException) {
+                    logger.fine("Generation of path \"" + hPath.getName() + "\" was superseded or cancelled.");
+                    withdrawPreview(hPath, preview);
+                } else if (error == null) {
+                    HTrajectory trajectory = result.trajectory;
+                    if (span != null) {
+                        // a spliced trajectory isn't necessarily optimal for the whole path, so it isn't cached
+                        trajectory = LocalResolve.splice(previousInput.trajectory, span, result.trajectory);
+                    } else if (cacheKey != null) {
+                        trajectoryCache.put(cacheKey, trajectory);
+                    }
+                    if (session != null) {
+                        session.solved(fullPath, density, trajectory);
+                    }
+                    if (applyGeneratedTrajectory(requestNumber, false, hPath, trajectory)) {
+                        solveTimes.put(hPath, solveTimes.getOrDefault(hPath, SolveTimes.NONE).with(warmStarted, result.solveTime));
+                        solvedInputs.put(hPath, new SolvedInput(drive, fullPath, trajectory));
+                    }
+                    recordMetrics(hPath, GenerationMetrics.succeeded(requestTime, hPath.getName(), requestGenerator, drive, solvedPath,
+                            false, warmStarted, buildTime, result.solveTime, wallTime, trajectory));
+                } else {
+                    logger.warning("Could not generate path \"" + hPath.getName() + "\": " + error);
+                    withdrawPreview(hPath, preview);
+                    recordMetrics(hPath, GenerationMetrics.failed(requestTime, hPath.getName(), requestGenerator, drive, solvedPath,
+                            warmStarted, buildTime, wallTime, error));
+                }
+            }));
+        }
+    }
+
+    private void recordMetrics(HPath hPath, GenerationMetrics metrics) {
+        generationMetrics.put(hPath, metrics);
+        metricsLog.append(metrics);
+    }
+
+    /**
+     * @return the metrics of the most recent generation of each path
+     */
+    public final ObservableMap<HPath, GenerationMetrics> getGenerationMetrics() {
+        return generationMetrics;
+    }
+
+    /**
+     * @return the log every generation's metrics are appended to
+     */
+    public final MetricsLog getMetricsLog() {
+        return metricsLog;
+    }
+
+    /**
+     * @return the preview, or {@code null} if it wasn't shown
+     */
+    private HTrajectory showPreview(long requestNumber, HPath hPath, SwerveDrivetrain drive, HolonomicPath path) {
+        HTrajectory preview;
+        try {
+            preview = TrajectoryGenerators.PREVIEW.generate(drive, path);
+        } catch (GenerationException e) {
+            logger.fine("Could not preview path \"" + hPath.getName() + "\": " + e.getMessage());
+            return null;
+        }
+        HTrajectory currentTrajectory = hPath.getTrajectory();
+        if (applyGeneratedTrajectory(requestNumber, true, hPath, preview)) {
+            // keep the real trajectory around to warm start from
+            if (currentTrajectory != null && !previewTrajectories.contains(currentTrajectory)) {
+                trajectoriesUnderPreview.put(hPath, currentTrajectory);
+            }
+            previewTrajectories.add(preview);
+            return preview;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Puts back the trajectory a preview was shown over, when the solve it stood
+     * in for won't finish. A preview ignores obstacles, so it mustn't be left on
+     * the path to be exported or handed off as if it were solved.
+     */
+    private void withdrawPreview(HPath hPath, HTrajectory preview) {
+        // if something newer has been shown since, it stays
+        if (preview != null && hPath.getTrajectory() == preview) {
+            hPath.setTrajectory(trajectoriesUnderPreview.remove(hPath));
+            setPreviewShown(false);
+        }
+    }
+
+    private boolean applyGeneratedTrajectory(long requestNumber, boolean preview, HPath hPath, HTrajectory trajectory) {
+        if (resultOrder.advance(hPath, requestNumber, preview)) {
+            hPath.setTrajectory(trajectory);
+            if (!preview) {
+                trajectoriesUnderPreview.remove(hPath);
+            }
+            setPreviewShown(preview);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    private void liveGenerationChanged(ObservableValue<? extends Boolean> currentValue, Boolean wasLive, Boolean isLive) {
+        if (isLive) {
+            startLiveGeneration(documentManager.getDocument());
+        } else {
+            stopLiveGeneration(documentManager.getDocument());
+        }
+    }
+
+    private void startLiveGeneration(HDocument document) {
+        if (document != null) {
+            document.selectedPathProperty().addListener(onLiveSelectedPathChanged);
+            document.getRobotConfiguration().driveProperties().forEach(property -> property.addListener(onLiveRobotConfigurationChanged));
+            document.controlIntervalDensityProperty().addListener(onLiveRobotConfigurationChanged);
+            watchLivePath(document.getSelectedPath());
+            scheduleLiveGeneration();
+        }
+    }
+
+    private void stopLiveGeneration(HDocument document) {
+        liveDebounce.stop();
+        if (document != null) {
+            document.selectedPathProperty().removeListener(onLiveSelectedPathChanged);
+            document.getRobotConfiguration().driveProperties().forEach(property -> property.removeListener(onLiveRobotConfigurationChanged));
+            document.controlIntervalDensityProperty().removeListener(onLiveRobotConfigurationChanged);
+        }
+        watchLivePath(null);
+    }
+
+    private void watchLivePath(HPath path) {
+        if (livePathWatcher != null) {
+            livePathWatcher.dispose();
+            livePathWatcher = null;
+        }
+        if (path != null) {
+            livePathWatcher = new HPathWatcher(path, element -> scheduleLiveGeneration());
+        }
+    }
+
+    private void scheduleLiveGeneration() {
+        liveDebounce.playFromStart();
+    }
+
+    /**
+     * When enabled, the selected path is regenerated automatically a short time
+     * after any of its waypoints, obstacles, or the robot configuration stop
+     * changing.
+     * 
+     * @return the live generation property
+     */
+    public final BooleanProperty liveGenerationProperty() {
+        return liveGeneration;
+    }
+
+    public final void setLiveGeneration(boolean value) {
+        liveGeneration.set(value);
+    }
+
+    public final boolean getLiveGeneration() {
+        return liveGeneration.get();
+    }
+
+    private final ObservableMap<HPath, GenerationStatus> batchStatuses = FXCollections.<HPath, GenerationStatus>observableHashMap();
+    private final Map<HPath, String> batchFailureMessages = new HashMap<>();
+    private final ReadOnlyIntegerWrapper batchRemaining = new ReadOnlyIntegerWrapper(this, "batchRemaining", 0);
+
+    /**
+     * The paths of a "generate all" request and the links between them, as they
+     * were when the request was made.
+     */
+    private static final class Batch {
+        private final HDocument document;
+        private final SwerveDrivetrain drive;
+        private final TrajectoryGenerator generator;
+        private final boolean onlyChanged;
+        private final Map<HPath, List<HPath>> downstreamPaths = new HashMap<>();
+
+        private Batch(HDocument document, SwerveDrivetrain drive, TrajectoryGenerator generator, boolean onlyChanged) {
+            this.document = document;
+            this.drive = drive;
+            this.generator = generator;
+            this.onlyChanged = onlyChanged;
+            for (HPath hPath : document.getPaths()) {
+                downstreamPaths.put(hPath, document.getDownstreamPaths(hPath));
+            }
+        }
+    }
+
+    private Batch batch = null;
+
+    /**
+     * <p>
+     * Generates a trajectory for every path in the document at the same time.
+     * Each path is queued on the {@link #getScheduler() scheduler}, the selected
+     * path first, and each result is written back to its path on the JavaFX
+     * application thread as soon as it finishes. Paths whose waypoints cannot be
+     * converted to a solver path are marked as failed immediately, and paths whose
+     * request is superseded by "Generate" or cancelled are marked as cancelled.
+     * </p>
+     * <p>
+     * A path linked to the end of another (see {@link HDocument#linkPaths(HPath, HPath)})
+     * starts in the state its trajectory ends in, so it is only queued once that
+     * trajectory has been generated. Paths in separate chains, and paths that
+     * start where the same path ends, are still solved at the same time. If a
+     * path fails, every path after it fails too.
+     * </p>
+     */
+    public void generateAllTrajectories() {
+        generateBatch(false);
+    }
+
+    /**
+     * Like {@link #generateAllTrajectories()}, but keeps the trajectory of every
+     * path whose solver input is the same as when that trajectory was generated.
+     * A path after a path that changed usually changes too, since it starts where
+     * the new trajectory ends, so after an edit only the edited path and the paths
+     * that actually depend on it are solved again.
+     */
+    public void generateChangedTrajectories() {
+        generateBatch(true);
+    }
+
+    private void generateBatch(boolean onlyChanged) {
+        if (documentManager.getIsDocumentOpen() && documentManager.getDocument().hasPaths() && !isBatchRunning()) {
+            HDocument hDocument = documentManager.getDocument();
+            batch = new Batch(hDocument, hDocument.getRobotConfiguration().toDrive(), requestGenerator(), onlyChanged);
+            batchStatuses.clear();
+            batchFailureMessages.clear();
+            List<HPath> hPaths = new ArrayList<>(hDocument.getPaths());
+            logger.info("Generating " + hPaths.size() + " paths on " + scheduler.getThreadCount() + " threads.");
+            setBatchRemaining(hPaths.size());
+            List<HPath> firstPaths = new ArrayList<>();
+            for (HPath hPath : hPaths) {
+                if (hDocument.getUpstreamPath(hPath) == null) {
+                    firstPaths.add(hPath);
+                } else {
+                    batchStatuses.put(hPath, GenerationStatus.QUEUED);
+                }
+            }
+            for (HPath hPath : firstPaths) {
+                submitBatchPath(batch, hPath);
+            }
+        }
+    }
+
+    /**
+     * Forgets the batch of the document being closed, so its counts aren't mixed
+     * with the next document's. Its paths were cancelled with the rest of the
+     * scheduler's requests, and their results are ignored when they come in.
+     */
+    private void endBatch() {
+        batch = null;
+        batchStatuses.clear();
+        batchFailureMessages.clear();
+        setBatchRemaining(0);
+    }
+
+    private void submitBatchPath(Batch batch, HPath hPath) {
+        HDocument hDocument = batch.document;
+        SwerveDrivetrain drive = batch.drive;
+        TrajectoryGenerator batchGeneratorChoice = batch.generator;
+        Instant requestTime = Instant.now();
+        long requestStart = System.nanoTime();
+        HolonomicPath path;
+        try {
+            // the model may only be read on this thread, so build the input before queueing it
+            path = solverInput(hDocument, hPath, drive);
+        } catch (RuntimeException e) {
+            double buildTime = (System.nanoTime() - requestStart) / 1e9;
+            recordMetrics(hPath, GenerationMetrics.failed(requestTime, hPath.getName(), batchGeneratorChoice, drive, null,
+                    false, buildTime, buildTime, e));
+            batchPathFinished(batch, hPath, null, e);
+            return;
+        }
+        HolonomicPath inputPath = path;
+        HTrajectory previousTrajectory = hPath.getTrajectory();
+        if (previewTrajectories.contains(previousTrajectory)) {
+            previousTrajectory = trajectoriesUnderPreview.get(hPath);
+        }
+        SolvedInput previousInput = solvedInputs.get(hPath);
+        if (batch.onlyChanged && previousInput != null && previousInput.trajectory == previousTrajectory && previousInput.isFor(drive, path)) {
+            logger.fine("Path \"" + hPath.getName() + "\" has not changed.");
+            batchPathFinished(batch, hPath, previousTrajectory, null);
+            return;
+        }
+        double buildTime = (System.nanoTime() - requestStart) / 1e9;
+        String cacheKey = TrajectoryGenerators.isOptimal(batchGeneratorChoice) ? TrajectoryCache.key(drive, path) : null;
+        HTrajectory cachedTrajectory = cacheKey == null ? null : trajectoryCache.get(cacheKey);
+        if (cachedTrajectory != null) {
+            recordMetrics(hPath, GenerationMetrics.succeeded(requestTime, hPath.getName(), batchGeneratorChoice, drive, path,
+                    true, false, buildTime, 0.0, (System.nanoTime() - requestStart) / 1e9, cachedTrajectory));
+            solvedInputs.put(hPath, new SolvedInput(drive, inputPath, cachedTrajectory));
+            batchPathFinished(batch, hPath, cachedTrajectory, null);
+            return;
+        }
+        boolean warmStarted = getWarmStart() && previousTrajectory != null;
+        if (warmStarted) {
+            path = WarmStart.seed(path, previousTrajectory);
+        }
+        HolonomicPath solvedPath = path;
+        batchStatuses.put(hPath, GenerationStatus.GENERATING);
+        GenerationPriority priority = hPath == hDocument.getSelectedPath() ? GenerationPriority.SELECTED : GenerationPriority.BACKGROUND;
+        scheduler.submit(new GenerationRequest(hPath, priority, batchGeneratorChoice, drive, path)).whenComplete((result, error) -> {
+            if (error instanceof CancellationException) {
+                Platform.runLater(() -> batchPathFinished(batch, hPath, null, error));
+                return;
+            }
+            HTrajectory trajectory = error == null ? result.trajectory : null;
+            if (trajectory != null && cacheKey != null) {
+                trajectoryCache.put(cacheKey, trajectory);
+            }
+            double wallTime = (System.nanoTime() - requestStart) / 1e9;
+            GenerationMetrics metrics = error == null
+                    ? GenerationMetrics.succeeded(requestTime, hPath.getName(), batchGeneratorChoice, drive, solvedPath,
+                            false, warmStarted, buildTime, result.solveTime, wallTime, trajectory)
+                    : GenerationMetrics.failed(requestTime, hPath.getName(), batchGeneratorChoice, drive, solvedPath,
+                            warmStarted, buildTime, wallTime, error);
+            Platform.runLater(() -> {
+                recordMetrics(hPath, metrics);
+                if (trajectory != null) {
+                    solvedInputs.put(hPath, new SolvedInput(drive, inputPath, trajectory));
+                }
+                batchPathFinished(batch, hPath, trajectory, error);
             });
-            if (!service.isRunning()) {
-                service.restart();
+        });
+    }
+
+    private void batchPathFinished(Batch batch, HPath hPath, HTrajectory trajectory, Throwable error) {
+        if (batch != this.batch) {
+            // the batch was ended when its document was closed
+            return;
+        }
+        if (error == null) {
+            hPath.setTrajectory(trajectory);
+            trajectoriesUnderPreview.remove(hPath);
+            batchStatuses.put(hPath, GenerationStatus.SUCCEEDED);
+        } else if (error instanceof CancellationException) {
+            batchStatuses.put(hPath, GenerationStatus.CANCELLED);
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            logger.warning("Could not generate path \"" + hPath.getName() + "\": " + cause.getMessage());
+            batchFailureMessages.put(hPath, String.valueOf(cause.getMessage()));
+            batchStatuses.put(hPath, GenerationStatus.ofFailure(cause));
+        }
+        setBatchRemaining(getBatchRemaining() - 1);
+        for (HPath downstreamPath : batch.downstreamPaths.getOrDefault(hPath, List.of())) {
+            if (batchStatuses.get(downstreamPath) != GenerationStatus.QUEUED) {
+                continue;
+            }
+            if (error == null) {
+                submitBatchPath(batch, downstreamPath);
+            } else if (error instanceof CancellationException) {
+                batchPathFinished(batch, downstreamPath, null, error);
+            } else {
+                batchPathFinished(batch, downstreamPath, null, new GenerationException("The path before it, \"" + hPath.getName() + "\", was not generated."));
             }
         }
     }
 
+    /**
+     * @return the status of each path in the most recent "generate all" request
+     */
+    public final ObservableMap<HPath, GenerationStatus> getBatchStatuses() {
+        return batchStatuses;
+    }
+
+    /**
+     * @param hPath a path from the most recent "generate all" request
+     * @return the reason the path failed to generate, or {@code null} if it did not fail
+     */
+    public final String getBatchFailureMessage(HPath hPath) {
+        return batchFailureMessages.get(hPath);
+    }
+
+    public final ReadOnlyIntegerProperty batchRemainingProperty() {
+        return batchRemaining.getReadOnlyProperty();
+    }
+
+    private final void setBatchRemaining(int value) {
+        batchRemaining.set(value);
+    }
+
+    public final int getBatchRemaining() {
+        return batchRemaining.get();
+    }
+
+    public final boolean isBatchRunning() {
+        return getBatchRemaining() > 0;
+    }
+
+    /**
+     * Replaces the trajectory of the selected path with a copy that runs at a
+     * fraction of its speed, without solving again (see {@link TimeScaling}).
+     * A solve that is still running for the path no longer replaces it. A
+     * preview isn't scaled, since it isn't the solved trajectory.
+     *
+     * @param speeds one speed for the whole trajectory, or one for each segment of
+     *        the path, as fractions of the current speed
+     * @return {@code false} if no path with a solved trajectory is selected
+     * @throws IllegalArgumentException if a speed is not positive, the number of speeds is wrong, or
+     *         the speed changes at a waypoint where the robot doesn't stop
+     */
+    public boolean scaleSelectedTrajectory(double... speeds) {
+        if (!documentManager.getIsDocumentOpen() || !documentManager.getDocument().isPathSelected()
+                || documentManager.getDocument().getSelectedPath().getTrajectory() == null
+                || previewTrajectories.contains(documentManager.getDocument().getSelectedPath().getTrajectory())) {
+            return false;
+        }
+        HPath hPath = documentManager.getDocument().getSelectedPath();
+        HTrajectory scaled = speeds.length == 1
+                ? TimeScaling.scale(hPath.getTrajectory(), speeds[0])
+                : TimeScaling.scale(hPath.getTrajectory(), inputBuilder(hPath).build(), speeds);
+        applyGeneratedTrajectory(++generationRequestCount, false, hPath, scaled);
+        logger.info("Scaled trajectory of path \"" + hPath.getName() + "\" to " + String.format("%.3f", scaled.duration) + " s.");
+        return true;
+    }
+
+    /**
+     * The number of visit orders {@link #optimizeVisitOrder()} generates
+     */
+    public static final int VISIT_ORDER_CANDIDATES = 4;
+
+    /**
+     * <p>
+     * Reorders the soft waypoints of the selected path into the order that gives
+     * the fastest trajectory, for paths that visit several places in no particular
+     * order. The first and last waypoint, and every waypoint that isn't soft, keep
+     * their place.
+     * </p>
+     * <p>
+     * {@link VisitOrder} ranks the orders by an estimate, then the best
+     * {@value #VISIT_ORDER_CANDIDATES} are generated at the same time on the
+     * {@link #getScheduler() scheduler} with the selected generator. Once all of
+     * them finish, the waypoints are put in the order of the fastest trajectory
+     * and the trajectory is shown. Initial guess points on legs that changed are
+     * removed. The ranking runs on the scheduler's threads too. Nothing changes if
+     * the path, the path it starts from, or the robot configuration is edited in
+     * the meantime, or if no candidate could be generated.
+     * </p>
+     *
+     * @return {@code false} if no path is selected
+     * @throws IllegalArgumentException if the path doesn't have between 2 and
+     *         {@value VisitOrder#MAX_WAYPOINTS} soft waypoints to reorder
+     */
+    public boolean optimizeVisitOrder() {
+        if (!documentManager.getIsDocumentOpen() || !documentManager.getDocument().isPathSelected()) {
+            return false;
+        }
+        HDocument hDocument = documentManager.getDocument();
+        HPath hPath = hDocument.getSelectedPath();
+        SwerveDrivetrain drive = hDocument.getRobotConfiguration().toDrive();
+        TrajectoryGenerator requestGenerator = requestGenerator();
+        HolonomicPath waypoints = waypointInput(hDocument, hPath);
+        VisitOrder.checkReorderable(waypoints, drive);
+        byte[] snapshot = GenerationInputCodec.encode(drive, waypoints);
+        boolean automaticGuesses = getAutomaticGuesses();
+        double density = hDocument.getControlIntervalDensity();
+        List<HolonomicPath> inputs = new ArrayList<>(VISIT_ORDER_CANDIDATES);
+        runningGenerationCount++;
+        setGenerationRunning(true);
+        // the search and the initial guesses can take a while, so they run next to the solves
+        scheduler.supplyAsync(() -> {
+            List<VisitOrder.Candidate> candidates = VisitOrder.rank(waypoints, drive, VISIT_ORDER_CANDIDATES);
+            for (VisitOrder.Candidate candidate : candidates) {
+                HolonomicPath input = automaticGuesses ? VisibilityGraph.addInitialGuesses(candidate.path, drive) : candidate.path;
+                inputs.add(ControlIntervals.assign(input, drive, density));
+            }
+            return candidates;
+        }).whenComplete((candidates, rankError) -> Platform.runLater(() -> {
+            if (rankError != null) {
+                runningGenerationCount--;
+                setGenerationRunning(runningGenerationCount > 0);
+                logger.warning("Could not rank the visit orders of path \"" + hPath.getName() + "\": " + rankError);
+                return;
+            }
+            if (!isInputUnchanged(hDocument, hPath, snapshot)) {
+                runningGenerationCount--;
+                setGenerationRunning(runningGenerationCount > 0);
+                logger.info("Path \"" + hPath.getName() + "\" changed while its visit orders were being ranked, so it was not reordered.");
+                return;
+            }
+            List<CompletableFuture<GenerationResult>> solves = new ArrayList<>(candidates.size());
+            for (int i = 0; i < candidates.size(); i++) {
+                // each candidate gets its own key so they don't supersede each other
+                solves.add(scheduler.submit(new GenerationRequest(List.of(hPath, i), GenerationPriority.SELECTED, requestGenerator, drive, inputs.get(i))));
+            }
+            CompletableFuture.allOf(solves.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, error) -> Platform.runLater(() -> {
+                runningGenerationCount--;
+                setGenerationRunning(runningGenerationCount > 0);
+                applyFastestVisitOrder(hDocument, hPath, drive, requestGenerator, snapshot, candidates, inputs, solves);
+            }));
+        }));
+        return true;
+    }
+
+    private void applyFastestVisitOrder(HDocument hDocument, HPath hPath, SwerveDrivetrain drive, TrajectoryGenerator requestGenerator, byte[] snapshot,
+            List<VisitOrder.Candidate> candidates, List<HolonomicPath> inputs, List<CompletableFuture<GenerationResult>> solves) {
+        int fastest = -1;
+        for (int i = 0; i < solves.size(); i++) {
+            VisitOrder.Candidate candidate = candidates.get(i);
+            if (solves.get(i).isCompletedExceptionally()) {
+                logger.info("Visit order " + Arrays.toString(candidate.order) + ": estimated "
+                        + String.format("%.3f", candidate.estimatedTime) + " s, not generated");
+                continue;
+            }
+            HTrajectory trajectory = solves.get(i).join().trajectory;
+            logger.info("Visit order " + Arrays.toString(candidate.order) + ": estimated "
+                    + String.format("%.3f", candidate.estimatedTime) + " s, generated " + String.format("%.3f", trajectory.duration) + " s");
+            if (fastest == -1 || trajectory.duration < solves.get(fastest).join().trajectory.duration) {
+                fastest = i;
+            }
+        }
+        if (fastest == -1) {
+            logger.warning("Could not generate any visit order of path \"" + hPath.getName() + "\".");
+            return;
+        }
+        if (!isInputUnchanged(hDocument, hPath, snapshot)) {
+            logger.info("Path \"" + hPath.getName() + "\" changed while its visit orders were being generated, so it was not reordered.");
+            return;
+        }
+        HTrajectory trajectory = solves.get(fastest).join().trajectory;
+        reorderWaypoints(hPath, candidates.get(fastest).order);
+        if (TrajectoryGenerators.isOptimal(requestGenerator)) {
+            trajectoryCache.put(TrajectoryCache.key(drive, inputs.get(fastest)), trajectory);
+        }
+        if (applyGeneratedTrajectory(++generationRequestCount, false, hPath, trajectory)) {
+            solvedInputs.put(hPath, new SolvedInput(drive, inputs.get(fastest), trajectory));
+        }
+    }
+
+    /**
+     * Checks whether a path would still be given to the solver the way it was when
+     * a snapshot was taken. Any edit to its waypoints or obstacles, the trajectory
+     * it starts from, or the robot configuration makes it differ.
+     *
+     * @param hDocument the document the path was in
+     * @param hPath the path
+     * @param snapshot the path's {@link #waypointInput(HDocument, HPath) waypoints} and drivetrain, encoded with {@link GenerationInputCodec}
+     * @return {@code true} if the path is still in the open document and unchanged
+     */
+    private boolean isInputUnchanged(HDocument hDocument, HPath hPath, byte[] snapshot) {
+        if (documentManager.getDocument() != hDocument || !hDocument.getPaths().contains(hPath)) {
+            return false;
+        }
+        try {
+            return Arrays.equals(snapshot, GenerationInputCodec.encode(hDocument.getRobotConfiguration().toDrive(), waypointInput(hDocument, hPath)));
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Puts the waypoints of a path in a new order, keeping each waypoint's initial
+     * guess points only if the waypoint before it didn't change.
+     *
+     * @param order for each waypoint position, the index of the waypoint that goes there,
+     *        counting only waypoints that aren't initial guesses
+     */
+    private static void reorderWaypoints(HPath hPath, int[] order) {
+        List<HWaypoint> leadingGuesses = new ArrayList<>();
+        List<List<HWaypoint>> guesses = new ArrayList<>();
+        List<HWaypoint> waypoints = new ArrayList<>();
+        List<HWaypoint> pendingGuesses = leadingGuesses;
+        for (HWaypoint hWaypoint : hPath.getWaypoints()) {
+            if (hWaypoint.isInitialGuess()) {
+                pendingGuesses.add(hWaypoint);
+            } else {
+                guesses.add(waypoints.isEmpty() ? List.of() : pendingGuesses);
+                waypoints.add(hWaypoint);
+                pendingGuesses = new ArrayList<>();
+            }
+        }
+        List<HWaypoint> reordered = new ArrayList<>(leadingGuesses);
+        for (int i = 0; i < order.length; i++) {
+            if (i > 0 && order[i] == i && order[i - 1] == i - 1) {
+                reordered.addAll(guesses.get(i));
+            }
+            reordered.add(waypoints.get(order[i]));
+        }
+        reordered.addAll(pendingGuesses); // guesses after the last waypoint aren't used, but keep them
+        hPath.getWaypoints().setAll(reordered);
+    }
+
+    /**
+     * The largest width and height of a cell of the reachability map, in meters
+     */
+    public static final double REACHABILITY_CELL_SIZE = 0.5;
+
+    /**
+     * Whether the time it takes to reach each part of the field from the start
+     * of the selected path is drawn over the field (see {@link #reachabilityMapProperty()}).
+     *
+     * @return the show reachability property
+     */
+    public final BooleanProperty showReachabilityProperty() {
+        return showReachability;
+    }
+
+    public final void setShowReachability(boolean value) {
+        showReachability.set(value);
+    }
+
+    public final boolean getShowReachability() {
+        return showReachability.get();
+    }
+
+    /**
+     * The reachability map of the selected path, while it is shown. It is first
+     * an estimate, and is replaced once every cell has been generated with the
+     * selected generator (see {@link ReachabilityMap}).
+     *
+     * @return the reachability map property
+     */
+    public final ReadOnlyObjectProperty<ReachabilityMap> reachabilityMapProperty() {
+        return reachabilityMap.getReadOnlyProperty();
+    }
+
+    public final ReachabilityMap getReachabilityMap() {
+        return reachabilityMap.get();
+    }
+
+    /**
+     * Builds the reachability map for the current start of the selected path in
+     * the background, or shows the cached one right away, and stops building the
+     * previous one. Called when the map is shown and when another path is
+     * selected; call it again after editing the path or the robot to update the map.
+     */
+    public void updateReachabilityMap() {
+        reachabilityCancelled.set(true);
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        reachabilityCancelled = cancelled;
+        if (!getShowReachability() || !documentManager.getIsDocumentOpen() || !documentManager.getDocument().isPathSelected()) {
+            reachabilityMap.set(null);
+            return;
+        }
+        HDocument hDocument = documentManager.getDocument();
+        HPath hPath = hDocument.getSelectedPath();
+        SwerveDrivetrain drive = hDocument.getRobotConfiguration().toDrive();
+        HolonomicPath path;
+        try {
+            path = waypointInput(hDocument, hPath);
+        } catch (RuntimeException e) {
+            logger.warning("Could not convert path \"" + hPath.getName() + "\" for the reachability map: " + e);
+            reachabilityMap.set(null);
+            return;
+        }
+        if (path.holonomicWaypoints.isEmpty()) {
+            reachabilityMap.set(null);
+            return;
+        }
+        HolonomicWaypoint start = SolverInputs.withInitialGuessPoints(path.holonomicWaypoints.get(0), List.of());
+        double width = hDocument.getFieldImage().getFieldAreaWidth();
+        double height = hDocument.getFieldImage().getFieldAreaHeight();
+        double density = hDocument.getControlIntervalDensity();
+        TrajectoryGenerator refiner = getGenerator() == TrajectoryGenerators.PREVIEW ? null : requestGenerator();
+        ReachabilityMap cached = ReachabilityMap.getCached(drive, start, width, height, REACHABILITY_CELL_SIZE, density);
+        reachabilityMap.set(cached);
+        if (cached != null && (refiner == null || refiner.getName().equals(cached.getRefinedBy()))) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            ReachabilityMap map = cached;
+            if (map == null) {
+                map = ReachabilityMap.estimate(drive, start, width, height, REACHABILITY_CELL_SIZE, density, reachabilityPool);
+                showReachabilityMap(map, cancelled);
+            }
+            if (refiner != null && !cancelled.get()) {
+                showReachabilityMap(ReachabilityMap.refine(map, refiner, reachabilityPool, cancelled::get), cancelled);
+            }
+        }, reachabilityPool).whenComplete((ignored, error) -> {
+            if (error != null) {
+                logger.warning("Could not build the reachability map of path \"" + hPath.getName() + "\": " + error);
+            }
+        });
+    }
+
+    private void showReachabilityMap(ReachabilityMap map, AtomicBoolean cancelled) {
+        Platform.runLater(() -> {
+            if (map != null && !cancelled.get()) {
+                reachabilityMap.set(map);
+            }
+        });
+    }
+
     private static final Rotate ROTATE_90_CLOCKWISE = new Rotate(-90);
     private static final Rotate ROTATE_90_COUNTERCLOCKWISE = new Rotate(90);
     private static final Rotate ROTATE_180 = new Rotate(180);
@@ -17,21 +17,32 @@
 package org.team2363.helixnavigator.document;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.logging.Logger;
 
 import org.team2363.helixnavigator.document.field.image.HFieldImage;
 import org.team2363.helixnavigator.document.field.image.HReferenceFieldImage;
+import org.team2363.helixnavigator.generation.ControlIntervals;
 import org.team2363.helixnavigator.global.Standards;
 
 import com.jlbabilino.json.DeserializedJSONConstructor;
+import com.jlbabilino.json.DeserializedJSONEntry;
 import com.jlbabilino.json.DeserializedJSONObjectValue;
 import com.jlbabilino.json.DeserializedJSONTarget;
+import com.jlbabilino.json.InvalidJSONTranslationConfiguration;
 import com.jlbabilino.json.JSONDeserializable;
+import com.jlbabilino.json.JSONDeserializer;
+import com.jlbabilino.json.JSONDeserializerException;
+import com.jlbabilino.json.JSONEntry;
 import com.jlbabilino.json.JSONEntry.JSONType;
+import com.jlbabilino.json.JSONNumber;
+import com.jlbabilino.json.JSONObject;
 import com.jlbabilino.json.JSONSerializable;
 import com.jlbabilino.json.SerializedJSONObjectValue;
+import com.jlbabilino.json.TypeMarker;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.DoubleProperty;
@@ -43,6 +54,8 @@ import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.beans.property.SimpleBooleanProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
@@ -79,6 +92,12 @@ public class HDocument {
      * The list of paths in this document
      */
     private final ObservableList<HPath> paths = FXCollections.<HPath>observableArrayList();
+    /**
+     * The hand-offs between paths, at most one into each path and without cycles
+     */
+    private final ObservableList<HPathLink> pathLinks = FXCollections.<HPathLink>observableArrayList();
+    private final ObservableList<HPathLink> pathLinksUnmodifiable = FXCollections.unmodifiableObservableList(pathLinks);
+    private final ChangeListener<String> onPathRenamed = this::pathRenamed;
     /**
      * <p>
      * The currently selected path index. It will equal {@code -1} if and only if
@@ -112,6 +131,11 @@ public class HDocument {
      * The default units to use in text input boxes
      */
     private final HUnitPreferences unitPreferences = new HUnitPreferences();
+    /**
+     * The number of solver control intervals per second of estimated segment
+     * time, for segments without an explicit count (see {@link ControlIntervals})
+     */
+    private final DoubleProperty controlIntervalDensity = new SimpleDoubleProperty(this, "controlIntervalDensity", ControlIntervals.DEFAULT_DENSITY);
     /**
      * The file path that this document should be saved to
      */
@@ -127,6 +151,7 @@ public class HDocument {
      */
     public HDocument() {
         paths.addListener((ListChangeListener.Change<? extends HPath> change) -> updateSelectedPathIndex());
+        paths.addListener(this::pathsChanged);
         selectedPathIndex.addListener((currentIndex, oldIndex, newIndex) -> updateSelectedPath());
     }
 
@@ -163,6 +188,37 @@ public class HDocument {
         }
     }
 
+    /**
+     * Keeps the path links pointing at paths in the document under their current names.
+     */
+    private void pathsChanged(ListChangeListener.Change<? extends HPath> change) {
+        while (change.next()) {
+            for (HPath removed : change.getRemoved()) {
+                removed.nameProperty().removeListener(onPathRenamed);
+            }
+            for (HPath added : change.getAddedSubList()) {
+                added.nameProperty().addListener(onPathRenamed);
+            }
+        }
+        pathLinks.removeIf(link -> pathNamed(link.from) == null || pathNamed(link.to) == null);
+    }
+
+    private void pathRenamed(ObservableValue<? extends String> currentName, String oldName, String newName) {
+        if (pathNamed(oldName) == null) {
+            pathLinks.replaceAll(link -> new HPathLink(link.from.equals(oldName) ? newName : link.from,
+                    link.to.equals(oldName) ? newName : link.to));
+        }
+    }
+
+    private HPath pathNamed(String name) {
+        for (HPath path : paths) {
+            if (path.getName().equals(name)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
     /**
      * Called when the selected path index changes, this method 
      * synchronizes the {@code selectedPathIndex} with the {@code selectedPath}.
@@ -287,6 +343,94 @@ public class HDocument {
         return map;
     }
 
+    /**
+     * Lists the hand-offs between paths. Use {@link #linkPaths(HPath, HPath)} and
+     * {@link #unlinkPath(HPath)} to change them.
+     * 
+     * @return an unmodifiable list of the path links
+     */
+    @SerializedJSONObjectValue(key = "path_links")
+    public final ObservableList<HPathLink> getPathLinks() {
+        return pathLinksUnmodifiable;
+    }
+
+    public final void setPathLinks(List<? extends HPathLink> links) {
+        pathLinks.clear();
+        for (HPathLink link : links) {
+            HPath from = pathNamed(link.from);
+            HPath to = pathNamed(link.to);
+            if (from == null || to == null) {
+                logger.warning("WARNING: ignoring link between missing paths: " + link);
+                continue;
+            }
+            try {
+                linkPaths(from, to);
+            } catch (IllegalArgumentException e) {
+                logger.warning("WARNING: ignoring invalid link " + link + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Makes a path start in the state the robot is in at the end of another.
+     * 
+     * @param from the path that hands off
+     * @param to the path that starts where {@code from} ends
+     * @throws IllegalArgumentException if either path is not in this document,
+     *         {@code to} already starts where another path ends, or the link would
+     *         make a cycle
+     */
+    public final void linkPaths(HPath from, HPath to) {
+        if (!paths.contains(from) || !paths.contains(to)) {
+            throw new IllegalArgumentException("Both paths must be in the document");
+        }
+        if (getUpstreamPath(to) != null) {
+            throw new IllegalArgumentException("\"" + to.getName() + "\" already starts where \"" + getUpstreamPath(to).getName() + "\" ends");
+        }
+        for (HPath path = from; path != null; path = getUpstreamPath(path)) {
+            if (path == to) {
+                throw new IllegalArgumentException("Linking \"" + from.getName() + "\" to \"" + to.getName() + "\" would make a cycle");
+            }
+        }
+        pathLinks.add(new HPathLink(from.getName(), to.getName()));
+    }
+
+    /**
+     * Removes the link into a path, if there is one.
+     * 
+     * @param to the path that should no longer start where another ends
+     */
+    public final void unlinkPath(HPath to) {
+        pathLinks.removeIf(link -> link.to.equals(to.getName()));
+    }
+
+    /**
+     * @param path a path in this document
+     * @return the path whose end {@code path} starts at, or {@code null} if it isn't linked
+     */
+    public final HPath getUpstreamPath(HPath path) {
+        for (HPathLink link : pathLinks) {
+            if (link.to.equals(path.getName())) {
+                return pathNamed(link.from);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param path a path in this document
+     * @return the paths that start where {@code path} ends
+     */
+    public final List<HPath> getDownstreamPaths(HPath path) {
+        List<HPath> downstreamPaths = new ArrayList<>();
+        for (HPathLink link : pathLinks) {
+            if (link.from.equals(path.getName())) {
+                downstreamPaths.add(pathNamed(link.to));
+            }
+        }
+        return downstreamPaths;
+    }
+
     public final ReadOnlyIntegerProperty selectedPathIndexProperty() {
         return selectedPathIndex.getReadOnlyProperty();
     }
@@ -338,6 +482,41 @@ public class HDocument {
         return unitPreferences;
     }
 
+    public final DoubleProperty controlIntervalDensityProperty() {
+        return controlIntervalDensity;
+    }
+
+    public final void setControlIntervalDensity(double value) {
+        controlIntervalDensity.set(value);
+    }
+
+    /**
+     * Reads the values that documents saved by older versions don't have, so
+     * those documents load with the defaults instead of failing.
+     * 
+     * @param jsonObject the whole document
+     * @throws JSONDeserializerException if a value is present but invalid
+     * @throws InvalidJSONTranslationConfiguration if {@link HPathLink} can't be deserialized
+     */
+    @DeserializedJSONTarget
+    public final void importOptionalValues(@DeserializedJSONEntry JSONObject jsonObject) throws JSONDeserializerException, InvalidJSONTranslationConfiguration {
+        if (jsonObject.containsKey("control_interval_density")) {
+            JSONEntry density = jsonObject.get("control_interval_density");
+            if (!(density instanceof JSONNumber)) {
+                throw new JSONDeserializerException("The key \"control_interval_density\" must be a number.");
+            }
+            setControlIntervalDensity(((JSONNumber) density).getNumber().doubleValue());
+        }
+        if (jsonObject.containsKey("path_links")) {
+            setPathLinks(JSONDeserializer.deserialize(jsonObject.get("path_links"), new TypeMarker<List<HPathLink>>() {}));
+        }
+    }
+
+    @SerializedJSONObjectValue(key = "control_interval_density")
+    public final double getControlIntervalDensity() {
+        return controlIntervalDensity.get();
+    }
+
     public final ObjectProperty<File> saveLocationProperty() {
         return saveLocation;
     }
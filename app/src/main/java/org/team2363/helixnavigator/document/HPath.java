@@ -11,10 +11,12 @@ import org.team2363.helixnavigator.document.timeline.HHardWaypoint;
 import org.team2363.helixnavigator.document.timeline.HInitialGuessWaypoint;
 import org.team2363.helixnavigator.document.timeline.HSoftWaypoint;
 import org.team2363.helixnavigator.document.timeline.HWaypoint;
+import org.team2363.helixnavigator.generation.ControlIntervals;
 import org.team2363.helixtrajectory.HolonomicPath;
 import org.team2363.helixtrajectory.HolonomicWaypoint;
 import org.team2363.helixtrajectory.InitialGuessPoint;
 import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
 
 import com.jlbabilino.json.DeserializedJSONConstructor;
 import com.jlbabilino.json.DeserializedJSONObjectValue;
@@ -206,6 +208,22 @@ public class HPath {
         return trajectory.get();
     }
 
+    /**
+     * Converts this path to solver input, using the obstacles of this path.
+     * Segments without an explicit control interval count are left at
+     * {@link ControlIntervals#AUTOMATIC} for
+     * {@link ControlIntervals#assign(HolonomicPath, SwerveDrivetrain, double)}.
+     *
+     * @return the solver input
+     */
+    public HolonomicPath toPath() {
+        List<Obstacle> obstacles = new ArrayList<>(this.obstacles.size());
+        for (int i = 0; i < this.obstacles.size(); i++) {
+            obstacles.add(this.obstacles.get(i).toObstacle());
+        }
+        return toPath(obstacles);
+    }
+
     public HolonomicPath toPath(List<Obstacle> obstacles) {
         List<HolonomicWaypoint> htWaypoints = new ArrayList<>();
         int i = 0;
@@ -0,0 +1,220 @@
+package org.team2363.helixnavigator.document;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.team2363.helixnavigator.document.obstacle.HObstacle;
+import org.team2363.helixnavigator.document.timeline.HCustomWaypoint;
+import org.team2363.helixnavigator.document.timeline.HHardWaypoint;
+import org.team2363.helixnavigator.document.timeline.HInitialGuessWaypoint;
+import org.team2363.helixnavigator.document.timeline.HSoftWaypoint;
+import org.team2363.helixnavigator.document.timeline.HWaypoint;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.Obstacle;
+
+/**
+ * <p>
+ * Builds the same solver input as {@link HPath#toPath()}, but remembers the
+ * converted form of every waypoint and obstacle and only converts an element
+ * again after one of its properties changes. If nothing in the path has
+ * changed since the last build, the previous {@link HolonomicPath} itself is
+ * returned.
+ * </p>
+ * <p>
+ * A waypoint's converted form also depends on the initial guess points before
+ * it and, for the first waypoint, on the obstacles, so it is rebuilt when those
+ * change too. Like the path itself, this class may only be used on the JavaFX
+ * application thread. Call {@link #dispose()} once the path is no longer used.
+ * </p>
+ */
+public class HPathInputBuilder {
+
+    private static class ConvertedWaypoint {
+        private final HolonomicWaypoint waypoint;
+        private final List<InitialGuessPoint> initialGuessPoints;
+        private final List<Obstacle> obstacles;
+
+        private ConvertedWaypoint(HolonomicWaypoint waypoint, List<InitialGuessPoint> initialGuessPoints, List<Obstacle> obstacles) {
+            this.waypoint = waypoint;
+            this.initialGuessPoints = initialGuessPoints;
+            this.obstacles = obstacles;
+        }
+    }
+
+    private final HPathWatcher watcher;
+    private final Map<HObstacle, Obstacle> obstacles = new IdentityHashMap<>();
+    private final Map<HInitialGuessWaypoint, InitialGuessPoint> initialGuessPoints = new IdentityHashMap<>();
+    private final Map<HWaypoint, ConvertedWaypoint> waypoints = new IdentityHashMap<>();
+    private List<Obstacle> obstacleList = null;
+    private HolonomicPath path = null;
+    private int conversionCount = 0;
+
+    /**
+     * Constructs an {@code HPathInputBuilder} and starts watching the path.
+     *
+     * @param path the path to build solver input for
+     */
+    public HPathInputBuilder(HPath path) {
+        this.watcher = new HPathWatcher(path, this::invalidate);
+    }
+
+    /**
+     * @return the path this builder converts
+     */
+    public HPath getPath() {
+        return watcher.getPath();
+    }
+
+    /**
+     * @return the number of elements converted so far, for measuring how much work was saved
+     */
+    public int getConversionCount() {
+        return conversionCount;
+    }
+
+    /**
+     * Stops watching the path and forgets every converted element.
+     */
+    public void dispose() {
+        watcher.dispose();
+        obstacles.clear();
+        initialGuessPoints.clear();
+        waypoints.clear();
+        obstacleList = null;
+        path = null;
+    }
+
+    private void invalidate(HPathElement element) {
+        path = null;
+        if (element == null) { // elements were added, removed, or moved
+            obstacleList = null;
+            prune();
+        } else if (element instanceof HObstacle) {
+            obstacles.remove(element);
+            obstacleList = null;
+        } else if (element instanceof HInitialGuessWaypoint) {
+            initialGuessPoints.remove(element);
+        } else {
+            waypoints.remove(element);
+        }
+    }
+
+    private void prune() {
+        List<HWaypoint> currentWaypoints = getPath().getWaypoints();
+        List<HObstacle> currentObstacles = getPath().getObstacles();
+        waypoints.keySet().removeIf(waypoint -> !currentWaypoints.contains(waypoint));
+        initialGuessPoints.keySet().removeIf(waypoint -> !currentWaypoints.contains(waypoint));
+        obstacles.keySet().removeIf(obstacle -> !currentObstacles.contains(obstacle));
+    }
+
+    /**
+     * Builds the solver input for the current state of the path.
+     *
+     * @return the solver input, equal to what {@link HPath#toPath()} returns for the same path
+     * @throws IllegalStateException if the path has no waypoints other than initial guesses
+     */
+    public HolonomicPath build() {
+        if (path == null) {
+            path = assemble();
+        }
+        return path;
+    }
+
+    private HolonomicPath assemble() {
+        List<HWaypoint> hWaypoints = getPath().getWaypoints();
+        List<Obstacle> pathObstacles = obstacleList();
+        List<HolonomicWaypoint> htWaypoints = new ArrayList<>(hWaypoints.size());
+        int i = 0;
+        while (i < hWaypoints.size() && hWaypoints.get(i).isInitialGuess()) {
+            i++;
+        }
+        while (i < hWaypoints.size()) {
+            List<InitialGuessPoint> guesses = new ArrayList<>();
+            while (i < hWaypoints.size() && hWaypoints.get(i).isInitialGuess()) {
+                guesses.add(initialGuessPoint((HInitialGuessWaypoint) hWaypoints.get(i)));
+                i++;
+            }
+            if (i >= hWaypoints.size()) {
+                break; // initial guesses after the last waypoint don't guide anything
+            }
+            List<Obstacle> waypointObstacles = htWaypoints.isEmpty() ? pathObstacles : List.of();
+            HolonomicWaypoint waypoint = waypoint(hWaypoints.get(i), guesses, waypointObstacles);
+            if (waypoint != null) {
+                htWaypoints.add(waypoint);
+            }
+            i++;
+        }
+        if (htWaypoints.isEmpty()) {
+            throw new IllegalStateException("Path \"" + getPath().getName() + "\" has no waypoints.");
+        }
+        return new HolonomicPath(htWaypoints);
+    }
+
+    private List<Obstacle> obstacleList() {
+        if (obstacleList == null) {
+            List<HObstacle> hObstacles = getPath().getObstacles();
+            List<Obstacle> list = new ArrayList<>(hObstacles.size());
+            for (HObstacle hObstacle : hObstacles) {
+                Obstacle obstacle = obstacles.get(hObstacle);
+                if (obstacle == null) {
+                    obstacle = hObstacle.toObstacle();
+                    obstacles.put(hObstacle, obstacle);
+                    conversionCount++;
+                }
+                list.add(obstacle);
+            }
+            obstacleList = List.copyOf(list);
+        }
+        return obstacleList;
+    }
+
+    private InitialGuessPoint initialGuessPoint(HInitialGuessWaypoint hWaypoint) {
+        InitialGuessPoint point = initialGuessPoints.get(hWaypoint);
+        if (point == null) {
+            point = hWaypoint.toInitialGuessPoint();
+            initialGuessPoints.put(hWaypoint, point);
+            conversionCount++;
+        }
+        return point;
+    }
+
+    private HolonomicWaypoint waypoint(HWaypoint hWaypoint, List<InitialGuessPoint> guesses, List<Obstacle> waypointObstacles) {
+        ConvertedWaypoint converted = waypoints.get(hWaypoint);
+        if (converted != null && sameElements(converted.initialGuessPoints, guesses) && sameElements(converted.obstacles, waypointObstacles)) {
+            return converted.waypoint;
+        }
+        HolonomicWaypoint waypoint;
+        switch (hWaypoint.getWaypointType()) {
+            case SOFT:
+                waypoint = ((HSoftWaypoint) hWaypoint).toWaypoint(guesses, waypointObstacles);
+                break;
+            case HARD:
+                waypoint = ((HHardWaypoint) hWaypoint).toWaypoint(guesses, waypointObstacles);
+                break;
+            case CUSTOM:
+                waypoint = ((HCustomWaypoint) hWaypoint).toWaypoint(guesses, waypointObstacles);
+                break;
+            default:
+                return null;
+        }
+        waypoints.put(hWaypoint, new ConvertedWaypoint(waypoint, guesses, waypointObstacles));
+        conversionCount++;
+        return waypoint;
+    }
+
+    private static boolean sameElements(List<?> a, List<?> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
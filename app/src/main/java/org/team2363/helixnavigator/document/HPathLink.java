@@ -0,0 +1,36 @@
+package org.team2363.helixnavigator.document;
+
+import com.jlbabilino.json.DeserializedJSONConstructor;
+import com.jlbabilino.json.DeserializedJSONObjectValue;
+import com.jlbabilino.json.JSONDeserializable;
+import com.jlbabilino.json.JSONEntry.JSONType;
+import com.jlbabilino.json.JSONSerializable;
+import com.jlbabilino.json.SerializedJSONObjectValue;
+
+/**
+ * A hand-off between two paths of a document: the path named {@code to}
+ * starts in the state the robot is in at the end of the path named
+ * {@code from}. Links are created and kept valid by {@link HDocument}.
+ */
+@JSONSerializable(JSONType.OBJECT)
+@JSONDeserializable({JSONType.OBJECT})
+public class HPathLink {
+
+    @SerializedJSONObjectValue(key = "from")
+    public final String from;
+    @SerializedJSONObjectValue(key = "to")
+    public final String to;
+
+    @DeserializedJSONConstructor
+    public HPathLink(
+            @DeserializedJSONObjectValue(key = "from") String from,
+            @DeserializedJSONObjectValue(key = "to") String to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public String toString() {
+        return from + " -> " + to;
+    }
+}
@@ -0,0 +1,212 @@
+package org.team2363.helixnavigator.document;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.team2363.helixnavigator.document.obstacle.HCircleObstacle;
+import org.team2363.helixnavigator.document.obstacle.HObstacle;
+import org.team2363.helixnavigator.document.obstacle.HPolygonObstacle;
+import org.team2363.helixnavigator.document.obstacle.HPolygonPoint;
+import org.team2363.helixnavigator.document.obstacle.HRectangleObstacle;
+import org.team2363.helixnavigator.document.timeline.HCustomWaypoint;
+import org.team2363.helixnavigator.document.timeline.HHardWaypoint;
+import org.team2363.helixnavigator.document.timeline.HInitialGuessWaypoint;
+import org.team2363.helixnavigator.document.timeline.HWaypoint;
+
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+
+/**
+ * <p>
+ * Watches every property of a path that affects the input to the trajectory
+ * solver: the waypoint and obstacle lists, and the position, heading,
+ * constraint, and shape properties of every element in them. Properties that
+ * only affect the editor, like names and selection, are ignored.
+ * </p>
+ * <p>
+ * The callback receives the element whose properties changed, or {@code null}
+ * if the waypoint or obstacle list itself changed. Call {@link #dispose()} to
+ * remove every listener once the path no longer needs to be watched.
+ * </p>
+ */
+public class HPathWatcher {
+
+    private final HPath path;
+    private final Consumer<HPathElement> onChange;
+    private final Map<HPathElement, Runnable> elementDisposers = new IdentityHashMap<>();
+
+    private final ListChangeListener<HWaypoint> onWaypointsChanged = this::waypointsChanged;
+    private final ListChangeListener<HObstacle> onObstaclesChanged = this::obstaclesChanged;
+
+    /**
+     * Constructs an {@code HPathWatcher} and starts watching the path.
+     *
+     * @param path the path to watch
+     * @param onChange called on the JavaFX thread whenever a solver input changes
+     */
+    public HPathWatcher(HPath path, Consumer<HPathElement> onChange) {
+        this.path = path;
+        this.onChange = onChange;
+
+        path.getWaypoints().forEach(this::watch);
+        path.getObstacles().forEach(this::watch);
+        path.getWaypoints().addListener(onWaypointsChanged);
+        path.getObstacles().addListener(onObstaclesChanged);
+    }
+
+    /**
+     * @return the path being watched
+     */
+    public HPath getPath() {
+        return path;
+    }
+
+    /**
+     * Stops watching the path.
+     */
+    public void dispose() {
+        path.getWaypoints().removeListener(onWaypointsChanged);
+        path.getObstacles().removeListener(onObstaclesChanged);
+        elementDisposers.values().forEach(Runnable::run);
+        elementDisposers.clear();
+    }
+
+    private void waypointsChanged(ListChangeListener.Change<? extends HWaypoint> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(this::unwatch);
+            change.getAddedSubList().forEach(this::watch);
+        }
+        onChange.accept(null);
+    }
+
+    private void obstaclesChanged(ListChangeListener.Change<? extends HObstacle> change) {
+        while (change.next()) {
+            change.getRemoved().forEach(this::unwatch);
+            change.getAddedSubList().forEach(this::watch);
+        }
+        onChange.accept(null);
+    }
+
+    private void watch(HPathElement element) {
+        if (elementDisposers.containsKey(element)) {
+            return; // permutations report the same element as removed and added
+        }
+        // change listeners, unlike invalidation listeners, fire even if nothing reads the value
+        ChangeListener<Object> listener = (observable, oldValue, newValue) -> onChange.accept(element);
+        List<ObservableValue<?>> observables = solverProperties(element);
+        observables.forEach(observable -> observable.addListener(listener));
+        Runnable disposer = () -> observables.forEach(observable -> observable.removeListener(listener));
+        if (element instanceof HPolygonObstacle) {
+            disposer = watchPolygonPoints((HPolygonObstacle) element, listener, disposer);
+        }
+        elementDisposers.put(element, disposer);
+    }
+
+    private Runnable watchPolygonPoints(HPolygonObstacle polygon, ChangeListener<Object> listener, Runnable disposer) {
+        Map<HPolygonPoint, Boolean> watchedPoints = new IdentityHashMap<>();
+        Consumer<HPolygonPoint> watchPoint = point -> {
+            if (watchedPoints.put(point, Boolean.TRUE) == null) {
+                point.xProperty().addListener(listener);
+                point.yProperty().addListener(listener);
+            }
+        };
+        Consumer<HPolygonPoint> unwatchPoint = point -> {
+            if (watchedPoints.remove(point) != null) {
+                point.xProperty().removeListener(listener);
+                point.yProperty().removeListener(listener);
+            }
+        };
+        ListChangeListener<HPolygonPoint> pointsListener = change -> {
+            while (change.next()) {
+                change.getRemoved().forEach(unwatchPoint);
+                change.getAddedSubList().forEach(watchPoint);
+            }
+            onChange.accept(polygon);
+        };
+        polygon.getPoints().forEach(watchPoint);
+        polygon.getPoints().addListener(pointsListener);
+        return () -> {
+            disposer.run();
+            polygon.getPoints().removeListener(pointsListener);
+            new ArrayList<>(watchedPoints.keySet()).forEach(unwatchPoint);
+        };
+    }
+
+    private void unwatch(HPathElement element) {
+        // an element that was moved within the list is still in it
+        if (path.getWaypoints().contains(element) || path.getObstacles().contains(element)) {
+            return;
+        }
+        Runnable disposer = elementDisposers.remove(element);
+        if (disposer != null) {
+            disposer.run();
+        }
+    }
+
+    /**
+     * Lists the properties of an element that are passed to the solver. For
+     * polygon obstacles this does not include the points, which are a list.
+     *
+     * @param element the waypoint or obstacle
+     * @return the observable solver inputs of the element
+     */
+    public static List<ObservableValue<?>> solverProperties(HPathElement element) {
+        List<ObservableValue<?>> observables = new ArrayList<>();
+        if (element instanceof HWaypoint) {
+            HWaypoint waypoint = (HWaypoint) element;
+            observables.add(waypoint.xProperty());
+            observables.add(waypoint.yProperty());
+            switch (waypoint.getWaypointType()) {
+                case HARD:
+                    observables.add(((HHardWaypoint) waypoint).headingProperty());
+                    break;
+                case INITIAL_GUESS:
+                    observables.add(((HInitialGuessWaypoint) waypoint).headingProperty());
+                    break;
+                case CUSTOM:
+                    HCustomWaypoint custom = (HCustomWaypoint) waypoint;
+                    observables.add(custom.headingProperty());
+                    observables.add(custom.velocityXProperty());
+                    observables.add(custom.velocityYProperty());
+                    observables.add(custom.angularVelocityProperty());
+                    observables.add(custom.xConstrainedProperty());
+                    observables.add(custom.yConstrainedProperty());
+                    observables.add(custom.headingConstrainedProperty());
+                    observables.add(custom.velocityXConstrainedProperty());
+                    observables.add(custom.velocityYConstrainedProperty());
+                    observables.add(custom.velocityMagnitudeConstrainedProperty());
+                    observables.add(custom.angularVelocityConstrainedProperty());
+                    observables.add(custom.controlIntervalCountProperty());
+                    break;
+                default:
+                    break;
+            }
+        } else if (element instanceof HObstacle) {
+            HObstacle obstacle = (HObstacle) element;
+            observables.add(obstacle.safetyDistanceProperty());
+            switch (obstacle.getObstacleType()) {
+                case CIRCLE:
+                    HCircleObstacle circle = (HCircleObstacle) obstacle;
+                    observables.add(circle.centerXProperty());
+                    observables.add(circle.centerYProperty());
+                    observables.add(circle.radiusProperty());
+                    break;
+                case RECTANGLE:
+                    HRectangleObstacle rectangle = (HRectangleObstacle) obstacle;
+                    observables.add(rectangle.centerXProperty());
+                    observables.add(rectangle.centerYProperty());
+                    observables.add(rectangle.lengthProperty());
+                    observables.add(rectangle.widthProperty());
+                    observables.add(rectangle.rotateAngleProperty());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return observables;
+    }
+}
@@ -22,6 +22,7 @@ import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 import javafx.beans.property.SimpleIntegerProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ObservableValue;
 
 @JSONSerializable(JSONType.OBJECT)
 @JSONDeserializable({JSONType.OBJECT})
@@ -215,6 +216,17 @@ public class HRobotConfiguration {
         setBumpers(otherConfiguration.getBumpers());
     }
 
+    /**
+     * Lists the properties that {@link #toDrive()} reads, so that callers can
+     * react when the drivetrain given to the solver would change.
+     * 
+     * @return the properties used to build the drivetrain
+     */
+    public List<ObservableValue<?>> driveProperties() {
+        return List.of(wheelHorizontalDistance, wheelVerticalDistance, mass, momentOfInertia,
+                motorMaxAngularSpeed, motorMaxTorque, wheelRadius, bumpers);
+    }
+
     public SwerveDrivetrain toDrive() {
         SwerveModule module0 = new SwerveModule(+getWheelHorizontalDistance(), +getWheelVerticalDistance(), getWheelRadius(), getMotorMaxAngularSpeed(), getMotorMaxTorque());
         SwerveModule module1 = new SwerveModule(+getWheelHorizontalDistance(), -getWheelVerticalDistance(), getWheelRadius(), getMotorMaxAngularSpeed(), getMotorMaxTorque());
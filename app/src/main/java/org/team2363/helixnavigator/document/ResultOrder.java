@@ -0,0 +1,38 @@
+package org.team2363.helixnavigator.document;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Decides which generation results are newer than what is already shown, one
+ * path at a time. Solves of different paths run at the same time and finish in
+ * any order, so a result only goes stale when something requested later has
+ * been shown for the same path.
+ *
+ * @param <K> the type of the paths
+ */
+final class ResultOrder<K> {
+
+    private final Map<K, Long> lastApplied = new WeakHashMap<>();
+
+    /**
+     * Checks whether a result is newer than the last one shown for its path,
+     * and if it is, records it as shown.
+     *
+     * @param path the path the result is for
+     * @param requestNumber the number of the request, increasing with each request
+     * @param preview whether the result is the preview shown while the request solves
+     * @return {@code true} if the result should be shown
+     */
+    boolean advance(K path, long requestNumber, boolean preview) {
+        // a request's preview is ordered before its own result, but after any older result
+        long order = requestNumber * 2 + (preview ? 0 : 1);
+        Long last = lastApplied.get(path);
+        if (last == null || order > last) {
+            lastApplied.put(path, order);
+            return true;
+        } else {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.team2363.helixnavigator.document;
+
+/**
+ * The wall times of the last cold and the last warm started solve of a path,
+ * so that the two can be compared.
+ */
+public final class SolveTimes {
+
+    /**
+     * No solve of either kind yet
+     */
+    public static final SolveTimes NONE = new SolveTimes(-1.0, -1.0);
+
+    /**
+     * The wall time in seconds of the last solve started from the path's own
+     * initial guess, or {@code -1.0} if there hasn't been one
+     */
+    public final double cold;
+    /**
+     * The wall time in seconds of the last solve seeded with a previous
+     * trajectory, or {@code -1.0} if there hasn't been one
+     */
+    public final double warm;
+
+    private SolveTimes(double cold, double warm) {
+        this.cold = cold;
+        this.warm = warm;
+    }
+
+    /**
+     * @param warmStarted whether the solve was seeded with a previous trajectory
+     * @param solveTime the wall time of the solve in seconds
+     * @return these times with the time of the solve replacing the last one of its kind
+     */
+    public SolveTimes with(boolean warmStarted, double solveTime) {
+        return warmStarted ? new SolveTimes(cold, solveTime) : new SolveTimes(solveTime, warm);
+    }
+}
@@ -33,7 +33,7 @@ public class HDefaultFieldImage implements HFieldImage {
     @SerializedJSONObjectValue(key = "field-unit")
     public final HFieldUnit fieldUnit;
 
-    private final Image image;
+    private Image image = null; // loaded on first use so documents can be read without the JavaFX toolkit
     private final double imageRes;
     private final double imageCenterX;
     private final double imageCenterY;
@@ -51,12 +51,6 @@ public class HDefaultFieldImage implements HFieldImage {
         this.fieldSize = fieldSize;
         this.fieldUnit = fieldUnit;
 
-        InputStream imageStream = DefaultFieldImages.class.getResourceAsStream("wpifieldimages/" + this.fieldImage);
-        if (imageStream == null) {
-            imageStream = DefaultFieldImages.class.getResourceAsStream("extrafieldimages/" + this.fieldImage);
-        }
-        this.image = new Image(imageStream);
-        
         // Assume the image scales proportionally on both axes
         double fieldAreaWidthPx = fieldCorners.bottomRightCorner.x - fieldCorners.topLeftCorner.x;
         Quantity<Length> fieldAreaWidthUnits = Quantities.getQuantity(fieldSize.width, fieldUnit.unit);
@@ -101,6 +95,13 @@ public class HDefaultFieldImage implements HFieldImage {
 
     @Override
     public Image getImage() {
+        if (image == null) {
+            InputStream imageStream = DefaultFieldImages.class.getResourceAsStream("wpifieldimages/" + this.fieldImage);
+            if (imageStream == null) {
+                imageStream = DefaultFieldImages.class.getResourceAsStream("extrafieldimages/" + this.fieldImage);
+            }
+            image = new Image(imageStream);
+        }
         return image;
     }
 }
@@ -2,6 +2,7 @@ package org.team2363.helixnavigator.document.timeline;
 
 import java.util.List;
 
+import org.team2363.helixnavigator.generation.ControlIntervals;
 import org.team2363.helixtrajectory.HolonomicWaypoint;
 import org.team2363.helixtrajectory.InitialGuessPoint;
 import org.team2363.helixtrajectory.Obstacle;
@@ -35,7 +36,11 @@ public class HCustomWaypoint extends HWaypoint {
     private final BooleanProperty velocityMagnitudeConstrained = new SimpleBooleanProperty(this, "velocityMagnitudeConstrained", false);
     private final BooleanProperty angularVelocityConstrained = new SimpleBooleanProperty(this, "angularVelocityConstrained", false);
     
-    private final IntegerProperty controlIntervalCount = new SimpleIntegerProperty(this, "controlIntervalCount", 100);
+    /**
+     * The number of control intervals of the segment ending at this waypoint, or
+     * {@link ControlIntervals#AUTOMATIC} to choose one from the segment's length
+     */
+    private final IntegerProperty controlIntervalCount = new SimpleIntegerProperty(this, "controlIntervalCount", ControlIntervals.AUTOMATIC);
 
     @DeserializedJSONConstructor
     public HCustomWaypoint() {
@@ -2,6 +2,7 @@ package org.team2363.helixnavigator.document.timeline;
 
 import java.util.List;
 
+import org.team2363.helixnavigator.generation.ControlIntervals;
 import org.team2363.helixtrajectory.HolonomicWaypoint;
 import org.team2363.helixtrajectory.InitialGuessPoint;
 import org.team2363.helixtrajectory.Obstacle;
@@ -25,6 +26,6 @@ public class HSoftWaypoint extends HWaypoint {
     }
 
     public HolonomicWaypoint toWaypoint(List<InitialGuessPoint> initialGuessPoints, List<Obstacle> obstacles) {
-        return new HolonomicWaypoint(getX(), getY(), 0.0, 0.0, 0.0, 0.0, true, true, false, false, false, false, false, 100, initialGuessPoints, obstacles);
+        return new HolonomicWaypoint(getX(), getY(), 0.0, 0.0, 0.0, 0.0, true, true, false, false, false, false, false, ControlIntervals.AUTOMATIC, initialGuessPoints, obstacles);
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+import org.team2363.helixtrajectory.SwerveModule;
+
+/**
+ * <p>
+ * Chooses how many control intervals the solver uses for each segment of a
+ * path. Solve time grows with the number of intervals, so instead of giving
+ * every segment the same number, each one gets a number proportional to an
+ * estimate of how long the robot takes to drive it: short segments solve
+ * faster, and long ones are no longer undersampled.
+ * </p>
+ * <p>
+ * The estimate is a trapezoidal profile from rest to rest along the straight
+ * lines through the segment's initial guess points, for both translation and,
+ * if both ends constrain the heading, rotation, using the top speed and
+ * acceleration the drivetrain allows. Stopping at both ends makes it an
+ * overestimate, which errs towards more intervals.
+ * </p>
+ */
+public final class ControlIntervals {
+
+    /**
+     * The control interval count of a waypoint whose count should be chosen by
+     * {@link #assign(HolonomicPath, SwerveDrivetrain, double)}
+     */
+    public static final int AUTOMATIC = 0;
+    /**
+     * The default number of control intervals per second of estimated segment time
+     */
+    public static final double DEFAULT_DENSITY = 40.0;
+    /**
+     * The fewest control intervals a segment gets
+     */
+    public static final int MIN_COUNT = 8;
+    /**
+     * The most control intervals a segment gets
+     */
+    public static final int MAX_COUNT = 400;
+
+    private ControlIntervals() {
+    }
+
+    /**
+     * Replaces every {@link #AUTOMATIC} control interval count in a path with one
+     * chosen from the estimated time of its segment. Counts set explicitly are
+     * kept. The first waypoint, which ends no segment, gets the count of the
+     * first segment.
+     *
+     * @param path the path
+     * @param drive the drivetrain the path is generated for
+     * @param density the number of control intervals per second of estimated segment time
+     * @return the path with every count chosen, or {@code path} itself if none was automatic
+     */
+    public static HolonomicPath assign(HolonomicPath path, SwerveDrivetrain drive, double density) {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        boolean anyAutomatic = false;
+        for (HolonomicWaypoint waypoint : waypoints) {
+            anyAutomatic |= waypoint.controlIntervalCount == AUTOMATIC;
+        }
+        if (!anyAutomatic) {
+            return path;
+        }
+        Limits limits = new Limits(drive);
+        List<HolonomicWaypoint> assigned = new ArrayList<>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            HolonomicWaypoint waypoint = waypoints.get(i);
+            if (waypoint.controlIntervalCount == AUTOMATIC) {
+                int segment = Math.max(i, 1);
+                int count = segment < waypoints.size()
+                        ? count(estimateTime(waypoints.get(segment - 1), waypoints.get(segment), limits), density)
+                        : MIN_COUNT;
+                waypoint = SolverInputs.withControlIntervalCount(waypoint, count);
+            }
+            assigned.add(waypoint);
+        }
+        return new HolonomicPath(assigned);
+    }
+
+    /**
+     * @param time the estimated time of a segment in seconds
+     * @param density the number of control intervals per second
+     * @return the number of control intervals for the segment
+     */
+    public static int count(double time, double density) {
+        double count = Math.ceil(time * density);
+        if (!(count >= MIN_COUNT)) { // also catches NaN
+            return MIN_COUNT;
+        }
+        return (int) Math.min(count, MAX_COUNT);
+    }
+
+    /**
+     * Estimates how long the robot takes to drive from one waypoint to the next.
+     *
+     * @param from the waypoint the segment starts at
+     * @param to the waypoint the segment ends at, with the segment's initial guess points
+     * @param drive the drivetrain
+     * @return the estimated time in seconds
+     */
+    public static double estimateTime(HolonomicWaypoint from, HolonomicWaypoint to, SwerveDrivetrain drive) {
+        return estimateTime(from, to, new Limits(drive));
+    }
+
+    private static double estimateTime(HolonomicWaypoint from, HolonomicWaypoint to, Limits limits) {
+        double distance = 0.0;
+        double x = from.x;
+        double y = from.y;
+        for (InitialGuessPoint point : to.initialGuessPoints) {
+            distance += Math.hypot(point.x - x, point.y - y);
+            x = point.x;
+            y = point.y;
+        }
+        distance += Math.hypot(to.x - x, to.y - y);
+        double time = profileTime(distance, limits.maxVelocity, limits.maxAcceleration);
+        if (from.headingConstrained && to.headingConstrained) {
+            double rotation = Math.abs(Math.IEEEremainder(to.heading - from.heading, 2.0 * Math.PI));
+            time = Math.max(time, profileTime(rotation, limits.maxAngularVelocity, limits.maxAngularAcceleration));
+        }
+        return time;
+    }
+
+    /**
+     * @return the time a trapezoidal profile from rest to rest takes to cover the distance
+     */
+    private static double profileTime(double distance, double maxVelocity, double maxAcceleration) {
+        if (distance * maxAcceleration <= maxVelocity * maxVelocity) { // never reaches top speed
+            return 2.0 * Math.sqrt(distance / maxAcceleration);
+        }
+        return distance / maxVelocity + maxVelocity / maxAcceleration;
+    }
+
+    private static class Limits {
+
+        private final double maxVelocity;
+        private final double maxAcceleration;
+        private final double maxAngularVelocity;
+        private final double maxAngularAcceleration;
+
+        private Limits(SwerveDrivetrain drive) {
+            double velocity = Double.POSITIVE_INFINITY;
+            double force = 0.0;
+            double radius = 0.0;
+            for (SwerveModule module : drive.modules) {
+                velocity = Math.min(velocity, module.wheelMaxAngularVelocity * module.wheelRadius);
+                force += module.wheelMaxTorque / module.wheelRadius;
+                radius = Math.max(radius, Math.hypot(module.x, module.y));
+            }
+            this.maxVelocity = velocity;
+            this.maxAcceleration = force / drive.mass;
+            this.maxAngularVelocity = radius > 0.0 ? velocity / radius : Double.POSITIVE_INFINITY;
+            this.maxAngularAcceleration = force * radius / drive.momentOfInertia;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.team2363.helixnavigator.generation;
+
+/**
+ * Thrown when generation is stopped before it finishes, for example by
+ * {@link ProcessPoolGenerator#cancelAll()}.
+ */
+public class GenerationCancelledException extends GenerationException {
+
+    /**
+     * Constructs a {@code GenerationCancelledException}.
+     *
+     * @param cause why the solve stopped
+     */
+    public GenerationCancelledException(Throwable cause) {
+        super("Generation was cancelled.", cause);
+    }
+}
@@ -0,0 +1,16 @@
+package org.team2363.helixnavigator.generation;
+
+/**
+ * Thrown by a {@link TrajectoryGenerator} when it cannot produce a trajectory
+ * for a path.
+ */
+public class GenerationException extends Exception {
+
+    public GenerationException(String message) {
+        super(message);
+    }
+
+    public GenerationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,35 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * Runs many generations at once, such as every path of a set of documents.
+ * {@link ParallelTrajectoryGenerator} runs them on local threads and
+ * {@link SolverFarm} on other machines.
+ */
+public interface GenerationExecutor {
+
+    /**
+     * Queues generation of the given path. The returned future completes
+     * exceptionally with the generator's exception if generation fails.
+     *
+     * @param generator the generator to use
+     * @param drive the drivetrain to generate for
+     * @param path the path to generate
+     * @return a future that completes with the generated trajectory and its solve time
+     */
+    CompletableFuture<GenerationResult> submit(TrajectoryGenerator generator, SwerveDrivetrain drive, HolonomicPath path);
+
+    /**
+     * @return the maximum number of solves that can run concurrently
+     */
+    int getThreadCount();
+
+    /**
+     * Stops accepting new work and releases the executor's resources.
+     */
+    void shutdown();
+}
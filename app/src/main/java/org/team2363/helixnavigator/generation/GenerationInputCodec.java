@@ -0,0 +1,220 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.ObstaclePoint;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+import org.team2363.helixtrajectory.SwerveModule;
+
+/**
+ * Writes the solver inputs ({@link SwerveDrivetrain} and {@link HolonomicPath})
+ * in a compact, canonical binary form. Two inputs that the solver would treat
+ * identically always produce the same bytes, so the encoding can be hashed to
+ * identify a generation request. The encoding can also be read back, which is
+ * how inputs are sent to solver worker processes.
+ */
+public final class GenerationInputCodec {
+
+    /**
+     * Incremented whenever the encoding changes so that old hashes stop matching.
+     */
+    public static final int FORMAT_VERSION = 1;
+    /**
+     * The most swerve modules a drivetrain that is read back may have
+     */
+    public static final int MAX_MODULES = 64;
+    /**
+     * The most waypoints a path that is read back may have
+     */
+    public static final int MAX_WAYPOINTS = 10_000;
+    /**
+     * The most initial guess points, obstacles, or obstacle points a waypoint or
+     * obstacle that is read back may have. Inputs come from worker pipes and
+     * network connections, so a corrupt count must fail before it is used to
+     * size a list.
+     */
+    public static final int MAX_POINTS = 100_000;
+
+    private GenerationInputCodec() {
+    }
+
+    /**
+     * Encodes a drivetrain and path together.
+     *
+     * @param drive the drivetrain
+     * @param path the path
+     * @return the canonical encoding of both inputs
+     */
+    public static byte[] encode(SwerveDrivetrain drive, HolonomicPath path) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            writeDrive(out, drive);
+            writePath(out, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not possible with a byte array
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes a drivetrain on its own.
+     *
+     * @param drive the drivetrain
+     * @return the canonical encoding of the drivetrain
+     */
+    public static byte[] encode(SwerveDrivetrain drive) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            writeDrive(out, drive);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not possible with a byte array
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void writeDrive(DataOutputStream out, SwerveDrivetrain drive) throws IOException {
+        writeDouble(out, drive.mass);
+        writeDouble(out, drive.momentOfInertia);
+        out.writeInt(drive.modules.size());
+        for (SwerveModule module : drive.modules) {
+            writeDouble(out, module.x);
+            writeDouble(out, module.y);
+            writeDouble(out, module.wheelRadius);
+            writeDouble(out, module.wheelMaxAngularVelocity);
+            writeDouble(out, module.wheelMaxTorque);
+        }
+        writeObstacle(out, drive.bumpers);
+    }
+
+    public static void writePath(DataOutputStream out, HolonomicPath path) throws IOException {
+        out.writeInt(path.holonomicWaypoints.size());
+        for (HolonomicWaypoint waypoint : path.holonomicWaypoints) {
+            writeWaypoint(out, waypoint);
+        }
+    }
+
+    public static void writeWaypoint(DataOutputStream out, HolonomicWaypoint waypoint) throws IOException {
+        writeDouble(out, waypoint.x);
+        writeDouble(out, waypoint.y);
+        writeDouble(out, waypoint.heading);
+        writeDouble(out, waypoint.velocityX);
+        writeDouble(out, waypoint.velocityY);
+        writeDouble(out, waypoint.angularVelocity);
+        out.writeBoolean(waypoint.xConstrained);
+        out.writeBoolean(waypoint.yConstrained);
+        out.writeBoolean(waypoint.headingConstrained);
+        out.writeBoolean(waypoint.velocityXConstrained);
+        out.writeBoolean(waypoint.velocityYConstrained);
+        out.writeBoolean(waypoint.velocityMagnitudeConstrained);
+        out.writeBoolean(waypoint.angularVelocityConstrained);
+        out.writeInt(waypoint.controlIntervalCount);
+        out.writeInt(waypoint.initialGuessPoints.size());
+        for (InitialGuessPoint point : waypoint.initialGuessPoints) {
+            writeDouble(out, point.x);
+            writeDouble(out, point.y);
+            writeDouble(out, point.heading);
+        }
+        out.writeInt(waypoint.obstacles.size());
+        for (Obstacle obstacle : waypoint.obstacles) {
+            writeObstacle(out, obstacle);
+        }
+    }
+
+    public static void writeObstacle(DataOutputStream out, Obstacle obstacle) throws IOException {
+        writeDouble(out, obstacle.safetyDistance);
+        out.writeBoolean(obstacle.applyToAllSegments);
+        out.writeInt(obstacle.points.size());
+        for (ObstaclePoint point : obstacle.points) {
+            writeDouble(out, point.x);
+            writeDouble(out, point.y);
+        }
+    }
+
+    public static SwerveDrivetrain readDrive(DataInputStream in) throws IOException {
+        double mass = in.readDouble();
+        double momentOfInertia = in.readDouble();
+        int moduleCount = readCount(in, MAX_MODULES, "modules");
+        List<SwerveModule> modules = new ArrayList<>(moduleCount);
+        for (int i = 0; i < moduleCount; i++) {
+            modules.add(new SwerveModule(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+        Obstacle bumpers = readObstacle(in);
+        return new SwerveDrivetrain(mass, momentOfInertia, modules, bumpers);
+    }
+
+    public static HolonomicPath readPath(DataInputStream in) throws IOException {
+        int waypointCount = readCount(in, MAX_WAYPOINTS, "waypoints");
+        List<HolonomicWaypoint> waypoints = new ArrayList<>(waypointCount);
+        for (int i = 0; i < waypointCount; i++) {
+            waypoints.add(readWaypoint(in));
+        }
+        return new HolonomicPath(waypoints);
+    }
+
+    public static HolonomicWaypoint readWaypoint(DataInputStream in) throws IOException {
+        double x = in.readDouble();
+        double y = in.readDouble();
+        double heading = in.readDouble();
+        double velocityX = in.readDouble();
+        double velocityY = in.readDouble();
+        double angularVelocity = in.readDouble();
+        boolean xConstrained = in.readBoolean();
+        boolean yConstrained = in.readBoolean();
+        boolean headingConstrained = in.readBoolean();
+        boolean velocityXConstrained = in.readBoolean();
+        boolean velocityYConstrained = in.readBoolean();
+        boolean velocityMagnitudeConstrained = in.readBoolean();
+        boolean angularVelocityConstrained = in.readBoolean();
+        int controlIntervalCount = in.readInt();
+        int initialGuessPointCount = readCount(in, MAX_POINTS, "initial guess points");
+        List<InitialGuessPoint> initialGuessPoints = new ArrayList<>(initialGuessPointCount);
+        for (int i = 0; i < initialGuessPointCount; i++) {
+            initialGuessPoints.add(new InitialGuessPoint(in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+        int obstacleCount = readCount(in, MAX_POINTS, "obstacles");
+        List<Obstacle> obstacles = new ArrayList<>(obstacleCount);
+        for (int i = 0; i < obstacleCount; i++) {
+            obstacles.add(readObstacle(in));
+        }
+        return new HolonomicWaypoint(x, y, heading, velocityX, velocityY, angularVelocity,
+                xConstrained, yConstrained, headingConstrained, velocityXConstrained, velocityYConstrained,
+                velocityMagnitudeConstrained, angularVelocityConstrained, controlIntervalCount,
+                initialGuessPoints, obstacles);
+    }
+
+    public static Obstacle readObstacle(DataInputStream in) throws IOException {
+        double safetyDistance = in.readDouble();
+        boolean applyToAllSegments = in.readBoolean();
+        int pointCount = readCount(in, MAX_POINTS, "obstacle points");
+        List<ObstaclePoint> points = new ArrayList<>(pointCount);
+        for (int i = 0; i < pointCount; i++) {
+            points.add(new ObstaclePoint(in.readDouble(), in.readDouble()));
+        }
+        return new Obstacle(safetyDistance, applyToAllSegments, points);
+    }
+
+    private static int readCount(DataInputStream in, int max, String what) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > max) {
+            throw new IOException("Corrupt solver input: " + count + " " + what + " (at most " + max + ")");
+        }
+        return count;
+    }
+
+    private static void writeDouble(DataOutputStream out, double value) throws IOException {
+        // 0.0 and -0.0 compare equal but have different bits; the solver doesn't care
+        out.writeDouble(value == 0.0 ? 0.0 : value);
+    }
+}
@@ -0,0 +1,165 @@
+package org.team2363.helixnavigator.generation;
+
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.CompletionException;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.global.Standards;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Measurements of a single generation request. Times are wall times in
+ * seconds:
+ * </p>
+ * <ul>
+ * <li>build time: converting the document path and robot configuration into
+ * solver input</li>
+ * <li>solve time: running the generator, not counting time spent queued</li>
+ * <li>wall time: from the request until the result was available</li>
+ * </ul>
+ * <p>
+ * A failed request has no trajectory, so its sample count and duration are
+ * zero. A cache hit has no solve time.
+ * </p>
+ */
+public class GenerationMetrics {
+
+    /**
+     * The columns written by {@link #toCsvRow()}
+     */
+    public static final String CSV_HEADER = "timestamp,version,path,generator,drive,status,cache_hit,warm_start,"
+            + "waypoint_count,segment_count,build_time,solve_time,wall_time,sample_count,trajectory_duration,failure";
+
+    /**
+     * When the request was made
+     */
+    public final Instant timestamp;
+    public final String pathName;
+    /**
+     * The {@link TrajectoryGenerator#getName() name} of the generator used
+     */
+    public final String generator;
+    /**
+     * The {@link TrajectoryCache#driveKey(org.team2363.helixtrajectory.SwerveDrivetrain) key}
+     * of the robot configuration
+     */
+    public final String driveKey;
+    public final GenerationStatus status;
+    public final boolean cacheHit;
+    public final boolean warmStarted;
+    public final int waypointCount;
+    public final int segmentCount;
+    public final double buildTime;
+    public final double solveTime;
+    public final double wallTime;
+    public final int sampleCount;
+    public final double trajectoryDuration;
+    /**
+     * Why generation failed, or an empty string if it succeeded
+     */
+    public final String failureCause;
+
+    public GenerationMetrics(Instant timestamp, String pathName, String generator, String driveKey,
+            GenerationStatus status, boolean cacheHit, boolean warmStarted, int waypointCount,
+            double buildTime, double solveTime, double wallTime, int sampleCount, double trajectoryDuration,
+            String failureCause) {
+        this.timestamp = timestamp;
+        this.pathName = pathName;
+        this.generator = generator;
+        this.driveKey = driveKey;
+        this.status = status;
+        this.cacheHit = cacheHit;
+        this.warmStarted = warmStarted;
+        this.waypointCount = waypointCount;
+        this.segmentCount = Math.max(0, waypointCount - 1);
+        this.buildTime = buildTime;
+        this.solveTime = solveTime;
+        this.wallTime = wallTime;
+        this.sampleCount = sampleCount;
+        this.trajectoryDuration = trajectoryDuration;
+        this.failureCause = failureCause == null ? "" : failureCause;
+    }
+
+    /**
+     * Creates the metrics of a request that produced a trajectory.
+     *
+     * @param timestamp when the request was made
+     * @param pathName the name of the path
+     * @param generator the generator used
+     * @param drive the drivetrain
+     * @param path the solver input
+     * @param cacheHit whether the trajectory came from the cache
+     * @param warmStarted whether the solve was warm started
+     * @param buildTime the time spent building the solver input
+     * @param solveTime the time spent in the generator
+     * @param wallTime the time from the request to the result
+     * @param trajectory the result
+     * @return the metrics
+     */
+    public static GenerationMetrics succeeded(Instant timestamp, String pathName, TrajectoryGenerator generator,
+            SwerveDrivetrain drive, HolonomicPath path, boolean cacheHit, boolean warmStarted,
+            double buildTime, double solveTime, double wallTime, HTrajectory trajectory) {
+        return new GenerationMetrics(timestamp, pathName, generator.getName(), TrajectoryCache.driveKey(drive),
+                GenerationStatus.SUCCEEDED, cacheHit, warmStarted, path.holonomicWaypoints.size(),
+                buildTime, solveTime, wallTime, trajectory.samples.size(), trajectory.duration, "");
+    }
+
+    /**
+     * Creates the metrics of a request that failed.
+     *
+     * @param timestamp when the request was made
+     * @param pathName the name of the path
+     * @param generator the generator used
+     * @param drive the drivetrain
+     * @param path the solver input, or {@code null} if it could not be built
+     * @param warmStarted whether the solve was warm started
+     * @param buildTime the time spent building the solver input
+     * @param wallTime the time from the request to the failure
+     * @param cause why generation failed
+     * @return the metrics
+     */
+    public static GenerationMetrics failed(Instant timestamp, String pathName, TrajectoryGenerator generator,
+            SwerveDrivetrain drive, HolonomicPath path, boolean warmStarted, double buildTime, double wallTime,
+            Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return new GenerationMetrics(timestamp, pathName, generator.getName(), TrajectoryCache.driveKey(drive),
+                GenerationStatus.ofFailure(cause),
+                false, warmStarted, path == null ? 0 : path.holonomicWaypoints.size(),
+                buildTime, 0.0, wallTime, 0, 0.0, String.valueOf(cause.getMessage()));
+    }
+
+    /**
+     * @return these metrics as one line of CSV, without a line terminator
+     */
+    public String toCsvRow() {
+        return String.join(",",
+                timestamp.toString(),
+                Standards.APPLICATION_VERSION,
+                csvField(pathName),
+                csvField(generator),
+                driveKey,
+                status.toString(),
+                Boolean.toString(cacheHit),
+                Boolean.toString(warmStarted),
+                Integer.toString(waypointCount),
+                Integer.toString(segmentCount),
+                String.format(Locale.ROOT, "%.6f", buildTime),
+                String.format(Locale.ROOT, "%.6f", solveTime),
+                String.format(Locale.ROOT, "%.6f", wallTime),
+                Integer.toString(sampleCount),
+                String.format(Locale.ROOT, "%.6f", trajectoryDuration),
+                csvField(failureCause));
+    }
+
+    private static String csvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"").replace("\n", " ") + "\"";
+        }
+        return value;
+    }
+}
@@ -0,0 +1,22 @@
+package org.team2363.helixnavigator.generation;
+
+/**
+ * How urgently a {@link GenerationRequest} should be solved. Queued requests
+ * with an earlier priority start before those with a later one, and requests
+ * with the same priority start in the order they were submitted.
+ */
+public enum GenerationPriority {
+    /**
+     * A path the user is looking at, such as the selected path
+     */
+    SELECTED,
+    /**
+     * Any other path, such as the rest of a "generate all" request
+     */
+    BACKGROUND;
+
+    @Override
+    public String toString() {
+        return name().toLowerCase();
+    }
+}
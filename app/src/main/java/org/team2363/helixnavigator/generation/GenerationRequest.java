@@ -0,0 +1,64 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.Objects;
+
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Everything needed to generate one trajectory, submitted to a
+ * {@link GenerationScheduler}. A request holds its own solver inputs, which are
+ * immutable, so it can be queued and solved on any thread after the document
+ * has changed.
+ * </p>
+ * <p>
+ * The key says which trajectory the request is for, usually the path in the
+ * document. A newer request with the same key supersedes an older one.
+ * </p>
+ */
+public class GenerationRequest {
+
+    /**
+     * Identifies the trajectory this request is for; compared with {@code equals}
+     */
+    public final Object key;
+    /**
+     * How urgently the request should be solved
+     */
+    public final GenerationPriority priority;
+    /**
+     * The generator to solve with
+     */
+    public final TrajectoryGenerator generator;
+    /**
+     * The drivetrain to generate for
+     */
+    public final SwerveDrivetrain drive;
+    /**
+     * The path to generate
+     */
+    public final HolonomicPath path;
+
+    /**
+     * Constructs a {@code GenerationRequest}.
+     *
+     * @param key identifies the trajectory the request is for
+     * @param priority how urgently the request should be solved
+     * @param generator the generator to solve with
+     * @param drive the drivetrain to generate for
+     * @param path the path to generate
+     */
+    public GenerationRequest(Object key, GenerationPriority priority, TrajectoryGenerator generator, SwerveDrivetrain drive, HolonomicPath path) {
+        this.key = Objects.requireNonNull(key, "key");
+        this.priority = Objects.requireNonNull(priority, "priority");
+        this.generator = Objects.requireNonNull(generator, "generator");
+        this.drive = Objects.requireNonNull(drive, "drive");
+        this.path = Objects.requireNonNull(path, "path");
+    }
+
+    @Override
+    public String toString() {
+        return "GenerationRequest[" + key + ", " + priority + ", " + generator.getName() + "]";
+    }
+}
@@ -0,0 +1,23 @@
+package org.team2363.helixnavigator.generation;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+
+/**
+ * The output of a single successful solve.
+ */
+public class GenerationResult {
+
+    /**
+     * The generated trajectory
+     */
+    public final HTrajectory trajectory;
+    /**
+     * The wall time in seconds spent in the solver, not counting time waiting in a queue
+     */
+    public final double solveTime;
+
+    public GenerationResult(HTrajectory trajectory, double solveTime) {
+        this.trajectory = trajectory;
+        this.solveTime = solveTime;
+    }
+}
@@ -0,0 +1,305 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+
+/**
+ * <p>
+ * Queues {@link GenerationRequest}s and solves them on a bounded pool of
+ * threads, most urgent first. Every request gets its own future, so any caller
+ * can submit work and react to the result without blocking or sharing state
+ * with other callers. Like {@link ParallelTrajectoryGenerator}, this class does
+ * not depend on the JavaFX application thread.
+ * </p>
+ * <p>
+ * Requests are keyed by the trajectory they are for. Submitting a request
+ * supersedes every earlier request with the same key: a queued one is dropped
+ * and a running one has its result discarded. In both cases the earlier future
+ * is cancelled. At most one request per key is solved at a time, so a burst of
+ * edits to one path never ties up more than one thread with stale solves. A
+ * solve that has already started can't be interrupted unless its generator
+ * supports that, like {@link ProcessPoolGenerator#cancelAll()}.
+ * </p>
+ */
+public class GenerationScheduler {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    private static final Comparator<Entry> ORDER = Comparator.<Entry, GenerationPriority>comparing(entry -> entry.request.priority)
+            .thenComparingLong(entry -> entry.sequence);
+
+    private final ExecutorService executor;
+    private final int threadCount;
+    private final TreeSet<Entry> queue = new TreeSet<>(ORDER);
+    private final Map<Object, Entry> queuedByKey = new HashMap<>();
+    private final Map<Object, Entry> runningByKey = new HashMap<>();
+    private long submittedCount = 0;
+    private boolean shutdown = false;
+
+    /**
+     * Constructs a {@code GenerationScheduler} with one thread per available
+     * processor.
+     */
+    public GenerationScheduler() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a {@code GenerationScheduler} with a fixed number of threads.
+     *
+     * @param threadCount the maximum number of concurrent solves
+     */
+    public GenerationScheduler(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+        AtomicInteger count = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(this.threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "generation-scheduler-" + count.incrementAndGet());
+            thread.setDaemon(true); // don't keep the app open after the window closes
+            return thread;
+        });
+    }
+
+    /**
+     * @return the maximum number of solves that can run concurrently
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Queues a request, superseding any earlier request with the same key. The
+     * returned future completes exceptionally with the generator's exception if
+     * generation fails, and is cancelled if the request is superseded or
+     * cancelled. Cancelling it drops the request.
+     *
+     * @param request the request
+     * @return a future that completes with the generated trajectory and its solve time
+     */
+    public CompletableFuture<GenerationResult> submit(GenerationRequest request) {
+        Entry entry;
+        List<Entry> superseded = new ArrayList<>(2);
+        synchronized (this) {
+            if (shutdown) {
+                return CompletableFuture.failedFuture(new GenerationException("The generation scheduler has been shut down."));
+            }
+            entry = new Entry(request, submittedCount++);
+            Entry queued = queuedByKey.put(request.key, entry);
+            if (queued != null) {
+                queue.remove(queued);
+                superseded.add(queued);
+            }
+            Entry running = runningByKey.get(request.key);
+            if (running != null) {
+                superseded.add(running);
+            }
+            queue.add(entry);
+        }
+        superseded.forEach(Entry::cancel);
+        entry.future.whenComplete((result, error) -> {
+            if (entry.future.isCancelled()) {
+                dequeue(entry);
+            }
+        });
+        dispatch();
+        return entry.future;
+    }
+
+    /**
+     * Queues a request like {@link #submit(GenerationRequest)} for callers that
+     * only need the trajectory. Cancelling the returned future drops the request.
+     *
+     * @param request the request
+     * @return a future that completes with the generated trajectory
+     */
+    public CompletableFuture<HTrajectory> generate(GenerationRequest request) {
+        CompletableFuture<GenerationResult> result = submit(request);
+        CompletableFuture<HTrajectory> trajectory = result.thenApply(generationResult -> generationResult.trajectory);
+        trajectory.whenComplete((value, error) -> {
+            if (trajectory.isCancelled()) {
+                result.cancel(false);
+            }
+        });
+        return trajectory;
+    }
+
+    /**
+     * Runs work that prepares requests, like ranking candidate inputs, on the
+     * scheduler's threads instead of the caller's. The work isn't queued with the
+     * requests, so it should be short next to a solve.
+     *
+     * @param <T> the type of the result
+     * @param task the work
+     * @return a future that completes with the result of the work
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        synchronized (this) {
+            if (shutdown) {
+                return CompletableFuture.failedFuture(new GenerationException("The generation scheduler has been shut down."));
+            }
+        }
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(new GenerationException("The generation scheduler has been shut down.", e));
+        }
+    }
+
+    /**
+     * Changes the priority of the queued request with the given key, if there is
+     * one. Requests that have already started are not affected.
+     *
+     * @param key the key of the request
+     * @param priority the new priority
+     */
+    public synchronized void setPriority(Object key, GenerationPriority priority) {
+        Entry entry = queuedByKey.get(key);
+        if (entry != null && entry.request.priority != priority) {
+            queue.remove(entry);
+            entry.request = new GenerationRequest(key, priority, entry.request.generator, entry.request.drive, entry.request.path);
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Cancels the queued and running requests with the given key.
+     *
+     * @param key the key of the requests
+     */
+    public void cancel(Object key) {
+        List<Entry> cancelled = new ArrayList<>(2);
+        synchronized (this) {
+            Entry queued = queuedByKey.get(key);
+            if (queued != null) {
+                cancelled.add(queued);
+            }
+            Entry running = runningByKey.get(key);
+            if (running != null) {
+                cancelled.add(running);
+            }
+        }
+        cancelled.forEach(Entry::cancel);
+    }
+
+    /**
+     * Cancels every queued and running request.
+     */
+    public void cancelAll() {
+        List<Entry> cancelled;
+        synchronized (this) {
+            cancelled = new ArrayList<>(queue);
+            cancelled.addAll(runningByKey.values());
+        }
+        cancelled.forEach(Entry::cancel);
+    }
+
+    /**
+     * @param key the key of a request
+     * @return {@code true} if a request with the key is queued or running
+     */
+    public synchronized boolean isPending(Object key) {
+        return queuedByKey.containsKey(key) || runningByKey.containsKey(key);
+    }
+
+    /**
+     * @return the number of requests waiting for a thread
+     */
+    public synchronized int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * @return the number of requests being solved
+     */
+    public synchronized int getRunningCount() {
+        return runningByKey.size();
+    }
+
+    /**
+     * Cancels every request and stops accepting new ones.
+     */
+    public void shutdown() {
+        logger.info("Shutting down generation scheduler.");
+        synchronized (this) {
+            shutdown = true;
+        }
+        cancelAll();
+        executor.shutdown();
+    }
+
+    private synchronized void dequeue(Entry entry) {
+        if (queuedByKey.remove(entry.request.key, entry)) {
+            queue.remove(entry);
+        }
+    }
+
+    private void dispatch() {
+        synchronized (this) {
+            while (runningByKey.size() < threadCount) {
+                Entry next = null;
+                for (Entry entry : queue) {
+                    if (!runningByKey.containsKey(entry.request.key)) {
+                        next = entry;
+                        break;
+                    }
+                }
+                if (next == null) {
+                    return;
+                }
+                queue.remove(next);
+                queuedByKey.remove(next.request.key);
+                runningByKey.put(next.request.key, next);
+                Entry started = next;
+                executor.execute(() -> run(started));
+            }
+        }
+    }
+
+    private void run(Entry entry) {
+        GenerationRequest request = entry.request;
+        try {
+            if (!entry.future.isDone()) {
+                logger.fine("Generating " + request);
+                long startTime = System.nanoTime();
+                HTrajectory trajectory = request.generator.generate(request.drive, request.path);
+                double solveTime = (System.nanoTime() - startTime) / 1e9;
+                entry.future.complete(new GenerationResult(trajectory, solveTime));
+            }
+        } catch (GenerationException | RuntimeException e) {
+            entry.future.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                runningByKey.remove(request.key, entry);
+            }
+            dispatch();
+        }
+    }
+
+    private static class Entry {
+
+        private GenerationRequest request;
+        private final long sequence;
+        private final CompletableFuture<GenerationResult> future = new CompletableFuture<>();
+
+        private Entry(GenerationRequest request, long sequence) {
+            this.request = request;
+            this.sequence = sequence;
+        }
+
+        private void cancel() {
+            future.cancel(false);
+        }
+    }
+}
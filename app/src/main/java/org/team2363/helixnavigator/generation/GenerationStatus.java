@@ -0,0 +1,29 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * The state of a single path's trajectory generation request.
+ */
+public enum GenerationStatus {
+    QUEUED,
+    GENERATING,
+    SUCCEEDED,
+    FAILED,
+    TIMED_OUT,
+    CANCELLED;
+
+    /**
+     * @param error why a request failed, possibly wrapped in a {@link CompletionException}
+     * @return {@link #TIMED_OUT} if the request ran out of time, otherwise {@link #FAILED}
+     */
+    public static GenerationStatus ofFailure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof GenerationTimeoutException ? TIMED_OUT : FAILED;
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,27 @@
+package org.team2363.helixnavigator.generation;
+
+/**
+ * Thrown when generation does not finish within its time budget and there is
+ * no usable result so far.
+ */
+public class GenerationTimeoutException extends GenerationException {
+
+    private final long budgetMillis;
+
+    /**
+     * Constructs a {@code GenerationTimeoutException}.
+     *
+     * @param budgetMillis the time budget that ran out, in milliseconds
+     */
+    public GenerationTimeoutException(long budgetMillis) {
+        super(String.format("Generation did not finish within its %.1f s time budget.", budgetMillis / 1000.0));
+        this.budgetMillis = budgetMillis;
+    }
+
+    /**
+     * @return the time budget that ran out, in milliseconds
+     */
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+}
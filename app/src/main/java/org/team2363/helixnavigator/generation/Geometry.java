@@ -0,0 +1,62 @@
+package org.team2363.helixnavigator.generation;
+
+/**
+ * Plane geometry shared by the generators that look at obstacles. Shapes are
+ * flat arrays of coordinates: {@code x0, y0, x1, y1, ...}.
+ */
+final class Geometry {
+
+    private Geometry() {
+    }
+
+    /**
+     * Checks whether a point is inside a polygon, using the even-odd rule.
+     *
+     * @param polygon the polygon's corners
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return {@code true} if the point is inside
+     */
+    static boolean contains(double[] polygon, double x, double y) {
+        boolean inside = false;
+        for (int i = 0, j = polygon.length - 2; i < polygon.length; j = i, i += 2) {
+            double xi = polygon[i], yi = polygon[i + 1], xj = polygon[j], yj = polygon[j + 1];
+            if ((yi > y) != (yj > y) && x < (xj - xi) * (y - yi) / (yj - yi) + xi) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * @return the distance between the segments AB and CD
+     */
+    static double segmentDistance(double ax, double ay, double bx, double by, double cx, double cy, double dx, double dy) {
+        double d1 = cross(ax, ay, bx, by, cx, cy);
+        double d2 = cross(ax, ay, bx, by, dx, dy);
+        double d3 = cross(cx, cy, dx, dy, ax, ay);
+        double d4 = cross(cx, cy, dx, dy, bx, by);
+        if (((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0))) {
+            return 0.0; // the segments cross
+        }
+        return Math.min(Math.min(pointSegmentDistance(ax, ay, cx, cy, dx, dy), pointSegmentDistance(bx, by, cx, cy, dx, dy)),
+                Math.min(pointSegmentDistance(cx, cy, ax, ay, bx, by), pointSegmentDistance(dx, dy, ax, ay, bx, by)));
+    }
+
+    /**
+     * @return the cross product of AB and AP, positive if P is to the left of AB
+     */
+    static double cross(double ax, double ay, double bx, double by, double px, double py) {
+        return (bx - ax) * (py - ay) - (by - ay) * (px - ax);
+    }
+
+    /**
+     * @return the distance from P to the segment AB
+     */
+    static double pointSegmentDistance(double px, double py, double ax, double ay, double bx, double by) {
+        double lengthSquared = (bx - ax) * (bx - ax) + (by - ay) * (by - ay);
+        double t = lengthSquared > 0.0 ? ((px - ax) * (bx - ax) + (py - ay) * (by - ay)) / lengthSquared : 0.0;
+        t = Math.max(0.0, Math.min(1.0, t));
+        return Math.hypot(px - (ax + t * (bx - ax)), py - (ay + t * (by - ay)));
+    }
+}
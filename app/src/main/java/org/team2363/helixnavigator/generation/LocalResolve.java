@@ -0,0 +1,210 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.Obstacle;
+
+/**
+ * <p>
+ * Re-solves only the part of a path around an edit and splices the result into
+ * the previous trajectory, instead of solving the whole path again.
+ * </p>
+ * <p>
+ * The span to re-solve runs from the nearest anchor before the first changed
+ * waypoint to the nearest anchor after the last one, or to the ends of the
+ * path. An anchor is an unchanged waypoint that fixes position and heading.
+ * The robot's velocity at each anchor is taken from the previous trajectory
+ * and fixed, so the new samples meet the old ones without a jump. If the
+ * anchors are stops (see {@link SegmentedGenerator#isStop(HolonomicWaypoint)})
+ * nothing is lost, since the rest of the path can't affect the span; otherwise
+ * the spliced trajectory can be slower than solving the whole path, because the
+ * velocities at the anchors were chosen for the old path.
+ * </p>
+ * <p>
+ * A path whose waypoint count or shared obstacles changed is not spliced.
+ * </p>
+ */
+public final class LocalResolve {
+
+    /**
+     * The part of a path to re-solve.
+     */
+    public static final class Span {
+        /**
+         * The index of the first waypoint of the span
+         */
+        public final int startWaypoint;
+        /**
+         * The index of the last waypoint of the span
+         */
+        public final int endWaypoint;
+        /**
+         * The path to solve, with the velocities at the anchors fixed
+         */
+        public final HolonomicPath path;
+        private final int startSample;
+        private final int endSample;
+
+        private Span(int startWaypoint, int endWaypoint, HolonomicPath path, int startSample, int endSample) {
+            this.startWaypoint = startWaypoint;
+            this.endWaypoint = endWaypoint;
+            this.path = path;
+            this.startSample = startSample;
+            this.endSample = endSample;
+        }
+    }
+
+    private LocalResolve() {
+    }
+
+    /**
+     * Finds the span of a path that has to be solved again after an edit.
+     *
+     * @param previousPath the solver input of the previous trajectory
+     * @param previousTrajectory the previous trajectory
+     * @param path the edited path
+     * @return the span, or {@code null} if the whole path has to be solved again
+     */
+    public static Span findSpan(HolonomicPath previousPath, HTrajectory previousTrajectory, HolonomicPath path) {
+        List<HolonomicWaypoint> previousWaypoints = previousPath.holonomicWaypoints;
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        if (waypoints.size() != previousWaypoints.size() || waypoints.size() < 3
+                || previousTrajectory.samples.size() < waypoints.size()
+                || !Arrays.equals(encode(sharedObstacles(previousWaypoints)), encode(sharedObstacles(waypoints)))) {
+            return null;
+        }
+        int firstChanged = -1;
+        int lastChanged = -1;
+        for (int i = 0; i < waypoints.size(); i++) {
+            if (!Arrays.equals(encode(ownObstaclesOnly(previousWaypoints.get(i))), encode(ownObstaclesOnly(waypoints.get(i))))) {
+                if (firstChanged == -1) {
+                    firstChanged = i;
+                }
+                lastChanged = i;
+            }
+        }
+        if (firstChanged == -1) {
+            return null;
+        }
+        int start = 0;
+        for (int i = firstChanged - 1; i > 0; i--) {
+            if (isAnchor(waypoints.get(i))) {
+                start = i;
+                break;
+            }
+        }
+        int end = waypoints.size() - 1;
+        for (int i = lastChanged + 1; i < waypoints.size() - 1; i++) {
+            if (isAnchor(waypoints.get(i))) {
+                end = i;
+                break;
+            }
+        }
+        if (start == 0 && end == waypoints.size() - 1) {
+            return null;
+        }
+        List<HTrajectorySample> samples = previousTrajectory.samples;
+        int[] waypointSampleIndices = WarmStart.waypointSampleIndices(samples, previousWaypoints);
+        List<HolonomicWaypoint> spanWaypoints = new ArrayList<>(waypoints.subList(start, end + 1));
+        if (start > 0) {
+            HTrajectorySample sample = samples.get(waypointSampleIndices[start]);
+            // like a piece of a split path, the first waypoint has no segment before it
+            HolonomicWaypoint first = SolverInputs.withObstacles(spanWaypoints.get(0), sharedObstacles(waypoints));
+            first = SolverInputs.withInitialGuessPoints(first, List.of());
+            spanWaypoints.set(0, SolverInputs.withVelocity(first, sample.vx, sample.vy, sample.omega));
+        }
+        if (end < waypoints.size() - 1) {
+            HTrajectorySample sample = samples.get(waypointSampleIndices[end]);
+            spanWaypoints.set(spanWaypoints.size() - 1,
+                    SolverInputs.withVelocity(spanWaypoints.get(spanWaypoints.size() - 1), sample.vx, sample.vy, sample.omega));
+        }
+        return new Span(start, end, new HolonomicPath(spanWaypoints), waypointSampleIndices[start], waypointSampleIndices[end]);
+    }
+
+    /**
+     * Replaces the samples of a span in the previous trajectory with a new
+     * trajectory for the span, shifting the timestamps after it.
+     *
+     * @param previousTrajectory the trajectory the span was found in
+     * @param span the span
+     * @param spanTrajectory the trajectory generated for {@link Span#path}
+     * @return the spliced trajectory
+     */
+    public static HTrajectory splice(HTrajectory previousTrajectory, Span span, HTrajectory spanTrajectory) {
+        List<HTrajectorySample> previousSamples = previousTrajectory.samples;
+        List<HTrajectorySample> samples = new ArrayList<>(previousSamples.size() - (span.endSample - span.startSample) + spanTrajectory.samples.size());
+        samples.addAll(previousSamples.subList(0, span.startSample));
+        double offset = previousSamples.get(span.startSample).ts - spanTrajectory.samples.get(0).ts;
+        for (HTrajectorySample sample : spanTrajectory.samples) {
+            samples.add(shift(sample, offset));
+        }
+        offset = samples.get(samples.size() - 1).ts - previousSamples.get(span.endSample).ts;
+        for (HTrajectorySample sample : previousSamples.subList(span.endSample + 1, previousSamples.size())) {
+            samples.add(shift(sample, offset));
+        }
+        return new HTrajectory(samples);
+    }
+
+    private static HTrajectorySample shift(HTrajectorySample sample, double offset) {
+        return new HTrajectorySample(sample.ts + offset, sample.x, sample.y, sample.heading, sample.vx, sample.vy, sample.omega);
+    }
+
+    private static boolean isAnchor(HolonomicWaypoint waypoint) {
+        return waypoint.xConstrained && waypoint.yConstrained && waypoint.headingConstrained;
+    }
+
+    private static List<Obstacle> sharedObstacles(List<HolonomicWaypoint> waypoints) {
+        List<Obstacle> sharedObstacles = new ArrayList<>();
+        for (HolonomicWaypoint waypoint : waypoints) {
+            for (Obstacle obstacle : waypoint.obstacles) {
+                if (obstacle.applyToAllSegments) {
+                    sharedObstacles.add(obstacle);
+                }
+            }
+        }
+        return sharedObstacles;
+    }
+
+    private static HolonomicWaypoint ownObstaclesOnly(HolonomicWaypoint waypoint) {
+        List<Obstacle> obstacles = new ArrayList<>();
+        for (Obstacle obstacle : waypoint.obstacles) {
+            if (!obstacle.applyToAllSegments) {
+                obstacles.add(obstacle);
+            }
+        }
+        return SolverInputs.withObstacles(waypoint, obstacles);
+    }
+
+    private static byte[] encode(HolonomicWaypoint waypoint) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            GenerationInputCodec.writeWaypoint(out, waypoint);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not possible with a byte array
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] encode(List<Obstacle> obstacles) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(obstacles.size());
+            for (Obstacle obstacle : obstacles) {
+                GenerationInputCodec.writeObstacle(out, obstacle);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not possible with a byte array
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,96 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.global.Standards;
+
+/**
+ * Appends {@link GenerationMetrics} to a CSV file so that solver performance
+ * can be compared across robot configurations and releases. When the file grows
+ * past a size limit it is renamed to {@code <name>.1.csv} (shifting older files
+ * up to a fixed count) and a new file is started. All methods are thread safe.
+ */
+public class MetricsLog {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    public static final File DEFAULT_FILE = new File(Standards.USER_DATA_DIR, "generation-metrics.csv");
+    public static final long DEFAULT_MAX_BYTES = 1024L * 1024;
+    public static final int DEFAULT_MAX_ROLLED_FILES = 4;
+
+    private final File file;
+    private final long maxBytes;
+    private final int maxRolledFiles;
+
+    /**
+     * Constructs a {@code MetricsLog} with the default file and limits.
+     */
+    public MetricsLog() {
+        this(DEFAULT_FILE, DEFAULT_MAX_BYTES, DEFAULT_MAX_ROLLED_FILES);
+    }
+
+    /**
+     * Constructs a {@code MetricsLog}.
+     *
+     * @param file the CSV file to append to
+     * @param maxBytes the size at which the file is rolled over
+     * @param maxRolledFiles the number of old files to keep
+     */
+    public MetricsLog(File file, long maxBytes, int maxRolledFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.maxRolledFiles = maxRolledFiles;
+    }
+
+    /**
+     * @return the file currently being appended to
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Appends a row, rolling the file over first if it is full.
+     *
+     * @param metrics the metrics to record
+     */
+    public synchronized void append(GenerationMetrics metrics) {
+        try {
+            if (file.length() >= maxBytes) {
+                roll();
+            }
+            boolean newFile = !file.exists() || file.length() == 0;
+            if (newFile && file.getParentFile() != null) {
+                file.getParentFile().mkdirs();
+            }
+            try (Writer writer = new FileWriter(file, StandardCharsets.UTF_8, true)) {
+                if (newFile) {
+                    writer.write(GenerationMetrics.CSV_HEADER);
+                    writer.write(System.lineSeparator());
+                }
+                writer.write(metrics.toCsvRow());
+                writer.write(System.lineSeparator());
+            }
+        } catch (IOException e) {
+            logger.warning("Could not write generation metrics to \"" + file.getAbsolutePath() + "\": " + e.getMessage());
+        }
+    }
+
+    private void roll() {
+        new File(rolledName(maxRolledFiles)).delete();
+        for (int i = maxRolledFiles - 1; i >= 1; i--) {
+            new File(rolledName(i)).renameTo(new File(rolledName(i + 1)));
+        }
+        file.renameTo(new File(rolledName(1)));
+    }
+
+    private String rolledName(int index) {
+        String path = file.getPath();
+        return path.endsWith(".csv") ? path.substring(0, path.length() - 4) + "." + index + ".csv" : path + "." + index;
+    }
+}
@@ -0,0 +1,380 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Solves the same path several times at once from different initial guesses
+ * and keeps the fastest trajectory. With obstacles the problem is not convex,
+ * so which way around an obstacle the solver goes, and whether it converges at
+ * all, depends on where it starts. Since the starts run in parallel, this costs
+ * about as much wall time as the slowest of them, as long as there are no more
+ * starts than {@link #MAX_THREADS}.
+ * </p>
+ * <p>
+ * The first start is the path as given. The second and third push the initial
+ * guess of every segment to the left and to the right of the straight line
+ * between its waypoints, and the rest pick a random side and distance for
+ * each segment (see {@link #starts(HolonomicPath, int)}). A path without
+ * obstacles is only solved once.
+ * </p>
+ * <p>
+ * This generator gives useful results under a time budget: when the budget
+ * runs out, the best of the starts that have finished is kept.
+ * </p>
+ */
+public class MultiStartGenerator implements TrajectoryGenerator {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    public static final int DEFAULT_START_COUNT = 4;
+    /**
+     * How far the initial guess of a segment is pushed to the side, as a
+     * fraction of the segment's length
+     */
+    public static final double OFFSET_FRACTION = 0.3;
+
+    /**
+     * The result of one start.
+     */
+    public static class Outcome {
+        /**
+         * The index of the start, where {@code 0} is the unchanged path
+         */
+        public final int start;
+        /**
+         * The trajectory, or {@code null} if the start failed
+         */
+        public final HTrajectory trajectory;
+        /**
+         * The reason the start failed, or {@code null} if it succeeded
+         */
+        public final String failure;
+        /**
+         * The wall time in seconds the start took
+         */
+        public final double solveTime;
+        /**
+         * Whether the start failed because the time budget ran out
+         */
+        public final boolean timedOut;
+
+        public Outcome(int start, HTrajectory trajectory, String failure, double solveTime) {
+            this(start, trajectory, failure, solveTime, false);
+        }
+
+        public Outcome(int start, HTrajectory trajectory, String failure, double solveTime, boolean timedOut) {
+            this.start = start;
+            this.trajectory = trajectory;
+            this.failure = failure;
+            this.solveTime = solveTime;
+            this.timedOut = timedOut;
+        }
+    }
+
+    /**
+     * The results of every start of one path, and the best of them.
+     */
+    public static class Report {
+        /**
+         * The result of each start, in start order
+         */
+        public final List<Outcome> outcomes;
+        /**
+         * The successful start with the shortest trajectory, or {@code null} if every start failed
+         */
+        public final Outcome best;
+
+        public Report(List<Outcome> outcomes) {
+            this.outcomes = Collections.unmodifiableList(new ArrayList<>(outcomes));
+            Outcome bestOutcome = null;
+            for (Outcome outcome : outcomes) {
+                if (outcome.trajectory != null && (bestOutcome == null || outcome.trajectory.duration < bestOutcome.trajectory.duration)) {
+                    bestOutcome = outcome;
+                }
+            }
+            this.best = bestOutcome;
+        }
+
+        /**
+         * @return the number of starts that produced a trajectory
+         */
+        public int getSucceededCount() {
+            int count = 0;
+            for (Outcome outcome : outcomes) {
+                if (outcome.trajectory != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * @return the duration of the slowest successful trajectory, or {@code NaN} if every start failed
+         */
+        public double getWorstDuration() {
+            double worst = Double.NaN;
+            for (Outcome outcome : outcomes) {
+                if (outcome.trajectory != null && !(outcome.trajectory.duration <= worst)) {
+                    worst = outcome.trajectory.duration;
+                }
+            }
+            return worst;
+        }
+
+        /**
+         * @return the longest time any start took, which is about the wall time of all of them
+         */
+        public double getLongestSolveTime() {
+            double longest = 0.0;
+            for (Outcome outcome : outcomes) {
+                longest = Math.max(longest, outcome.solveTime);
+            }
+            return longest;
+        }
+
+        @Override
+        public String toString() {
+            if (best == null) {
+                return "0/" + outcomes.size() + " starts succeeded";
+            }
+            return String.format("%d/%d starts succeeded, trajectory time %.3f-%.3f s, best from start %d",
+                    getSucceededCount(), outcomes.size(), best.trajectory.duration, getWorstDuration(), best.start);
+        }
+    }
+
+    /**
+     * The largest number of starts solved at once by one generator; the rest
+     * wait in a queue
+     */
+    public static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private final TrajectoryGenerator delegate;
+    private final int startCount;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a {@code MultiStartGenerator} with {@value #DEFAULT_START_COUNT} starts.
+     *
+     * @param delegate the generator used for each start
+     */
+    public MultiStartGenerator(TrajectoryGenerator delegate) {
+        this(delegate, DEFAULT_START_COUNT);
+    }
+
+    /**
+     * Constructs a {@code MultiStartGenerator}.
+     *
+     * @param delegate the generator used for each start
+     * @param startCount the number of starts
+     */
+    public MultiStartGenerator(TrajectoryGenerator delegate, int startCount) {
+        this.delegate = delegate;
+        this.startCount = Math.max(1, startCount);
+        AtomicInteger count = new AtomicInteger(0);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "multi-start-generator-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+    }
+
+    /**
+     * @return the generator used for each start
+     */
+    public TrajectoryGenerator getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the number of starts of a path with obstacles
+     */
+    public int getStartCount() {
+        return startCount;
+    }
+
+    @Override
+    public String getName() {
+        return "multistart-" + delegate.getName();
+    }
+
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        return generate(drive, path, 0);
+    }
+
+    /**
+     * Generates a trajectory from several starts. When the time budget runs out,
+     * the best trajectory of the starts that have finished is returned, so a
+     * budget shorter than the slowest start still gives a result as long as any
+     * start finished in time.
+     */
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        Report report = generateAll(drive, path, budgetMillis);
+        if (report.best == null) {
+            if (report.outcomes.stream().anyMatch(outcome -> outcome.timedOut)) {
+                throw new GenerationTimeoutException(budgetMillis);
+            }
+            throw new GenerationException("Every start failed; the first failed with: " + report.outcomes.get(0).failure);
+        }
+        if (report.outcomes.size() > 1) {
+            logger.info("Multi-start generation: " + report);
+        }
+        return report.best.trajectory;
+    }
+
+    /**
+     * Solves every start and reports all of their results.
+     *
+     * @param drive the drivetrain to generate for
+     * @param path the path to generate
+     * @return the result of every start
+     * @throws GenerationException if interrupted while waiting for the starts
+     */
+    public Report generateAll(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        return generateAll(drive, path, 0);
+    }
+
+    /**
+     * Solves every start and reports the results of those that finish within
+     * the time budget. Starts that don't are reported as timed out.
+     *
+     * @param drive the drivetrain to generate for
+     * @param path the path to generate
+     * @param budgetMillis the time budget in milliseconds, or {@code 0} for none
+     * @return the result of every start
+     * @throws GenerationException if interrupted while waiting for the starts
+     */
+    public Report generateAll(SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        long deadline = TimeBudget.deadline(budgetMillis);
+        List<HolonomicPath> starts = starts(path, startCount);
+        // with a budget, this thread only waits, so that it can stop waiting in time
+        int firstSubmitted = budgetMillis > 0 ? 0 : 1;
+        List<Future<Outcome>> futures = new ArrayList<>(starts.size());
+        for (int i = firstSubmitted; i < starts.size(); i++) {
+            int start = i;
+            // a start that waited in the queue only gets what is left of the budget
+            futures.add(executor.submit(() -> solve(start, drive, starts.get(start), budgetMillis > 0 ? TimeBudget.remainingMillis(deadline) : 0)));
+        }
+        List<Outcome> outcomes = new ArrayList<>(starts.size());
+        try {
+            if (firstSubmitted == 1) {
+                outcomes.add(solve(0, drive, starts.get(0), 0)); // use this thread for the unchanged path
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                if (budgetMillis <= 0) {
+                    outcomes.add(futures.get(i).get());
+                } else {
+                    try {
+                        outcomes.add(futures.get(i).get(TimeBudget.remainingMillis(deadline), TimeUnit.MILLISECONDS));
+                    } catch (TimeoutException e) {
+                        outcomes.add(new Outcome(firstSubmitted + i, null, "Did not finish within the time budget.", budgetMillis / 1000.0, true));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationException("Interrupted while generating from several starts.", e);
+        } catch (ExecutionException e) {
+            throw new GenerationException("Could not generate from a start: " + e.getCause(), e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+        }
+        return new Report(outcomes);
+    }
+
+    private Outcome solve(int start, SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) {
+        long startTime = System.nanoTime();
+        try {
+            HTrajectory trajectory = delegate.generate(drive, path, budgetMillis);
+            return new Outcome(start, trajectory, null, (System.nanoTime() - startTime) / 1e9);
+        } catch (GenerationException | RuntimeException e) {
+            return new Outcome(start, null, String.valueOf(e.getMessage()), (System.nanoTime() - startTime) / 1e9,
+                    e instanceof GenerationTimeoutException);
+        }
+    }
+
+    /**
+     * Creates the paths solved by each start. The same path and count always give
+     * the same starts.
+     *
+     * @param path the path to generate
+     * @param startCount the number of starts wanted
+     * @return {@code path} followed by copies with moved initial guesses, or only
+     *         {@code path} if it has no obstacles or only one waypoint
+     */
+    public static List<HolonomicPath> starts(HolonomicPath path, int startCount) {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        boolean hasObstacles = waypoints.stream().anyMatch(waypoint -> !waypoint.obstacles.isEmpty());
+        if (!hasObstacles || waypoints.size() < 2 || startCount < 2) {
+            return List.of(path);
+        }
+        List<HolonomicPath> starts = new ArrayList<>(startCount);
+        starts.add(path);
+        for (int start = 1; start < startCount; start++) {
+            Random random = new Random(start);
+            List<HolonomicWaypoint> startWaypoints = new ArrayList<>(waypoints.size());
+            startWaypoints.add(waypoints.get(0));
+            for (int i = 1; i < waypoints.size(); i++) {
+                double side;
+                double fraction;
+                if (start <= 2) {
+                    side = start == 1 ? 1.0 : -1.0;
+                    fraction = OFFSET_FRACTION;
+                } else {
+                    side = random.nextBoolean() ? 1.0 : -1.0;
+                    fraction = OFFSET_FRACTION * (0.5 + random.nextDouble());
+                }
+                startWaypoints.add(offsetSegment(waypoints.get(i - 1), waypoints.get(i), side * fraction));
+            }
+            starts.add(new HolonomicPath(startWaypoints));
+        }
+        return starts;
+    }
+
+    /**
+     * Moves the initial guess of the segment ending at {@code end} sideways, or
+     * adds one at the middle of the segment if it has none.
+     */
+    private static HolonomicWaypoint offsetSegment(HolonomicWaypoint start, HolonomicWaypoint end, double fraction) {
+        double dx = end.x - start.x;
+        double dy = end.y - start.y;
+        if (Math.hypot(dx, dy) < 1e-6) {
+            return end;
+        }
+        // the segment's left normal, scaled by the fraction of its length
+        double offsetX = -dy * fraction;
+        double offsetY = dx * fraction;
+        List<InitialGuessPoint> guesses = new ArrayList<>();
+        if (end.initialGuessPoints.isEmpty()) {
+            double heading = Math.atan2(Math.sin(start.heading) + Math.sin(end.heading), Math.cos(start.heading) + Math.cos(end.heading));
+            guesses.add(new InitialGuessPoint((start.x + end.x) / 2 + offsetX, (start.y + end.y) / 2 + offsetY, heading));
+        } else {
+            for (InitialGuessPoint guess : end.initialGuessPoints) {
+                guesses.add(new InitialGuessPoint(guess.x + offsetX, guess.y + offsetY, guess.heading));
+            }
+        }
+        return SolverInputs.withInitialGuessPoints(end, guesses);
+    }
+}
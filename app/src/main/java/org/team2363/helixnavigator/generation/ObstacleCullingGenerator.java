@@ -0,0 +1,347 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.ObstaclePoint;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Drops the obstacles that are nowhere near a path before solving it with
+ * another generator. Every obstacle is a constraint at every sample of every
+ * segment it applies to, so on a field with many obstacles most of the solver's
+ * work goes into constraints that can never be active.
+ * </p>
+ * <p>
+ * Each segment has a corridor around the straight lines from its first
+ * waypoint through its initial guess points to its last, as wide as the
+ * bumpers plus both safety distances plus a margin. An obstacle that applies to
+ * every segment is kept only on the segments whose corridor it reaches (see
+ * {@link #cull(HolonomicPath, SwerveDrivetrain, double)}).
+ * </p>
+ * <p>
+ * The solver may leave the corridor, for example to get around an obstacle
+ * that was kept, so the result is checked against every obstacle that was
+ * dropped somewhere (see
+ * {@link #violations(HTrajectory, HolonomicPath, HolonomicPath, SwerveDrivetrain)}).
+ * Obstacles it hits are added back to every segment and the path is solved
+ * again, so culling never gives a trajectory that the full path would not allow.
+ * If the culled path can't be solved at all, the full path is solved instead,
+ * since the dropped obstacles may have been what kept the solver on course.
+ * </p>
+ */
+public class ObstacleCullingGenerator implements TrajectoryGenerator {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    /**
+     * The default distance in meters the corridor reaches beyond the bumpers and safety distances
+     */
+    public static final double DEFAULT_MARGIN = 0.5;
+    /**
+     * How many times the path is solved again with obstacles that were hit
+     * before falling back to the full path
+     */
+    public static final int MAX_ROUNDS = 3;
+    /**
+     * How far in meters the trajectory may come inside a safety distance
+     * before an obstacle counts as hit, so that a trajectory resting exactly on
+     * the constraint isn't counted as hitting it through rounding
+     */
+    public static final double TOLERANCE = 1e-6;
+
+    private final TrajectoryGenerator delegate;
+    private final double margin;
+
+    /**
+     * Constructs an {@code ObstacleCullingGenerator} with the default margin.
+     *
+     * @param delegate the generator used for the culled path
+     */
+    public ObstacleCullingGenerator(TrajectoryGenerator delegate) {
+        this(delegate, DEFAULT_MARGIN);
+    }
+
+    /**
+     * Constructs an {@code ObstacleCullingGenerator}.
+     *
+     * @param delegate the generator used for the culled path
+     * @param margin the distance in meters the corridor reaches beyond the bumpers and safety distances
+     */
+    public ObstacleCullingGenerator(TrajectoryGenerator delegate, double margin) {
+        this.delegate = delegate;
+        this.margin = Math.max(0.0, margin);
+    }
+
+    /**
+     * @return the generator used for the culled path
+     */
+    public TrajectoryGenerator getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the distance in meters the corridor reaches beyond the bumpers and safety distances
+     */
+    public double getMargin() {
+        return margin;
+    }
+
+    @Override
+    public String getName() {
+        return "culled-" + delegate.getName();
+    }
+
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        return generate(drive, path, 0);
+    }
+
+    /**
+     * Generates a trajectory, sharing the time budget between every solve of
+     * the path. A culled path that fails to solve falls back to the full path,
+     * unless it failed because the budget ran out or generation was cancelled.
+     */
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        long deadline = TimeBudget.deadline(budgetMillis);
+        HolonomicPath culled = cull(path, drive, margin);
+        if (culled == path) {
+            return delegate.generate(drive, path, budgetMillis);
+        }
+        for (int round = 0; round < MAX_ROUNDS; round++) {
+            HTrajectory trajectory;
+            try {
+                trajectory = delegate.generate(drive, culled, budgetMillis > 0 ? TimeBudget.remainingMillis(deadline) : 0);
+            } catch (GenerationTimeoutException | GenerationCancelledException e) {
+                throw e;
+            } catch (GenerationException e) {
+                logger.info("A culled path could not be solved (" + e.getMessage() + "); solving the full path.");
+                break;
+            }
+            List<Obstacle> hit = violations(trajectory, path, culled, drive);
+            if (hit.isEmpty()) {
+                return trajectory;
+            }
+            logger.info("The trajectory of a culled path hit " + hit.size() + " dropped obstacles; solving again with them.");
+            culled = restore(culled, hit);
+        }
+        return delegate.generate(drive, path, budgetMillis > 0 ? TimeBudget.remainingMillis(deadline) : 0);
+    }
+
+    /**
+     * Keeps each obstacle that applies to every segment only on the segments
+     * whose corridor it reaches. One that reaches every segment stays as it is;
+     * otherwise a copy that applies to one segment is given to the last
+     * waypoint of each segment it reaches. Obstacles that apply to one segment
+     * are kept if they reach it.
+     *
+     * @param path the path
+     * @param drive the drivetrain, whose bumpers set the width of the corridor
+     * @param margin the distance in meters the corridor reaches beyond the bumpers and safety distances
+     * @return the culled path, or {@code path} itself if no obstacle could be dropped
+     */
+    public static HolonomicPath cull(HolonomicPath path, SwerveDrivetrain drive, double margin) {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        if (waypoints.size() < 2) {
+            return path;
+        }
+        double reach = bumperRadius(drive) + drive.bumpers.safetyDistance + margin;
+        List<double[]> corridors = new ArrayList<>(waypoints.size());
+        corridors.add(null); // the first waypoint ends no segment
+        for (int i = 1; i < waypoints.size(); i++) {
+            corridors.add(centerLine(waypoints.get(i - 1), waypoints.get(i)));
+        }
+        List<List<Obstacle>> kept = new ArrayList<>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            kept.add(new ArrayList<>());
+        }
+        boolean dropped = false;
+        for (int i = 0; i < waypoints.size(); i++) {
+            for (Obstacle obstacle : waypoints.get(i).obstacles) {
+                double[] shape = shape(obstacle);
+                double limit = reach + obstacle.safetyDistance;
+                if (!obstacle.applyToAllSegments) {
+                    if (i == 0 || distance(corridors.get(i), false, shape, true) <= limit) {
+                        kept.get(i).add(obstacle);
+                    } else {
+                        dropped = true;
+                    }
+                    continue;
+                }
+                List<Integer> reached = new ArrayList<>();
+                for (int segment = 1; segment < waypoints.size(); segment++) {
+                    if (distance(corridors.get(segment), false, shape, true) <= limit) {
+                        reached.add(segment);
+                    }
+                }
+                if (reached.size() == waypoints.size() - 1) {
+                    kept.get(i).add(obstacle);
+                } else {
+                    dropped = true;
+                    Obstacle segmentObstacle = new Obstacle(obstacle.safetyDistance, false, obstacle.points);
+                    for (int segment : reached) {
+                        kept.get(segment).add(segmentObstacle);
+                    }
+                }
+            }
+        }
+        if (!dropped) {
+            return path;
+        }
+        List<HolonomicWaypoint> culled = new ArrayList<>(waypoints.size());
+        for (int i = 0; i < waypoints.size(); i++) {
+            culled.add(SolverInputs.withObstacles(waypoints.get(i), List.copyOf(kept.get(i))));
+        }
+        return new HolonomicPath(culled);
+    }
+
+    /**
+     * Finds the obstacles of a path that a trajectory generated for its culled
+     * form comes too close to. Obstacles the culled path kept on every segment
+     * are not checked, since the solver already kept clear of them.
+     *
+     * @param trajectory the trajectory generated for {@code culled}
+     * @param path the path before culling
+     * @param culled the culled path
+     * @param drive the drivetrain
+     * @return the obstacles of {@code path} that the trajectory hits, each applying to every segment
+     */
+    public static List<Obstacle> violations(HTrajectory trajectory, HolonomicPath path, HolonomicPath culled, SwerveDrivetrain drive) {
+        List<Obstacle> keptEverywhere = new ArrayList<>();
+        for (HolonomicWaypoint waypoint : culled.holonomicWaypoints) {
+            for (Obstacle obstacle : waypoint.obstacles) {
+                if (obstacle.applyToAllSegments) {
+                    keptEverywhere.add(obstacle);
+                }
+            }
+        }
+        double bumperRadius = bumperRadius(drive);
+        List<Obstacle> hit = new ArrayList<>();
+        for (HolonomicWaypoint waypoint : path.holonomicWaypoints) {
+            for (Obstacle obstacle : waypoint.obstacles) {
+                if (keptEverywhere.stream().anyMatch(kept -> kept == obstacle)) {
+                    continue;
+                }
+                double[] shape = shape(obstacle);
+                double clearance = drive.bumpers.safetyDistance + obstacle.safetyDistance - TOLERANCE;
+                for (HTrajectorySample sample : trajectory.samples) {
+                    double[] center = {sample.x, sample.y};
+                    if (distance(center, false, shape, true) > bumperRadius + clearance) {
+                        continue; // too far for any part of the bumpers to be close
+                    }
+                    if (distance(bumpers(drive, sample), true, shape, true) < clearance) {
+                        hit.add(obstacle.applyToAllSegments ? obstacle : new Obstacle(obstacle.safetyDistance, true, obstacle.points));
+                        break;
+                    }
+                }
+            }
+        }
+        return hit;
+    }
+
+    /**
+     * @return the culled path with the obstacles added to its first waypoint
+     */
+    static HolonomicPath restore(HolonomicPath culled, List<Obstacle> obstacles) {
+        List<HolonomicWaypoint> waypoints = new ArrayList<>(culled.holonomicWaypoints);
+        List<Obstacle> firstObstacles = new ArrayList<>(waypoints.get(0).obstacles);
+        firstObstacles.addAll(obstacles);
+        waypoints.set(0, SolverInputs.withObstacles(waypoints.get(0), firstObstacles));
+        return new HolonomicPath(waypoints);
+    }
+
+    /**
+     * @return the distance from the robot's center to the farthest corner of its bumpers
+     */
+    static double bumperRadius(SwerveDrivetrain drive) {
+        double radius = 0.0;
+        for (ObstaclePoint point : drive.bumpers.points) {
+            radius = Math.max(radius, Math.hypot(point.x, point.y));
+        }
+        return radius;
+    }
+
+    private static double[] bumpers(SwerveDrivetrain drive, HTrajectorySample sample) {
+        List<ObstaclePoint> points = drive.bumpers.points;
+        double cos = Math.cos(sample.heading);
+        double sin = Math.sin(sample.heading);
+        double[] shape = new double[2 * points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            ObstaclePoint point = points.get(i);
+            shape[2 * i] = sample.x + point.x * cos - point.y * sin;
+            shape[2 * i + 1] = sample.y + point.x * sin + point.y * cos;
+        }
+        return shape;
+    }
+
+    private static double[] centerLine(HolonomicWaypoint from, HolonomicWaypoint to) {
+        double[] line = new double[2 * (to.initialGuessPoints.size() + 2)];
+        line[0] = from.x;
+        line[1] = from.y;
+        for (int i = 0; i < to.initialGuessPoints.size(); i++) {
+            InitialGuessPoint point = to.initialGuessPoints.get(i);
+            line[2 * i + 2] = point.x;
+            line[2 * i + 3] = point.y;
+        }
+        line[line.length - 2] = to.x;
+        line[line.length - 1] = to.y;
+        return line;
+    }
+
+    private static double[] shape(Obstacle obstacle) {
+        double[] shape = new double[2 * obstacle.points.size()];
+        for (int i = 0; i < obstacle.points.size(); i++) {
+            shape[2 * i] = obstacle.points.get(i).x;
+            shape[2 * i + 1] = obstacle.points.get(i).y;
+        }
+        return shape;
+    }
+
+    /**
+     * Finds the distance between two shapes given as flat lists of coordinates.
+     * A shape with one point is that point, and a closed shape with three or
+     * more points is a filled polygon; any other shape is the line through its
+     * points.
+     */
+    private static double distance(double[] a, boolean aClosed, double[] b, boolean bClosed) {
+        if (a.length == 0 || b.length == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        if ((isPolygon(a, aClosed) && Geometry.contains(a, b[0], b[1])) || (isPolygon(b, bClosed) && Geometry.contains(b, a[0], a[1]))) {
+            return 0.0;
+        }
+        double distance = Double.POSITIVE_INFINITY;
+        int aEdges = edgeCount(a, aClosed);
+        int bEdges = edgeCount(b, bClosed);
+        for (int i = 0; i < aEdges; i++) {
+            int i2 = (2 * i + 2) % a.length;
+            for (int j = 0; j < bEdges; j++) {
+                int j2 = (2 * j + 2) % b.length;
+                distance = Math.min(distance, Geometry.segmentDistance(a[2 * i], a[2 * i + 1], a[i2], a[i2 + 1],
+                        b[2 * j], b[2 * j + 1], b[j2], b[j2 + 1]));
+            }
+        }
+        return distance;
+    }
+
+    private static boolean isPolygon(double[] shape, boolean closed) {
+        return closed && shape.length >= 6;
+    }
+
+    private static int edgeCount(double[] shape, boolean closed) {
+        int pointCount = shape.length / 2;
+        if (pointCount == 1) {
+            return 1; // a single point is an edge with no length
+        }
+        return closed && pointCount >= 3 ? pointCount : pointCount - 1;
+    }
+}
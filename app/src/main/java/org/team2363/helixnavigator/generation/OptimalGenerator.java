@@ -0,0 +1,33 @@
+package org.team2363.helixnavigator.generation;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.InvalidPathException;
+import org.team2363.helixtrajectory.OptimalTrajectoryGenerator;
+import org.team2363.helixtrajectory.PluginLoadException;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+import org.team2363.helixtrajectory.TrajectoryGenerationException;
+
+/**
+ * Generates time-optimal trajectories with the native HelixTrajectory solver.
+ */
+public class OptimalGenerator implements TrajectoryGenerator {
+
+    @Override
+    public String getName() {
+        return "optimal";
+    }
+
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        try {
+            return HTrajectory.fromTrajectory(OptimalTrajectoryGenerator.generate(drive, path));
+        } catch (PluginLoadException e) {
+            throw new GenerationException("Could not load the solver plugin: " + e.getMessage(), e);
+        } catch (InvalidPathException e) {
+            throw new GenerationException("Invalid path: " + e.getMessage(), e);
+        } catch (TrajectoryGenerationException e) {
+            throw new GenerationException(e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * Runs trajectory optimizations on a bounded pool of worker threads so that
+ * several paths can be solved at the same time. This class does not depend on
+ * the JavaFX application thread; callers are responsible for moving results
+ * back onto it if needed.
+ */
+public class ParallelTrajectoryGenerator implements GenerationExecutor {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    private final ExecutorService executor;
+    private final int threadCount;
+
+    /**
+     * Constructs a {@code ParallelTrajectoryGenerator} with one worker thread per
+     * available processor.
+     */
+    public ParallelTrajectoryGenerator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a {@code ParallelTrajectoryGenerator} with a fixed number of
+     * worker threads.
+     *
+     * @param threadCount the maximum number of concurrent solves
+     */
+    public ParallelTrajectoryGenerator(int threadCount) {
+        this.threadCount = Math.max(1, threadCount);
+        this.executor = Executors.newFixedThreadPool(this.threadCount, new WorkerThreadFactory());
+    }
+
+    /**
+     * Queues an optimization of the given path with the optimal generator.
+     *
+     * @param drive the drivetrain to optimize for
+     * @param path the path to optimize
+     * @return a future that completes with the generated trajectory and its solve time
+     */
+    public CompletableFuture<GenerationResult> submit(SwerveDrivetrain drive, HolonomicPath path) {
+        return submit(TrajectoryGenerators.OPTIMAL, drive, path);
+    }
+
+    @Override
+    public CompletableFuture<GenerationResult> submit(TrajectoryGenerator generator, SwerveDrivetrain drive, HolonomicPath path) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                long startTime = System.nanoTime();
+                HTrajectory trajectory = generator.generate(drive, path);
+                double solveTime = (System.nanoTime() - startTime) / 1e9;
+                return new GenerationResult(trajectory, solveTime);
+            } catch (GenerationException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Stops accepting new work. Solves that are already running will finish.
+     */
+    @Override
+    public void shutdown() {
+        logger.info("Shutting down trajectory generator pool.");
+        executor.shutdown();
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "trajectory-generator-" + count.incrementAndGet());
+            thread.setDaemon(true); // don't keep the app open after the window closes
+            return thread;
+        }
+    }
+}
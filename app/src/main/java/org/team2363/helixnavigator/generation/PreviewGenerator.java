@@ -0,0 +1,227 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+import org.team2363.helixtrajectory.SwerveModule;
+
+/**
+ * <p>
+ * Generates an approximate trajectory in a few milliseconds without the native
+ * solver, so the editor has something to show while the optimal trajectory is
+ * being generated.
+ * </p>
+ * <p>
+ * The robot follows a Catmull-Rom spline through the waypoints and initial
+ * guess points. Its speed along the spline is limited by the top wheel speed,
+ * by the acceleration the wheel torque can give the robot's mass (both while
+ * speeding up and slowing down, and sideways around curves), and by stopping at
+ * the start, the end, and any waypoint whose velocity is constrained to zero.
+ * Between stops this gives the usual trapezoidal profile. The heading turns
+ * linearly with distance between waypoints with constrained headings.
+ * Obstacles are ignored.
+ * </p>
+ */
+public class PreviewGenerator implements TrajectoryGenerator {
+
+    /**
+     * The number of straight pieces each spline segment is divided into
+     */
+    public static final int SUBDIVISIONS = 32;
+    /**
+     * The time between samples of the generated trajectory, in seconds
+     */
+    public static final double SAMPLE_PERIOD = 0.02;
+
+    @Override
+    public String getName() {
+        return "preview";
+    }
+
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        if (waypoints.size() < 2) {
+            throw new GenerationException("A path needs at least two waypoints.");
+        }
+        double maxVelocity = maxVelocity(drive);
+        double maxAcceleration = maxAcceleration(drive);
+        if (!(maxVelocity > 0.0 && maxVelocity < Double.POSITIVE_INFINITY && maxAcceleration > 0.0 && maxAcceleration < Double.POSITIVE_INFINITY)) {
+            throw new GenerationException("The robot configuration does not allow the robot to move.");
+        }
+
+        // the points the spline passes through, and which waypoint each one is
+        List<double[]> knots = new ArrayList<>();
+        List<HolonomicWaypoint> knotWaypoints = new ArrayList<>();
+        for (int i = 0; i < waypoints.size(); i++) {
+            HolonomicWaypoint waypoint = waypoints.get(i);
+            if (i > 0) {
+                for (InitialGuessPoint point : waypoint.initialGuessPoints) {
+                    knots.add(new double[] {point.x, point.y});
+                    knotWaypoints.add(null);
+                }
+            }
+            knots.add(new double[] {waypoint.x, waypoint.y});
+            knotWaypoints.add(waypoint);
+        }
+
+        // sample the spline finely, recording the distance along it
+        int pointCount = (knots.size() - 1) * SUBDIVISIONS + 1;
+        double[] x = new double[pointCount];
+        double[] y = new double[pointCount];
+        double[] s = new double[pointCount];
+        for (int k = 0; k < knots.size() - 1; k++) {
+            double[] p0 = knots.get(Math.max(k - 1, 0));
+            double[] p1 = knots.get(k);
+            double[] p2 = knots.get(k + 1);
+            double[] p3 = knots.get(Math.min(k + 2, knots.size() - 1));
+            for (int j = 0; j < SUBDIVISIONS; j++) {
+                double t = (double) j / SUBDIVISIONS;
+                int index = k * SUBDIVISIONS + j;
+                x[index] = catmullRom(p0[0], p1[0], p2[0], p3[0], t);
+                y[index] = catmullRom(p0[1], p1[1], p2[1], p3[1], t);
+            }
+        }
+        x[pointCount - 1] = knots.get(knots.size() - 1)[0];
+        y[pointCount - 1] = knots.get(knots.size() - 1)[1];
+        for (int i = 1; i < pointCount; i++) {
+            s[i] = s[i - 1] + Math.hypot(x[i] - x[i - 1], y[i] - y[i - 1]);
+        }
+
+        // speed limits at each point, then the acceleration limits forwards and backwards
+        double[] v = new double[pointCount];
+        for (int i = 1; i < pointCount - 1; i++) {
+            double curvature = curvature(x[i - 1], y[i - 1], x[i], y[i], x[i + 1], y[i + 1]);
+            v[i] = curvature > 0.0 ? Math.min(maxVelocity, Math.sqrt(maxAcceleration / curvature)) : maxVelocity;
+        }
+        for (int k = 1; k < knots.size() - 1; k++) {
+            if (knotWaypoints.get(k) != null && isStop(knotWaypoints.get(k))) {
+                v[k * SUBDIVISIONS] = 0.0;
+            }
+        }
+        for (int i = 1; i < pointCount; i++) {
+            v[i] = Math.min(v[i], Math.sqrt(v[i - 1] * v[i - 1] + 2.0 * maxAcceleration * (s[i] - s[i - 1])));
+        }
+        for (int i = pointCount - 2; i >= 0; i--) {
+            v[i] = Math.min(v[i], Math.sqrt(v[i + 1] * v[i + 1] + 2.0 * maxAcceleration * (s[i + 1] - s[i])));
+        }
+        double[] time = new double[pointCount];
+        for (int i = 1; i < pointCount; i++) {
+            double averageVelocity = (v[i - 1] + v[i]) / 2.0;
+            time[i] = time[i - 1] + (averageVelocity > 0.0 ? (s[i] - s[i - 1]) / averageVelocity : 0.0);
+        }
+
+        // headings are keyed by distance along the spline
+        List<double[]> headingKeys = new ArrayList<>();
+        for (int k = 0; k < knots.size(); k++) {
+            HolonomicWaypoint waypoint = knotWaypoints.get(k);
+            if (waypoint != null && waypoint.headingConstrained) {
+                double heading = waypoint.heading;
+                if (!headingKeys.isEmpty()) { // take the shortest way around
+                    double lastHeading = headingKeys.get(headingKeys.size() - 1)[1];
+                    heading = lastHeading + Math.IEEEremainder(heading - lastHeading, 2.0 * Math.PI);
+                }
+                headingKeys.add(new double[] {s[k * SUBDIVISIONS], heading});
+            }
+        }
+        if (headingKeys.isEmpty()) {
+            headingKeys.add(new double[] {0.0, waypoints.get(0).heading});
+        }
+
+        double duration = time[pointCount - 1];
+        int sampleCount = (int) Math.ceil(duration / SAMPLE_PERIOD) + 1;
+        List<HTrajectorySample> samples = new ArrayList<>(sampleCount);
+        int i = 0;
+        double previousHeading = 0.0;
+        for (int n = 0; n < sampleCount; n++) {
+            double ts = Math.min(n * SAMPLE_PERIOD, duration);
+            while (i < pointCount - 2 && time[i + 1] < ts) {
+                i++;
+            }
+            double dt = time[i + 1] - time[i];
+            double ratio = dt > 0.0 ? (ts - time[i]) / dt : 0.0;
+            double sampleX = x[i] + ratio * (x[i + 1] - x[i]);
+            double sampleY = y[i] + ratio * (y[i + 1] - y[i]);
+            double sampleS = s[i] + ratio * (s[i + 1] - s[i]);
+            double speed = v[i] + ratio * (v[i + 1] - v[i]);
+            double length = s[i + 1] - s[i];
+            double vx = length > 0.0 ? speed * (x[i + 1] - x[i]) / length : 0.0;
+            double vy = length > 0.0 ? speed * (y[i + 1] - y[i]) / length : 0.0;
+            double heading = headingAt(headingKeys, sampleS);
+            double omega = n > 0 && ts > samples.get(n - 1).ts ? (heading - previousHeading) / (ts - samples.get(n - 1).ts) : 0.0;
+            previousHeading = heading;
+            samples.add(new HTrajectorySample(ts, sampleX, sampleY, heading, vx, vy, omega));
+        }
+        return new HTrajectory(samples);
+    }
+
+    /**
+     * @param drive the drivetrain
+     * @return the top speed of the slowest wheel, in m/s
+     */
+    static double maxVelocity(SwerveDrivetrain drive) {
+        double maxVelocity = Double.POSITIVE_INFINITY;
+        for (SwerveModule module : drive.modules) {
+            maxVelocity = Math.min(maxVelocity, module.wheelMaxAngularVelocity * module.wheelRadius);
+        }
+        return maxVelocity;
+    }
+
+    /**
+     * @param drive the drivetrain
+     * @return the acceleration all wheels together can give the robot, in m/s^2
+     */
+    static double maxAcceleration(SwerveDrivetrain drive) {
+        double totalForce = 0.0;
+        for (SwerveModule module : drive.modules) {
+            totalForce += module.wheelMaxTorque / module.wheelRadius;
+        }
+        return totalForce / drive.mass;
+    }
+
+    private static double catmullRom(double p0, double p1, double p2, double p3, double t) {
+        return 0.5 * (2.0 * p1
+                + (-p0 + p2) * t
+                + (2.0 * p0 - 5.0 * p1 + 4.0 * p2 - p3) * t * t
+                + (-p0 + 3.0 * p1 - 3.0 * p2 + p3) * t * t * t);
+    }
+
+    private static double curvature(double ax, double ay, double bx, double by, double cx, double cy) {
+        double ab = Math.hypot(bx - ax, by - ay);
+        double bc = Math.hypot(cx - bx, cy - by);
+        double ac = Math.hypot(cx - ax, cy - ay);
+        double cross = (bx - ax) * (cy - by) - (by - ay) * (cx - bx);
+        double denominator = ab * bc * ac;
+        return denominator > 0.0 ? 2.0 * Math.abs(cross) / denominator : 0.0;
+    }
+
+    /**
+     * @param waypoint the waypoint
+     * @return {@code true} if the robot's velocity is fixed at zero at the waypoint
+     */
+    static boolean isStop(HolonomicWaypoint waypoint) {
+        return (waypoint.velocityXConstrained && waypoint.velocityYConstrained && waypoint.velocityX == 0.0 && waypoint.velocityY == 0.0)
+                || (waypoint.velocityMagnitudeConstrained && Math.hypot(waypoint.velocityX, waypoint.velocityY) == 0.0);
+    }
+
+    private static double headingAt(List<double[]> headingKeys, double s) {
+        if (s <= headingKeys.get(0)[0]) {
+            return headingKeys.get(0)[1];
+        }
+        for (int k = 1; k < headingKeys.size(); k++) {
+            double[] previous = headingKeys.get(k - 1);
+            double[] next = headingKeys.get(k);
+            if (s <= next[0]) {
+                double length = next[0] - previous[0];
+                return length > 0.0 ? previous[1] + (s - previous[0]) / length * (next[1] - previous[1]) : next[1];
+            }
+        }
+        return headingKeys.get(headingKeys.size() - 1)[1];
+    }
+}
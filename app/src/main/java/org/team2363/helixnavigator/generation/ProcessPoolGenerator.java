@@ -0,0 +1,345 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Runs another generator in separate worker JVMs (see {@link SolverWorker})
+ * instead of in the editor's process. A native crash or a runaway solve then
+ * only takes down a worker, which is replaced for the next request, and
+ * several solves really do run on separate cores.
+ * </p>
+ * <p>
+ * Workers are started when first needed, up to a fixed count, and are reused
+ * between requests. A solve can be given a time limit, and every running solve
+ * can be killed with {@link #cancelAll()}; in both cases the worker process is
+ * destroyed and {@link #generate(SwerveDrivetrain, HolonomicPath)} throws.
+ * Since the worker is killed, a time budget really does free the solver's
+ * resources when it runs out.
+ * </p>
+ */
+public class ProcessPoolGenerator implements TrajectoryGenerator {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    /**
+     * How long a new worker has to connect before it is considered broken
+     */
+    public static final int CONNECT_TIMEOUT_MILLIS = 30000;
+
+    private static final List<String> MODULE_OPTIONS = List.of("--add-modules", "--add-exports", "--add-opens", "--add-reads");
+
+    private final TrajectoryGenerator delegate;
+    private final int workerCount;
+    private final Semaphore availableWorkers;
+    private final LinkedBlockingQueue<Worker> idleWorkers = new LinkedBlockingQueue<>();
+    private final Set<Worker> busyWorkers = ConcurrentHashMap.newKeySet();
+    private volatile long solveTimeoutMillis = 0;
+    private volatile boolean shutdown = false;
+
+    /**
+     * Constructs a {@code ProcessPoolGenerator} with one worker per available
+     * processor.
+     *
+     * @param delegate the generator to run in the workers; it must be available by
+     *                 {@link TrajectoryGenerators#forName(String) name} in a new JVM
+     */
+    public ProcessPoolGenerator(TrajectoryGenerator delegate) {
+        this(delegate, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a {@code ProcessPoolGenerator}.
+     *
+     * @param delegate the generator to run in the workers; it must be available by
+     *                 {@link TrajectoryGenerators#forName(String) name} in a new JVM
+     * @param workerCount the maximum number of worker processes
+     */
+    public ProcessPoolGenerator(TrajectoryGenerator delegate, int workerCount) {
+        this.delegate = delegate;
+        this.workerCount = Math.max(1, workerCount);
+        this.availableWorkers = new Semaphore(this.workerCount, true);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "solver-worker-shutdown"));
+    }
+
+    /**
+     * @return the generator run in the workers
+     */
+    public TrajectoryGenerator getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the maximum number of worker processes
+     */
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    /**
+     * Sets how long a single solve may take before its worker is killed.
+     *
+     * @param solveTimeoutMillis the time limit in milliseconds, or {@code 0} for none
+     */
+    public void setSolveTimeoutMillis(long solveTimeoutMillis) {
+        this.solveTimeoutMillis = Math.max(0, solveTimeoutMillis);
+    }
+
+    public long getSolveTimeoutMillis() {
+        return solveTimeoutMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "isolated-" + delegate.getName();
+    }
+
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        return generate(drive, path, 0);
+    }
+
+    /**
+     * Generates a trajectory, killing the worker when the time budget runs out.
+     * The budget includes any time spent waiting for a free worker.
+     */
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        long deadline = TimeBudget.deadline(budgetMillis);
+        try {
+            if (budgetMillis <= 0) {
+                availableWorkers.acquire();
+            } else if (!availableWorkers.tryAcquire(budgetMillis, TimeUnit.MILLISECONDS)) {
+                throw new GenerationTimeoutException(budgetMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationException("Interrupted while waiting for a solver worker.", e);
+        }
+        try {
+            if (shutdown) {
+                throw new GenerationException("The solver worker pool has been shut down.");
+            }
+            Worker worker = idleWorkers.poll();
+            if (worker == null) {
+                worker = startWorker();
+            }
+            busyWorkers.add(worker);
+            long timeoutMillis = solveTimeoutMillis;
+            boolean budgetLimited = false;
+            if (budgetMillis > 0) {
+                long remainingMillis = TimeBudget.remainingMillis(deadline);
+                if (timeoutMillis == 0 || remainingMillis < timeoutMillis) {
+                    timeoutMillis = remainingMillis;
+                    budgetLimited = true;
+                }
+            }
+            try {
+                HTrajectory trajectory = worker.solve(drive, path, timeoutMillis);
+                release(worker);
+                return trajectory;
+            } catch (GenerationException e) {
+                release(worker); // the worker reported the failure, so it is still usable
+                throw e;
+            } catch (IOException e) {
+                busyWorkers.remove(worker);
+                worker.destroy();
+                if (worker.cancelled) {
+                    throw new GenerationCancelledException(e);
+                } else if (e instanceof SocketTimeoutException && budgetLimited) {
+                    throw new GenerationTimeoutException(budgetMillis);
+                } else if (e instanceof SocketTimeoutException) {
+                    throw new GenerationException("The solver took longer than " + solveTimeoutMillis + " ms and was stopped.", e);
+                } else {
+                    throw new GenerationException("The solver worker stopped unexpectedly: " + e.getMessage(), e);
+                }
+            }
+        } finally {
+            availableWorkers.release();
+        }
+    }
+
+    /**
+     * Kills every worker that is currently solving. Their requests fail, and new
+     * workers are started for the next requests.
+     */
+    public void cancelAll() {
+        for (Worker worker : busyWorkers) {
+            worker.cancelled = true;
+            worker.destroy();
+        }
+    }
+
+    /**
+     * Kills every worker and rejects further requests.
+     */
+    public void shutdown() {
+        shutdown = true;
+        cancelAll();
+        Worker worker;
+        while ((worker = idleWorkers.poll()) != null) {
+            worker.destroy();
+        }
+    }
+
+    private void release(Worker worker) {
+        busyWorkers.remove(worker);
+        if (shutdown || worker.cancelled) {
+            worker.destroy();
+        } else {
+            idleWorkers.add(worker);
+        }
+    }
+
+    private Worker startWorker() throws GenerationException {
+        long token = ThreadLocalRandom.current().nextLong();
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(500);
+            List<String> command = javaCommand(SolverWorker.class);
+            command.add(Integer.toString(server.getLocalPort()));
+            command.add(delegate.getName());
+            command.add(Long.toString(token));
+            Process process = new ProcessBuilder(command)
+                    .redirectOutput(ProcessBuilder.Redirect.INHERIT)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+            while (System.currentTimeMillis() < deadline && process.isAlive()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+                Worker worker = new Worker(process, socket);
+                if (worker.in.readLong() == token) {
+                    logger.info("Started solver worker process " + process.pid() + ".");
+                    return worker;
+                }
+                socket.close(); // something else connected to the port
+            }
+            process.destroyForcibly();
+            throw new GenerationException("A solver worker process could not be started.");
+        } catch (IOException e) {
+            throw new GenerationException("A solver worker process could not be started: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds the command that runs a main class in a new JVM with the same class
+     * path, module path and native library path as this one. JavaFX is on the
+     * module path when the app is run from Gradle, so the modules this JVM was
+     * told to add are added to the new one too.
+     *
+     * @param mainClass the class to run
+     * @return the command, which arguments can be added to
+     */
+    static List<String> javaCommand(Class<?> mainClass) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null) {
+            command.add("--module-path");
+            command.add(modulePath);
+        }
+        command.addAll(moduleOptions(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        String libraryPath = System.getProperty("java.library.path");
+        if (libraryPath != null) {
+            command.add("-Djava.library.path=" + libraryPath);
+        }
+        command.add("-Djava.awt.headless=true");
+        command.add(mainClass.getName());
+        return command;
+    }
+
+    /**
+     * Picks the options that add modules or open them to other modules out of
+     * the arguments a JVM was started with.
+     *
+     * @param inputArguments the JVM's arguments, see {@link java.lang.management.RuntimeMXBean#getInputArguments()}
+     * @return the options, each as a single {@code --option=value} argument
+     */
+    static List<String> moduleOptions(List<String> inputArguments) {
+        List<String> options = new ArrayList<>();
+        for (int i = 0; i < inputArguments.size(); i++) {
+            String argument = inputArguments.get(i);
+            for (String option : MODULE_OPTIONS) {
+                if (argument.startsWith(option + "=")) {
+                    options.add(argument);
+                } else if (argument.equals(option) && i + 1 < inputArguments.size()) {
+                    options.add(option + "=" + inputArguments.get(++i));
+                }
+            }
+        }
+        return options;
+    }
+
+    private static class Worker {
+
+        private final Process process;
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private volatile boolean cancelled = false;
+
+        private Worker(Process process, Socket socket) throws IOException {
+            this.process = process;
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        private HTrajectory solve(SwerveDrivetrain drive, HolonomicPath path, long timeoutMillis) throws IOException, GenerationException {
+            out.writeInt(GenerationInputCodec.FORMAT_VERSION);
+            GenerationInputCodec.writeDrive(out, drive);
+            GenerationInputCodec.writePath(out, path);
+            out.flush();
+            socket.setSoTimeout((int) Math.min(timeoutMillis, Integer.MAX_VALUE));
+            byte status = in.readByte();
+            if (status == SolverWorker.RESPONSE_SUCCEEDED) {
+                in.readDouble(); // the solve time inside the worker
+                return new HTrajectory(SolverWorker.readSamples(in));
+            } else if (status == SolverWorker.RESPONSE_FAILED) {
+                throw new GenerationException(in.readUTF());
+            } else {
+                throw new IOException("Corrupt response status " + status);
+            }
+        }
+
+        private void destroy() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // the process is being killed anyway
+            }
+            process.destroyForcibly();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * The time it takes the robot to get from a start waypoint to each cell of a
+ * grid over the field, coming to a stop at the center of the cell with any
+ * heading. The obstacles on the start waypoint are avoided on the way to every
+ * cell, and cells inside an obstacle (grown by the bumpers, like in
+ * {@link VisibilityGraph}) can't be reached.
+ * </p>
+ * <p>
+ * A map is built in two steps. {@link #estimate} times every cell with the
+ * {@link TrajectoryGenerators#PREVIEW preview} along the shortest route around
+ * the obstacles, which takes about a millisecond per cell. {@link #refine}
+ * then generates every cell with a slower generator. Both spread the cells over
+ * a fork-join pool. Maps are cached by robot configuration, start waypoint,
+ * obstacles, grid and control interval density, so a map that has been built once can be shown again
+ * right away.
+ * </p>
+ */
+public final class ReachabilityMap {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    /**
+     * The number of maps kept in the cache
+     */
+    public static final int CACHE_SIZE = 8;
+
+    private static final int CELLS_PER_TASK = 4;
+
+    private static final Map<String, ReachabilityMap> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ReachabilityMap> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private final String key;
+    private final SwerveDrivetrain drive;
+    private final HolonomicWaypoint start;
+    private final double controlIntervalDensity;
+    /**
+     * The width of the grid in meters
+     */
+    public final double width;
+    /**
+     * The height of the grid in meters
+     */
+    public final double height;
+    /**
+     * The number of cells across the grid
+     */
+    public final int columns;
+    /**
+     * The number of cells up the grid
+     */
+    public final int rows;
+    /**
+     * The time to each cell in seconds, row by row from the bottom, {@code NaN} if it can't be reached
+     */
+    private final double[] times;
+    private final String refinedBy;
+
+    private ReachabilityMap(String key, SwerveDrivetrain drive, HolonomicWaypoint start, double controlIntervalDensity, double width, double height,
+            int columns, int rows, double[] times, String refinedBy) {
+        this.key = key;
+        this.drive = drive;
+        this.start = start;
+        this.controlIntervalDensity = controlIntervalDensity;
+        this.width = width;
+        this.height = height;
+        this.columns = columns;
+        this.rows = rows;
+        this.times = times;
+        this.refinedBy = refinedBy;
+    }
+
+    /**
+     * Returns the cached map for a start waypoint and grid, if there is one. The
+     * cached map is the most refined one built so far.
+     *
+     * @param drive the drivetrain
+     * @param start the start waypoint, with the obstacles to avoid
+     * @param width the width of the grid in meters
+     * @param height the height of the grid in meters
+     * @param cellSize the largest width and height of a cell in meters
+     * @param controlIntervalDensity the control interval density the map is refined with, see {@link ControlIntervals}
+     * @return the map, or {@code null} if it hasn't been built
+     */
+    public static ReachabilityMap getCached(SwerveDrivetrain drive, HolonomicWaypoint start, double width, double height, double cellSize,
+            double controlIntervalDensity) {
+        String key = key(drive, start, width, height, cellSize, controlIntervalDensity);
+        synchronized (cache) {
+            return cache.get(key);
+        }
+    }
+
+    /**
+     * Times every cell of a grid with the preview generator.
+     *
+     * @param drive the drivetrain
+     * @param start the start waypoint, with the obstacles to avoid
+     * @param width the width of the grid in meters
+     * @param height the height of the grid in meters
+     * @param cellSize the largest width and height of a cell in meters
+     * @param controlIntervalDensity the control interval density to refine the map with later, see {@link ControlIntervals}
+     * @param pool the pool to time the cells on
+     * @return the map
+     */
+    public static ReachabilityMap estimate(SwerveDrivetrain drive, HolonomicWaypoint start, double width, double height,
+            double cellSize, double controlIntervalDensity, ForkJoinPool pool) {
+        long startTime = System.nanoTime();
+        int columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        int rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        double[] times = new double[columns * rows];
+        ReachabilityMap map = new ReachabilityMap(key(drive, start, width, height, cellSize, controlIntervalDensity), drive, start, controlIntervalDensity,
+                width, height, columns, rows, times, null);
+        VisibilityGraph graph = VisibilityGraph.forObstacles(start.obstacles,
+                ObstacleCullingGenerator.bumperRadius(drive) + drive.bumpers.safetyDistance + VisibilityGraph.CLEARANCE);
+        pool.invoke(new CellTask(0, times.length, cell -> {
+            double x = map.getCellX(cell % columns);
+            double y = map.getCellY(cell / columns);
+            if (graph.isBlocked(x, y)) {
+                times[cell] = Double.NaN;
+                return;
+            }
+            try {
+                HolonomicPath path = VisibilityGraph.addInitialGuesses(map.pathTo(x, y), drive);
+                times[cell] = TrajectoryGenerators.PREVIEW.generate(drive, path).duration;
+            } catch (GenerationException e) {
+                times[cell] = Double.NaN;
+            }
+        }));
+        logger.fine("Estimated a " + columns + "x" + rows + " reachability map in " + (System.nanoTime() - startTime) / 1000000 + " ms.");
+        map.cache();
+        return map;
+    }
+
+    /**
+     * Generates every reachable cell of a map again with a slower generator, at
+     * the control interval density the map was estimated for. A cell that fails
+     * to generate keeps its estimate.
+     *
+     * @param map the estimated map
+     * @param generator the generator
+     * @param pool the pool to generate the cells on
+     * @param cancelled checked before each cell, to stop early
+     * @return the refined map, or {@code null} if it was cancelled
+     */
+    public static ReachabilityMap refine(ReachabilityMap map, TrajectoryGenerator generator, ForkJoinPool pool, BooleanSupplier cancelled) {
+        long startTime = System.nanoTime();
+        double[] times = Arrays.copyOf(map.times, map.times.length);
+        pool.invoke(new CellTask(0, times.length, cell -> {
+            if (Double.isNaN(times[cell]) || cancelled.getAsBoolean()) {
+                return;
+            }
+            HolonomicPath path = VisibilityGraph.addInitialGuesses(map.pathTo(map.getCellX(cell % map.columns), map.getCellY(cell / map.columns)), map.drive);
+            try {
+                HTrajectory trajectory = generator.generate(map.drive, ControlIntervals.assign(path, map.drive, map.controlIntervalDensity));
+                times[cell] = trajectory.duration;
+            } catch (GenerationException e) {
+                // keep the estimate
+            }
+        }));
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+        logger.fine("Refined a " + map.columns + "x" + map.rows + " reachability map in " + (System.nanoTime() - startTime) / 1000000 + " ms.");
+        ReachabilityMap refined = new ReachabilityMap(map.key, map.drive, map.start, map.controlIntervalDensity, map.width, map.height, map.columns, map.rows, times, generator.getName());
+        refined.cache();
+        return refined;
+    }
+
+    private static String key(SwerveDrivetrain drive, HolonomicWaypoint start, double width, double height, double cellSize, double controlIntervalDensity) {
+        return TrajectoryCache.key(drive, new HolonomicPath(List.of(start))) + ":" + width + "x" + height + ":" + cellSize + ":" + controlIntervalDensity;
+    }
+
+    private void cache() {
+        synchronized (cache) {
+            ReachabilityMap cached = cache.get(key);
+            // an estimate finishing late doesn't replace a refined map
+            if (cached == null || cached.refinedBy == null || refinedBy != null) {
+                cache.put(key, this);
+            }
+        }
+    }
+
+    private HolonomicPath pathTo(double x, double y) {
+        HolonomicWaypoint target = new HolonomicWaypoint(x, y, 0.0, 0.0, 0.0, 0.0, true, true, false, true, true, false, false,
+                ControlIntervals.AUTOMATIC, List.of(), List.of());
+        return new HolonomicPath(List.of(start, target));
+    }
+
+    /**
+     * @return the name of the generator the map was refined with, or {@code null} if it is an estimate
+     */
+    public String getRefinedBy() {
+        return refinedBy;
+    }
+
+    /**
+     * @param column the column of a cell
+     * @return the x coordinate of the center of the cell's column
+     */
+    public double getCellX(int column) {
+        return (column + 0.5) * width / columns;
+    }
+
+    /**
+     * @param row the row of a cell, counting from the bottom
+     * @return the y coordinate of the center of the cell's row
+     */
+    public double getCellY(int row) {
+        return (row + 0.5) * height / rows;
+    }
+
+    /**
+     * @param column the column of a cell
+     * @param row the row of a cell, counting from the bottom
+     * @return the time to reach the cell in seconds, or {@code NaN} if it can't be reached
+     */
+    public double getTime(int column, int row) {
+        return times[row * columns + column];
+    }
+
+    /**
+     * @return the longest time to any cell that can be reached, or {@code NaN} if none can be
+     */
+    public double getMaxTime() {
+        double max = Double.NaN;
+        for (double time : times) {
+            if (!Double.isNaN(time) && !(time <= max)) {
+                max = time;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Splits a range of cells in half until it is small enough to time directly.
+     */
+    private static final class CellTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final transient IntConsumer action;
+
+        private CellTask(int from, int to, IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CELLS_PER_TASK) {
+                for (int cell = from; cell < to; cell++) {
+                    action.accept(cell);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new CellTask(from, middle, action), new CellTask(middle, to, action));
+            }
+        }
+    }
+}
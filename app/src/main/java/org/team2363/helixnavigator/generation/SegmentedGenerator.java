@@ -0,0 +1,188 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Splits a path at waypoints where the robot's whole state is fixed, generates
+ * the pieces at the same time with another generator, and joins the results.
+ * Solve time grows much faster than linearly with the number of waypoints, so
+ * several short solves in parallel finish far sooner than one long one.
+ * </p>
+ * <p>
+ * A waypoint splits the path only if it constrains position, heading, and
+ * velocity, and the velocity is zero (see {@link #isStop(HolonomicWaypoint)}).
+ * At such a waypoint nothing on one side affects the best trajectory on the
+ * other, so the joined trajectory is the same as solving the whole path at
+ * once. Note that hard waypoints fix position and heading but not velocity, so
+ * they do not split a path; a custom waypoint with every constraint enabled
+ * and zero velocity does.
+ * </p>
+ * <p>
+ * Obstacles that apply to every segment are given to every piece.
+ * </p>
+ */
+public class SegmentedGenerator implements TrajectoryGenerator {
+
+    private final TrajectoryGenerator delegate;
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a {@code SegmentedGenerator} that solves pieces on one thread per
+     * available processor.
+     *
+     * @param delegate the generator used for each piece
+     */
+    public SegmentedGenerator(TrajectoryGenerator delegate) {
+        this.delegate = delegate;
+        AtomicInteger count = new AtomicInteger(0);
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "segment-generator-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return the generator used for each piece
+     */
+    public TrajectoryGenerator getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return "segmented-" + delegate.getName();
+    }
+
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        return generate(drive, path, 0);
+    }
+
+    /**
+     * Generates a trajectory, giving every piece the same time budget since they
+     * are solved at the same time.
+     */
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        long deadline = TimeBudget.deadline(budgetMillis);
+        List<HolonomicPath> pieces = split(path);
+        if (pieces.size() == 1) {
+            return delegate.generate(drive, path, budgetMillis);
+        }
+        List<Future<HTrajectory>> futures = new ArrayList<>(pieces.size());
+        for (int i = 1; i < pieces.size(); i++) {
+            HolonomicPath piece = pieces.get(i);
+            futures.add(executor.submit(() -> delegate.generate(drive, piece, budgetMillis)));
+        }
+        List<HTrajectory> trajectories = new ArrayList<>(pieces.size());
+        try {
+            trajectories.add(delegate.generate(drive, pieces.get(0), budgetMillis)); // use this thread for the first piece
+            for (Future<HTrajectory> future : futures) {
+                if (budgetMillis <= 0) {
+                    trajectories.add(future.get());
+                } else {
+                    trajectories.add(future.get(TimeBudget.remainingMillis(deadline), TimeUnit.MILLISECONDS));
+                }
+            }
+        } catch (TimeoutException e) {
+            throw new GenerationTimeoutException(budgetMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationException("Interrupted while generating path segments.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GenerationException) {
+                throw (GenerationException) e.getCause();
+            }
+            throw new GenerationException("Could not generate a path segment: " + e.getCause(), e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+        }
+        return join(trajectories);
+    }
+
+    /**
+     * Splits a path at every waypoint that stops the robot with its whole state
+     * fixed. Each piece after the first starts at the waypoint that ended the
+     * previous piece.
+     *
+     * @param path the path to split
+     * @return the pieces, or a list containing only {@code path} if it can't be split
+     */
+    public static List<HolonomicPath> split(HolonomicPath path) {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        List<Obstacle> sharedObstacles = new ArrayList<>();
+        for (HolonomicWaypoint waypoint : waypoints) {
+            for (Obstacle obstacle : waypoint.obstacles) {
+                if (obstacle.applyToAllSegments) {
+                    sharedObstacles.add(obstacle);
+                }
+            }
+        }
+        List<HolonomicPath> pieces = new ArrayList<>();
+        int start = 0;
+        for (int i = 1; i < waypoints.size(); i++) {
+            if (i == waypoints.size() - 1 || isStop(waypoints.get(i))) {
+                List<HolonomicWaypoint> pieceWaypoints = new ArrayList<>(waypoints.subList(start, i + 1));
+                if (start > 0) {
+                    // the first waypoint of a piece has no segment before it to guess or constrain
+                    HolonomicWaypoint first = SolverInputs.withObstacles(pieceWaypoints.get(0), sharedObstacles);
+                    pieceWaypoints.set(0, SolverInputs.withInitialGuessPoints(first, List.of()));
+                }
+                pieces.add(new HolonomicPath(pieceWaypoints));
+                start = i;
+            }
+        }
+        return pieces.size() > 1 ? pieces : List.of(path);
+    }
+
+    /**
+     * Checks whether a waypoint fixes the robot's position, heading, and velocity,
+     * with the velocity at zero.
+     *
+     * @param waypoint the waypoint
+     * @return {@code true} if a path can be split at the waypoint
+     */
+    public static boolean isStop(HolonomicWaypoint waypoint) {
+        boolean stopped = (waypoint.velocityXConstrained && waypoint.velocityYConstrained && waypoint.velocityX == 0.0 && waypoint.velocityY == 0.0)
+                || (waypoint.velocityMagnitudeConstrained && waypoint.velocityX == 0.0 && waypoint.velocityY == 0.0);
+        return waypoint.xConstrained && waypoint.yConstrained && waypoint.headingConstrained
+                && stopped && waypoint.angularVelocityConstrained && waypoint.angularVelocity == 0.0;
+    }
+
+    /**
+     * Joins trajectories end to end, shifting timestamps so they stay continuous
+     * and dropping the repeated sample where two pieces meet.
+     *
+     * @param trajectories the trajectories in order
+     * @return the joined trajectory
+     */
+    public static HTrajectory join(List<HTrajectory> trajectories) {
+        List<HTrajectorySample> samples = new ArrayList<>();
+        double offset = 0.0;
+        for (HTrajectory trajectory : trajectories) {
+            for (int i = samples.isEmpty() ? 0 : 1; i < trajectory.samples.size(); i++) {
+                HTrajectorySample sample = trajectory.samples.get(i);
+                samples.add(new HTrajectorySample(sample.ts + offset, sample.x, sample.y, sample.heading, sample.vx, sample.vy, sample.omega));
+            }
+            offset += trajectory.duration;
+        }
+        return new HTrajectory(samples);
+    }
+}
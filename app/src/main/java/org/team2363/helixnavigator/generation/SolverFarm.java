@@ -0,0 +1,719 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Runs generations on a set of {@link SolverNode}s over TCP, so that large
+ * batches can use more than one machine. The farm opens one connection per
+ * thread a node offers and sends each connection one request at a time, in the
+ * same compact binary encoding used for worker processes (see
+ * {@link GenerationInputCodec}).
+ * </p>
+ * <p>
+ * Each node has its own queue. New requests go to the node with the shortest
+ * queue, and a connection with nothing left in its own node's queue steals from
+ * the back of the longest other queue, so fast nodes end up doing more of the
+ * work. If a connection is lost during a request, the request is retried at the
+ * front of another node's queue, up to {@link #getMaxAttempts()} times. A
+ * failure reported by the generator itself is not retried, since it would fail
+ * the same way again. A request that runs out of time fails right away, but its
+ * connection stays busy until the node has finished with it. Paths for a
+ * {@link SegmentedGenerator} are split here so that their pieces can be solved
+ * on different nodes, and so are the starts of
+ * a {@link MultiStartGenerator}. An {@link ObstacleCullingGenerator} culls and
+ * checks paths here too.
+ * </p>
+ * <p>
+ * For testing on a single machine, {@link #startLocal(int, int)} starts nodes as
+ * local processes.
+ * </p>
+ */
+public class SolverFarm implements GenerationExecutor {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    /**
+     * How long connecting to a node may take
+     */
+    public static final int CONNECT_TIMEOUT_MILLIS = 10000;
+
+    private static final int RECONNECT_ATTEMPTS = 3;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+
+    private final Object lock = new Object();
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Process> localProcesses;
+    private final Set<Connection> openConnections = ConcurrentHashMap.newKeySet();
+    private final int threadCount;
+    private int liveConnectionCount = 0;
+    private boolean shutdown = false;
+    private long stolenCount = 0;
+    private long retriedCount = 0;
+    private volatile int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private volatile long solveTimeoutMillis = 0;
+
+    private SolverFarm(List<InetSocketAddress> addresses, List<Process> localProcesses) throws IOException {
+        this.localProcesses = localProcesses;
+        List<Connection> firstConnections = new ArrayList<>();
+        int totalThreads = 0;
+        for (InetSocketAddress address : addresses) {
+            try {
+                Connection connection = Connection.open(address);
+                nodes.add(new Node(address, connection.threadCount));
+                firstConnections.add(connection);
+                totalThreads += connection.threadCount;
+                logger.info("Connected to solver node " + address + " with " + connection.threadCount + " threads.");
+            } catch (IOException e) {
+                logger.warning("Could not connect to solver node " + address + ": " + e.getMessage());
+            }
+        }
+        if (nodes.isEmpty()) {
+            localProcesses.forEach(Process::destroyForcibly);
+            throw new IOException("No solver nodes are reachable.");
+        }
+        threadCount = totalThreads;
+        synchronized (lock) {
+            liveConnectionCount = totalThreads;
+            nodes.forEach(node -> node.liveConnectionCount = node.threadCount);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "solver-farm-shutdown"));
+        for (int i = 0; i < nodes.size(); i++) {
+            Node node = nodes.get(i);
+            for (int j = 0; j < node.threadCount; j++) {
+                Connection connection = j == 0 ? firstConnections.get(i) : null;
+                Thread thread = new Thread(() -> runConnection(node, connection), "solver-farm-" + node.address + "-" + (j + 1));
+                thread.setDaemon(true);
+                thread.start();
+            }
+        }
+    }
+
+    /**
+     * Connects to running solver nodes. Nodes that can't be reached are skipped.
+     *
+     * @param addresses the addresses of the nodes
+     * @return the farm
+     * @throws IOException if none of the nodes can be reached
+     */
+    public static SolverFarm connect(List<InetSocketAddress> addresses) throws IOException {
+        return new SolverFarm(addresses, List.of());
+    }
+
+    /**
+     * Starts solver nodes as processes on this machine, listening only on the
+     * loopback interface, and connects to them. The processes are killed when
+     * the farm is shut down.
+     *
+     * @param nodeCount the number of nodes to start
+     * @param threadsPerNode the number of requests each node solves at once
+     * @return the farm
+     * @throws IOException if the nodes can't be started
+     */
+    public static SolverFarm startLocal(int nodeCount, int threadsPerNode) throws IOException {
+        List<Process> processes = new ArrayList<>();
+        List<InetSocketAddress> addresses = new ArrayList<>();
+        try {
+            for (int i = 0; i < nodeCount; i++) {
+                List<String> command = ProcessPoolGenerator.javaCommand(SolverNode.class);
+                command.add("--port");
+                command.add("0");
+                command.add("--threads");
+                command.add(Integer.toString(Math.max(1, threadsPerNode)));
+                command.add("--bind");
+                command.add(InetAddress.getLoopbackAddress().getHostAddress());
+                Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+                processes.add(process);
+                BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+                String line = output.readLine();
+                if (line == null || !line.startsWith(SolverNode.LISTENING_MESSAGE)) {
+                    throw new IOException("A local solver node could not be started.");
+                }
+                int port = Integer.parseInt(line.substring(SolverNode.LISTENING_MESSAGE.length()).trim());
+                addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                forwardOutput(output, "solver-node-output-" + (i + 1));
+            }
+            return new SolverFarm(addresses, processes);
+        } catch (IOException | NumberFormatException e) {
+            processes.forEach(Process::destroyForcibly);
+            throw e instanceof IOException ? (IOException) e : new IOException("A local solver node could not be started.", e);
+        }
+    }
+
+    private static void forwardOutput(BufferedReader output, String threadName) {
+        // the native solver prints its progress, which must be drained or the node blocks
+        Thread thread = new Thread(() -> {
+            try {
+                String line;
+                while ((line = output.readLine()) != null) {
+                    System.out.println(line);
+                }
+            } catch (IOException e) {
+                // the node exited
+            }
+        }, threadName);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Parses a node address of the form {@code host} or {@code host:port}.
+     *
+     * @param address the address
+     * @return the parsed address, with {@link SolverNode#DEFAULT_PORT} if no port is given
+     * @throws IllegalArgumentException if the port is not a valid number
+     */
+    public static InetSocketAddress parseAddress(String address) {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0) {
+            return new InetSocketAddress(address, SolverNode.DEFAULT_PORT);
+        }
+        return new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    }
+
+    /**
+     * Sets how many times a request is sent to a node before it fails, when
+     * connections are lost while it is being solved.
+     *
+     * @param maxAttempts the number of attempts, at least 1
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Sets how long a single solve may take before it fails. A node can't stop
+     * its solver partway, so the connection then waits for the node's result and
+     * discards it before it sends another request, and the node counts as that
+     * much busier until then.
+     *
+     * @param solveTimeoutMillis the time limit in milliseconds, or {@code 0} for none
+     */
+    public void setSolveTimeoutMillis(long solveTimeoutMillis) {
+        this.solveTimeoutMillis = Math.max(0, solveTimeoutMillis);
+    }
+
+    public long getSolveTimeoutMillis() {
+        return solveTimeoutMillis;
+    }
+
+    /**
+     * @return the total number of threads of the connected nodes
+     */
+    @Override
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @return the number of requests taken from another node's queue so far
+     */
+    public long getStolenCount() {
+        synchronized (lock) {
+            return stolenCount;
+        }
+    }
+
+    /**
+     * @return the number of requests retried after a lost connection so far
+     */
+    public long getRetriedCount() {
+        synchronized (lock) {
+            return retriedCount;
+        }
+    }
+
+    /**
+     * Queues generation of the given path on the node with the shortest queue.
+     * The generator is looked up by name on the node, so it must be available
+     * there. A {@link ProcessPoolGenerator} is replaced by the generator it runs,
+     * since nodes are separate processes already. The budget of a
+     * {@link TimeBudgetGenerator} limits each solve on a node the same way as
+     * {@link #setSolveTimeoutMillis(long)}, but does not count time spent in the
+     * queue.
+     */
+    @Override
+    public CompletableFuture<GenerationResult> submit(TrajectoryGenerator generator, SwerveDrivetrain drive, HolonomicPath path) {
+        return submit(generator, drive, path, 0);
+    }
+
+    private CompletableFuture<GenerationResult> submit(TrajectoryGenerator generator, SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) {
+        if (generator instanceof ProcessPoolGenerator) {
+            return submit(((ProcessPoolGenerator) generator).getDelegate(), drive, path, budgetMillis);
+        }
+        if (generator instanceof TimeBudgetGenerator) {
+            TimeBudgetGenerator budgeted = (TimeBudgetGenerator) generator;
+            return submit(budgeted.getDelegate(), drive, path, shorterTimeout(budgetMillis, budgeted.getBudgetMillis()));
+        }
+        if (generator instanceof ObstacleCullingGenerator) {
+            ObstacleCullingGenerator culling = (ObstacleCullingGenerator) generator;
+            HolonomicPath culled = ObstacleCullingGenerator.cull(path, drive, culling.getMargin());
+            if (culled == path) {
+                return submit(culling.getDelegate(), drive, path, budgetMillis);
+            }
+            return submitCulled(culling.getDelegate(), drive, path, culled, budgetMillis, 0);
+        }
+        if (generator instanceof MultiStartGenerator) {
+            MultiStartGenerator multiStart = (MultiStartGenerator) generator;
+            List<HolonomicPath> starts = MultiStartGenerator.starts(path, multiStart.getStartCount());
+            List<CompletableFuture<MultiStartGenerator.Outcome>> outcomes = new ArrayList<>(starts.size());
+            for (int i = 0; i < starts.size(); i++) {
+                int start = i;
+                outcomes.add(submit(multiStart.getDelegate(), drive, starts.get(i), budgetMillis).handle((result, error) -> result != null
+                        ? new MultiStartGenerator.Outcome(start, result.trajectory, null, result.solveTime)
+                        : new MultiStartGenerator.Outcome(start, null, String.valueOf(unwrap(error).getMessage()), 0.0,
+                                unwrap(error) instanceof GenerationTimeoutException)));
+            }
+            return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+                List<MultiStartGenerator.Outcome> results = new ArrayList<>(outcomes.size());
+                outcomes.forEach(outcome -> results.add(outcome.join()));
+                MultiStartGenerator.Report report = new MultiStartGenerator.Report(results);
+                if (report.best == null) {
+                    if (results.stream().anyMatch(outcome -> outcome.timedOut)) {
+                        throw new CompletionException(new GenerationTimeoutException(budgetMillis));
+                    }
+                    throw new CompletionException(new GenerationException(
+                            "Every start failed; the first failed with: " + results.get(0).failure));
+                }
+                if (results.size() > 1) {
+                    logger.info("Multi-start generation: " + report);
+                }
+                return new GenerationResult(report.best.trajectory, report.getLongestSolveTime());
+            });
+        }
+        if (generator instanceof SegmentedGenerator) {
+            TrajectoryGenerator delegate = ((SegmentedGenerator) generator).getDelegate();
+            List<HolonomicPath> pieces = SegmentedGenerator.split(path);
+            if (pieces.size() == 1) {
+                return submit(delegate, drive, path, budgetMillis);
+            }
+            List<CompletableFuture<GenerationResult>> futures = new ArrayList<>(pieces.size());
+            for (HolonomicPath piece : pieces) {
+                futures.add(submit(delegate, drive, piece, budgetMillis));
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+                List<HTrajectory> trajectories = new ArrayList<>(futures.size());
+                double solveTime = 0.0;
+                for (CompletableFuture<GenerationResult> future : futures) {
+                    GenerationResult result = future.join();
+                    trajectories.add(result.trajectory);
+                    solveTime = Math.max(solveTime, result.solveTime); // the pieces are solved in parallel
+                }
+                return new GenerationResult(SegmentedGenerator.join(trajectories), solveTime);
+            });
+        }
+        Job job = new Job(generator.getName(), drive, path, budgetMillis);
+        enqueue(job, null);
+        return job.future;
+    }
+
+    /**
+     * Solves a culled path like {@link ObstacleCullingGenerator}, solving it
+     * again with any dropped obstacles the trajectory hits.
+     */
+    private CompletableFuture<GenerationResult> submitCulled(TrajectoryGenerator delegate, SwerveDrivetrain drive,
+            HolonomicPath path, HolonomicPath culled, long budgetMillis, int round) {
+        if (round == ObstacleCullingGenerator.MAX_ROUNDS) {
+            return submit(delegate, drive, path, budgetMillis);
+        }
+        return submit(delegate, drive, culled, budgetMillis).handle((result, error) -> {
+            if (error != null) {
+                Throwable cause = unwrap(error);
+                if (!(cause instanceof GenerationException) || cause instanceof GenerationTimeoutException || cause instanceof GenerationCancelledException) {
+                    return CompletableFuture.<GenerationResult>failedFuture(cause);
+                }
+                logger.info("A culled path could not be solved (" + cause.getMessage() + "); solving the full path.");
+                return submit(delegate, drive, path, budgetMillis);
+            }
+            List<Obstacle> hit = ObstacleCullingGenerator.violations(result.trajectory, path, culled, drive);
+            if (hit.isEmpty()) {
+                return CompletableFuture.completedFuture(result);
+            }
+            logger.info("The trajectory of a culled path hit " + hit.size() + " dropped obstacles; solving again with them.");
+            return submitCulled(delegate, drive, path, ObstacleCullingGenerator.restore(culled, hit), budgetMillis, round + 1)
+                    .thenApply(next -> new GenerationResult(next.trajectory, result.solveTime + next.solveTime));
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * Fails every queued request, closes every connection, and kills the nodes
+     * started by {@link #startLocal(int, int)}.
+     */
+    @Override
+    public void shutdown() {
+        synchronized (lock) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            logger.info("Shutting down solver farm; " + stolenCount + " requests were stolen and " + retriedCount + " retried.");
+            failQueuedJobs("The solver farm has been shut down.");
+            lock.notifyAll();
+        }
+        openConnections.forEach(Connection::close);
+        localProcesses.forEach(Process::destroyForcibly);
+    }
+
+    private void enqueue(Job job, Node failedNode) {
+        synchronized (lock) {
+            if (shutdown || liveConnectionCount == 0) {
+                job.future.completeExceptionally(new GenerationException(shutdown
+                        ? "The solver farm has been shut down."
+                        : "No solver nodes are reachable."));
+                return;
+            }
+            // prefer a node other than the one that just failed, then the least work
+            Node target = null;
+            for (Node node : nodes) {
+                if (node.liveConnectionCount == 0) {
+                    continue;
+                }
+                boolean failed = node == failedNode;
+                boolean targetFailed = target == failedNode;
+                if (target == null || (targetFailed && !failed) || (failed == targetFailed && node.load() < target.load())) {
+                    target = node;
+                }
+            }
+            if (failedNode == null) {
+                target.jobs.addLast(job);
+            } else {
+                target.jobs.addFirst(job); // a retried request has waited long enough already
+            }
+            lock.notifyAll();
+        }
+    }
+
+    private Job take(Node node) {
+        synchronized (lock) {
+            while (!shutdown) {
+                Job job = node.jobs.pollFirst();
+                if (job == null) {
+                    Node victim = null;
+                    for (Node other : nodes) {
+                        if (other != node && !other.jobs.isEmpty() && (victim == null || other.jobs.size() > victim.jobs.size())) {
+                            victim = other;
+                        }
+                    }
+                    if (victim != null) {
+                        job = victim.jobs.pollLast();
+                        stolenCount++;
+                    }
+                }
+                if (job != null) {
+                    if (!job.future.isDone()) { // skip requests cancelled while queued
+                        return job;
+                    }
+                } else {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    private void runConnection(Node node, Connection firstConnection) {
+        Connection connection = firstConnection;
+        try {
+            while (true) {
+                if (connection == null) {
+                    connection = reconnect(node);
+                    if (connection == null) {
+                        return;
+                    }
+                }
+                openConnections.add(connection);
+                Job job = take(node);
+                if (job == null) {
+                    return;
+                }
+                long timeoutMillis = shorterTimeout(job.budgetMillis, solveTimeoutMillis);
+                try {
+                    job.future.complete(connection.solve(job, timeoutMillis));
+                } catch (GenerationException e) {
+                    job.future.completeExceptionally(e);
+                } catch (IOException e) {
+                    if (e instanceof SocketTimeoutException && connection.awaitingResponse) {
+                        job.future.completeExceptionally(timeoutMillis == job.budgetMillis
+                                ? new GenerationTimeoutException(job.budgetMillis)
+                                : new GenerationException("The solver took longer than " + timeoutMillis + " ms.", e));
+                        if (discardResponse(node, connection)) {
+                            continue;
+                        }
+                    } else {
+                        retry(job, node, e);
+                    }
+                    connection.close();
+                    openConnections.remove(connection);
+                    connection = null;
+                }
+            }
+        } finally {
+            if (connection != null) {
+                connection.close();
+                openConnections.remove(connection);
+            }
+            connectionLost(node);
+        }
+    }
+
+    /**
+     * Waits for the response to a request that ran out of time. The node keeps
+     * solving it, so another request sent before then would only wait behind it
+     * on the node.
+     *
+     * @return {@code true} if the connection can be used again
+     */
+    private boolean discardResponse(Node node, Connection connection) {
+        synchronized (lock) {
+            node.abandonedCount++;
+        }
+        try {
+            connection.skipResponse();
+            return true;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            synchronized (lock) {
+                node.abandonedCount--;
+            }
+        }
+    }
+
+    private Connection reconnect(Node node) {
+        for (int attempt = 0; attempt < RECONNECT_ATTEMPTS; attempt++) {
+            synchronized (lock) {
+                if (shutdown) {
+                    return null;
+                }
+            }
+            try {
+                return Connection.open(node.address);
+            } catch (IOException e) {
+                logger.fine("Could not connect to solver node " + node.address + ": " + e.getMessage());
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        logger.warning("Gave up on a connection to solver node " + node.address + ".");
+        return null;
+    }
+
+    private void retry(Job job, Node node, IOException cause) {
+        job.attemptCount++;
+        if (job.attemptCount >= maxAttempts) {
+            job.future.completeExceptionally(new GenerationException(
+                    "Lost the connection to a solver node " + job.attemptCount + " times: " + cause, cause));
+        } else {
+            logger.warning("Lost the connection to solver node " + node.address + ", retrying: " + cause);
+            synchronized (lock) {
+                retriedCount++;
+            }
+            enqueue(job, node);
+        }
+    }
+
+    private void connectionLost(Node node) {
+        synchronized (lock) {
+            node.liveConnectionCount--;
+            liveConnectionCount--;
+            if (liveConnectionCount == 0 && !shutdown) {
+                logger.severe("Lost every solver node.");
+                failQueuedJobs("No solver nodes are reachable.");
+            }
+        }
+    }
+
+    private void failQueuedJobs(String message) {
+        for (Node node : nodes) {
+            Job job;
+            while ((job = node.jobs.pollFirst()) != null) {
+                job.future.completeExceptionally(new GenerationException(message));
+            }
+        }
+    }
+
+    /**
+     * @return the shorter of two timeouts, where {@code 0} means none
+     */
+    private static long shorterTimeout(long a, long b) {
+        if (a <= 0) {
+            return b;
+        } else if (b <= 0) {
+            return a;
+        }
+        return Math.min(a, b);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static class Node {
+
+        private final InetSocketAddress address;
+        private final int threadCount;
+        private final Deque<Job> jobs = new ArrayDeque<>();
+        private int liveConnectionCount = 0;
+        /**
+         * The number of requests that ran out of time that the node is still solving
+         */
+        private int abandonedCount = 0;
+
+        private Node(InetSocketAddress address, int threadCount) {
+            this.address = address;
+            this.threadCount = threadCount;
+        }
+
+        /**
+         * @return the queued and abandoned requests per connection
+         */
+        private double load() {
+            return (double) (jobs.size() + abandonedCount) / liveConnectionCount;
+        }
+    }
+
+    private static class Job {
+
+        private final String generatorName;
+        private final SwerveDrivetrain drive;
+        private final HolonomicPath path;
+        private final long budgetMillis;
+        private final CompletableFuture<GenerationResult> future = new CompletableFuture<>();
+        private int attemptCount = 0;
+
+        private Job(String generatorName, SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) {
+            this.generatorName = generatorName;
+            this.drive = drive;
+            this.path = path;
+            this.budgetMillis = budgetMillis;
+        }
+    }
+
+    private static class Connection {
+
+        private final Socket socket;
+        private final DataInputStream in;
+        private final DataOutputStream out;
+        private final int threadCount;
+        /**
+         * Whether a request has been sent and its response hasn't started yet
+         */
+        private boolean awaitingResponse = false;
+
+        private Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(CONNECT_TIMEOUT_MILLIS);
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (in.readInt() != SolverNode.MAGIC) {
+                throw new IOException("Not a solver node");
+            }
+            int version = in.readInt();
+            if (version != GenerationInputCodec.FORMAT_VERSION) {
+                throw new IOException("Solver node uses format version " + version + " instead of " + GenerationInputCodec.FORMAT_VERSION);
+            }
+            this.threadCount = in.readInt();
+            if (threadCount < 1) {
+                throw new IOException("Solver node offers " + threadCount + " threads");
+            }
+        }
+
+        private static Connection open(InetSocketAddress address) throws IOException {
+            Socket socket = new Socket();
+            try {
+                socket.connect(address, CONNECT_TIMEOUT_MILLIS);
+                return new Connection(socket);
+            } catch (IOException e) {
+                socket.close();
+                throw e;
+            }
+        }
+
+        private GenerationResult solve(Job job, long timeoutMillis) throws IOException, GenerationException {
+            out.writeInt(GenerationInputCodec.FORMAT_VERSION);
+            out.writeUTF(job.generatorName);
+            GenerationInputCodec.writeDrive(out, job.drive);
+            GenerationInputCodec.writePath(out, job.path);
+            out.flush();
+            socket.setSoTimeout((int) Math.min(timeoutMillis, Integer.MAX_VALUE));
+            awaitingResponse = true;
+            byte status = in.readByte();
+            awaitingResponse = false;
+            if (status == SolverWorker.RESPONSE_SUCCEEDED) {
+                double solveTime = in.readDouble();
+                return new GenerationResult(new HTrajectory(SolverWorker.readSamples(in)), solveTime);
+            } else if (status == SolverWorker.RESPONSE_FAILED) {
+                throw new GenerationException(in.readUTF());
+            } else {
+                throw new IOException("Corrupt response status " + status);
+            }
+        }
+
+        /**
+         * Reads and discards the response to the request that was sent last, with
+         * no time limit.
+         */
+        private void skipResponse() throws IOException {
+            socket.setSoTimeout(0);
+            byte status = in.readByte();
+            awaitingResponse = false;
+            if (status == SolverWorker.RESPONSE_SUCCEEDED) {
+                in.readDouble();
+                SolverWorker.readSamples(in);
+            } else if (status == SolverWorker.RESPONSE_FAILED) {
+                in.readUTF();
+            } else {
+                throw new IOException("Corrupt response status " + status);
+            }
+        }
+
+        private void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // nothing more can go wrong with this connection
+            }
+        }
+    }
+}
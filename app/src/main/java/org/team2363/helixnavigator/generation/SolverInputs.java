@@ -0,0 +1,115 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.Obstacle;
+
+/**
+ * Helpers for deriving new solver inputs from existing ones. The solver's
+ * input classes are immutable, so every "modification" is a copy.
+ */
+public final class SolverInputs {
+
+    private SolverInputs() {
+    }
+
+    /**
+     * Copies a waypoint, replacing its initial guess points.
+     *
+     * @param waypoint the waypoint to copy
+     * @param initialGuessPoints the new initial guess points
+     * @return the copy
+     */
+    public static HolonomicWaypoint withInitialGuessPoints(HolonomicWaypoint waypoint, List<InitialGuessPoint> initialGuessPoints) {
+        return copy(waypoint, initialGuessPoints, waypoint.obstacles);
+    }
+
+    /**
+     * Copies a waypoint, replacing its obstacles.
+     *
+     * @param waypoint the waypoint to copy
+     * @param obstacles the new obstacles
+     * @return the copy
+     */
+    public static HolonomicWaypoint withObstacles(HolonomicWaypoint waypoint, List<Obstacle> obstacles) {
+        return copy(waypoint, waypoint.initialGuessPoints, obstacles);
+    }
+
+    /**
+     * Copies a waypoint, replacing its control interval count.
+     *
+     * @param waypoint the waypoint to copy
+     * @param controlIntervalCount the new control interval count
+     * @return the copy
+     */
+    public static HolonomicWaypoint withControlIntervalCount(HolonomicWaypoint waypoint, int controlIntervalCount) {
+        return copy(waypoint, controlIntervalCount, waypoint.initialGuessPoints, waypoint.obstacles);
+    }
+
+    /**
+     * Copies a waypoint, fixing its velocity and angular velocity.
+     *
+     * @param waypoint the waypoint to copy
+     * @param velocityX the velocity along the x axis
+     * @param velocityY the velocity along the y axis
+     * @param angularVelocity the angular velocity
+     * @return the copy
+     */
+    public static HolonomicWaypoint withVelocity(HolonomicWaypoint waypoint, double velocityX, double velocityY, double angularVelocity) {
+        return new HolonomicWaypoint(waypoint.x, waypoint.y, waypoint.heading,
+                velocityX, velocityY, angularVelocity,
+                waypoint.xConstrained, waypoint.yConstrained, waypoint.headingConstrained,
+                true, true, false, true,
+                waypoint.controlIntervalCount, waypoint.initialGuessPoints, waypoint.obstacles);
+    }
+
+    /**
+     * Copies a waypoint, fixing the robot's whole state at it.
+     *
+     * @param waypoint the waypoint to copy
+     * @param state the position, heading, velocity, and angular velocity to fix
+     * @return the copy
+     */
+    public static HolonomicWaypoint withState(HolonomicWaypoint waypoint, HTrajectorySample state) {
+        return new HolonomicWaypoint(state.x, state.y, state.heading,
+                state.vx, state.vy, state.omega,
+                true, true, true, true, true, false, true,
+                waypoint.controlIntervalCount, waypoint.initialGuessPoints, waypoint.obstacles);
+    }
+
+    /**
+     * Copies a path, making it start in the state another trajectory ends in.
+     * This is how a linked path is handed off to by the path before it.
+     *
+     * @param path the path to copy
+     * @param handOff the trajectory of the path before, or {@code null}
+     * @return the copy, or {@code path} itself if there is no hand-off
+     */
+    public static HolonomicPath withStartState(HolonomicPath path, HTrajectory handOff) {
+        if (handOff == null) {
+            return path;
+        }
+        List<HolonomicWaypoint> waypoints = new ArrayList<>(path.holonomicWaypoints);
+        waypoints.set(0, withState(waypoints.get(0), handOff.samples.get(handOff.samples.size() - 1)));
+        return new HolonomicPath(waypoints);
+    }
+
+    private static HolonomicWaypoint copy(HolonomicWaypoint waypoint, List<InitialGuessPoint> initialGuessPoints, List<Obstacle> obstacles) {
+        return copy(waypoint, waypoint.controlIntervalCount, initialGuessPoints, obstacles);
+    }
+
+    private static HolonomicWaypoint copy(HolonomicWaypoint waypoint, int controlIntervalCount, List<InitialGuessPoint> initialGuessPoints, List<Obstacle> obstacles) {
+        return new HolonomicWaypoint(waypoint.x, waypoint.y, waypoint.heading,
+                waypoint.velocityX, waypoint.velocityY, waypoint.angularVelocity,
+                waypoint.xConstrained, waypoint.yConstrained, waypoint.headingConstrained,
+                waypoint.velocityXConstrained, waypoint.velocityYConstrained,
+                waypoint.velocityMagnitudeConstrained, waypoint.angularVelocityConstrained,
+                controlIntervalCount, initialGuessPoints, obstacles);
+    }
+}
@@ -0,0 +1,207 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * A solver node of a {@link SolverFarm}. It listens for coordinators on a TCP
+ * port and solves their requests with its own generators. Run it with:
+ * </p>
+ * <pre>
+ * HelixNavigator --solver-node [--port PORT] [--threads N] [--bind ADDRESS]
+ * </pre>
+ * <p>
+ * When a coordinator connects, the node sends {@link #MAGIC},
+ * {@link GenerationInputCodec#FORMAT_VERSION}, and the number of requests it
+ * solves at once, so the coordinator knows how many connections to open. Each
+ * connection then carries one request at a time: the format version, the
+ * generator name, a drivetrain, and a path, answered as in
+ * {@link SolverWorker}. Requests are not authenticated, so nodes should only be
+ * reachable from a trusted network. A node only listens on the loopback
+ * address unless {@code --bind} gives another, such as {@code 0.0.0.0} for
+ * every interface.
+ * </p>
+ */
+public final class SolverNode {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    public static final String COMMAND = "--solver-node";
+    public static final int DEFAULT_PORT = 2363;
+    /**
+     * The first value a node sends, to catch connections to something else
+     */
+    public static final int MAGIC = 0x48584e44;
+    /**
+     * The line a node prints to standard output once it accepts connections,
+     * followed by the port
+     */
+    static final String LISTENING_MESSAGE = "Solver node listening on port ";
+
+    private static final String USAGE = "Usage: HelixNavigator " + COMMAND + " [--port PORT] [--threads N] [--bind ADDRESS]";
+
+    /**
+     * How often a request waiting for a free thread checks whether its
+     * coordinator is still connected
+     */
+    private static final long PEER_CHECK_MILLIS = 200;
+
+    private final ServerSocket server;
+    private final int threadCount;
+    private final Semaphore solveSlots;
+    private final ExecutorService connections;
+
+    private SolverNode(ServerSocket server, int threadCount) {
+        this.server = server;
+        this.threadCount = threadCount;
+        this.solveSlots = new Semaphore(threadCount, true);
+        AtomicInteger count = new AtomicInteger(0);
+        this.connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "solver-node-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        InetAddress bindAddress = InetAddress.getLoopbackAddress();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port":
+                        port = Integer.parseInt(args[++i]);
+                        break;
+                    case "--threads":
+                        threadCount = Integer.parseInt(args[++i]);
+                        break;
+                    case "--bind":
+                        bindAddress = InetAddress.getByName(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (threadCount < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        try (ServerSocket server = new ServerSocket(port, 50, bindAddress)) {
+            new SolverNode(server, threadCount).serve();
+        }
+    }
+
+    private void serve() throws IOException {
+        System.out.println(LISTENING_MESSAGE + server.getLocalPort());
+        System.out.flush();
+        logger.info("Solver node started with " + threadCount + " threads.");
+        while (true) {
+            Socket socket = server.accept();
+            connections.execute(() -> handle(socket));
+        }
+    }
+
+    private void handle(Socket socket) {
+        String coordinator = String.valueOf(socket.getRemoteSocketAddress());
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeInt(MAGIC);
+            out.writeInt(GenerationInputCodec.FORMAT_VERSION);
+            out.writeInt(threadCount);
+            out.flush();
+            while (true) {
+                String generatorName;
+                SwerveDrivetrain drive;
+                HolonomicPath path;
+                try {
+                    int version = in.readInt();
+                    if (version != GenerationInputCodec.FORMAT_VERSION) {
+                        throw new IOException("Unsupported request version " + version);
+                    }
+                    generatorName = in.readUTF();
+                    drive = GenerationInputCodec.readDrive(in);
+                    path = GenerationInputCodec.readPath(in);
+                } catch (EOFException e) {
+                    return; // the coordinator closed the connection
+                }
+                if (!acquireSlot(socket, in)) {
+                    logger.fine("Coordinator " + coordinator + " left before its request was solved.");
+                    return;
+                }
+                try {
+                    SolverWorker.respond(out, TrajectoryGenerators.forName(generatorName), generatorName, drive, path);
+                } finally {
+                    solveSlots.release();
+                }
+            }
+        } catch (IOException e) {
+            logger.warning("Lost connection to coordinator " + coordinator + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Waits for a free thread to solve a request on. A solve can't be stopped
+     * once it has started, so a request whose coordinator has closed the
+     * connection, for example because it ran out of time, is dropped while it
+     * waits instead of taking a thread from the requests behind it.
+     *
+     * @return {@code true} if a thread was taken, {@code false} if the coordinator is gone
+     */
+    private boolean acquireSlot(Socket socket, DataInputStream in) throws IOException {
+        try {
+            while (!solveSlots.tryAcquire(PEER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (isClosedByPeer(socket, in)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean isClosedByPeer(Socket socket, DataInputStream in) throws IOException {
+        // the coordinator sends nothing while it waits for a response, so the connection is quiet unless it closed
+        socket.setSoTimeout(1);
+        try {
+            in.mark(1);
+            if (in.read() < 0) {
+                return true;
+            }
+            in.reset();
+            return false;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } finally {
+            socket.setSoTimeout(0);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Keeps the problem the solver sees for one path the same shape between
+ * solves, while only its numbers change. Made for tuning, where the same path
+ * is generated over and over with small edits to waypoint positions or robot
+ * limits.
+ * </p>
+ * <p>
+ * The structure of a path is its number of waypoints, which of their values
+ * are constrained, and the number and shape of its obstacles. As long as it
+ * stays the same, the session:
+ * </p>
+ * <ul>
+ * <li>keeps the control interval counts chosen by
+ * {@link ControlIntervals#assign(HolonomicPath, SwerveDrivetrain, double)} for
+ * the first solve while the counts it would choose now stay within
+ * {@value #COUNT_TOLERANCE} of them, so the solver's problem keeps the same
+ * variables and constraints instead of growing or shrinking by a few intervals
+ * after every edit, and</li>
+ * <li>seeds each solve with the last solution (see {@link WarmStart}), which
+ * then matches the problem sample for sample, so the solver starts close to
+ * the answer.</li>
+ * </ul>
+ * <p>
+ * When the structure changes, or an edit moves a segment far enough that its
+ * count would change by more than that, the session starts over, so a segment
+ * that was dragged much longer isn't left with too few intervals. The native solver
+ * builds its problem inside each call, so the session can't keep that alive
+ * itself; it keeps everything this side of the call stable instead.
+ * Control interval counts set explicitly on a waypoint are always used.
+ * </p>
+ */
+public final class SolverSession {
+
+    /**
+     * How far, as a fraction of a kept count, the count chosen for the current
+     * path may be from it before the session starts over
+     */
+    public static final double COUNT_TOLERANCE = 0.2;
+
+    private byte[] structure = null;
+    private int[] controlIntervalCounts = null;
+    private HTrajectory lastTrajectory = null;
+    private int solveCount = 0;
+    private int reuseCount = 0;
+
+    /**
+     * Chooses the control interval counts of a path, reusing the counts of the
+     * previous solve if the structure of the path hasn't changed and the counts
+     * chosen for it now are close to them.
+     *
+     * @param path the path, with {@link ControlIntervals#AUTOMATIC} counts where they should be chosen
+     * @param drive the drivetrain
+     * @param density the number of control intervals per second of estimated segment time
+     * @return the path with every count chosen
+     */
+    public synchronized HolonomicPath prepare(HolonomicPath path, SwerveDrivetrain drive, double density) {
+        byte[] newStructure = structure(path, density);
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        HolonomicPath assigned = ControlIntervals.assign(path, drive, density);
+        if (Arrays.equals(newStructure, structure) && countsClose(assigned)) {
+            List<HolonomicWaypoint> prepared = new ArrayList<>(waypoints.size());
+            for (int i = 0; i < waypoints.size(); i++) {
+                HolonomicWaypoint waypoint = waypoints.get(i);
+                prepared.add(waypoint.controlIntervalCount == ControlIntervals.AUTOMATIC
+                        ? SolverInputs.withControlIntervalCount(waypoint, controlIntervalCounts[i])
+                        : waypoint);
+            }
+            reuseCount++;
+            return new HolonomicPath(prepared);
+        }
+        structure = newStructure;
+        lastTrajectory = null;
+        solveCount = 0;
+        controlIntervalCounts = counts(assigned);
+        return assigned;
+    }
+
+    private boolean countsClose(HolonomicPath assigned) {
+        for (int i = 0; i < controlIntervalCounts.length; i++) {
+            int count = assigned.holonomicWaypoints.get(i).controlIntervalCount;
+            if (Math.abs(count - controlIntervalCounts[i]) > COUNT_TOLERANCE * controlIntervalCounts[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] counts(HolonomicPath path) {
+        int[] counts = new int[path.holonomicWaypoints.size()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = path.holonomicWaypoints.get(i).controlIntervalCount;
+        }
+        return counts;
+    }
+
+    /**
+     * Seeds a prepared path with the last solution of this session.
+     *
+     * @param path a path returned by {@link #prepare(HolonomicPath, SwerveDrivetrain, double)}
+     * @return the seeded path, or {@code path} itself if there is no solution with the same structure
+     */
+    public synchronized HolonomicPath seed(HolonomicPath path) {
+        return lastTrajectory == null ? path : WarmStart.seed(path, lastTrajectory);
+    }
+
+    /**
+     * @return {@code true} if there is a solution with the current structure to seed from
+     */
+    public synchronized boolean canSeed() {
+        return lastTrajectory != null;
+    }
+
+    /**
+     * Records the solution of a prepared path, unless the session has started
+     * over since it was prepared.
+     *
+     * @param path the path returned by {@link #prepare(HolonomicPath, SwerveDrivetrain, double)}
+     * @param density the density it was prepared with
+     * @param trajectory the solution
+     */
+    public synchronized void solved(HolonomicPath path, double density, HTrajectory trajectory) {
+        if (Arrays.equals(structure(path, density), structure) && Arrays.equals(counts(path), controlIntervalCounts)) {
+            lastTrajectory = trajectory;
+            solveCount++;
+        }
+    }
+
+    /**
+     * @return the number of solves recorded since the session last started over
+     */
+    public synchronized int getSolveCount() {
+        return solveCount;
+    }
+
+    /**
+     * @return the number of times a path was prepared with the counts of an earlier solve
+     */
+    public synchronized int getReuseCount() {
+        return reuseCount;
+    }
+
+    private static byte[] structure(HolonomicPath path, double density) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeDouble(density);
+            out.writeInt(path.holonomicWaypoints.size());
+            for (HolonomicWaypoint waypoint : path.holonomicWaypoints) {
+                out.writeBoolean(waypoint.xConstrained);
+                out.writeBoolean(waypoint.yConstrained);
+                out.writeBoolean(waypoint.headingConstrained);
+                out.writeBoolean(waypoint.velocityXConstrained);
+                out.writeBoolean(waypoint.velocityYConstrained);
+                out.writeBoolean(waypoint.velocityMagnitudeConstrained);
+                out.writeBoolean(waypoint.angularVelocityConstrained);
+                out.writeInt(waypoint.obstacles.size());
+                for (Obstacle obstacle : waypoint.obstacles) {
+                    out.writeBoolean(obstacle.applyToAllSegments);
+                    out.writeInt(obstacle.points.size());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not possible with a byte array
+        }
+        return bytes.toByteArray();
+    }
+}
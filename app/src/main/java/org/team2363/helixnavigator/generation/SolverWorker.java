@@ -0,0 +1,131 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * The entry point of a solver worker process started by
+ * {@link ProcessPoolGenerator}. The worker connects back to the editor on a
+ * loopback port given on the command line, then answers one request at a time
+ * until the connection closes. A socket is used instead of standard output
+ * because the native solver prints to standard output.
+ * </p>
+ * <p>
+ * A request is {@link GenerationInputCodec#FORMAT_VERSION}, a drivetrain, and a
+ * path, in the encoding of {@link GenerationInputCodec}. A response is a status
+ * byte followed by either the solve time and the trajectory samples, or an
+ * error message.
+ * </p>
+ */
+public final class SolverWorker {
+
+    static final byte RESPONSE_SUCCEEDED = 0;
+    static final byte RESPONSE_FAILED = 1;
+
+    private static final int MAX_MESSAGE_LENGTH = 10000;
+
+    private SolverWorker() {
+    }
+
+    /**
+     * @param args the port to connect to, the name of the generator to use, and a token identifying this worker
+     * @throws IOException if the connection to the editor is lost unexpectedly
+     */
+    public static void main(String[] args) throws IOException {
+        int port = Integer.parseInt(args[0]);
+        TrajectoryGenerator generator = TrajectoryGenerators.forName(args[1]);
+        long token = Long.parseLong(args[2]);
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            out.writeLong(token);
+            out.flush();
+            while (true) {
+                SwerveDrivetrain drive;
+                HolonomicPath path;
+                try {
+                    int version = in.readInt();
+                    if (version != GenerationInputCodec.FORMAT_VERSION) {
+                        throw new IOException("Unsupported request version " + version);
+                    }
+                    drive = GenerationInputCodec.readDrive(in);
+                    path = GenerationInputCodec.readPath(in);
+                } catch (EOFException e) {
+                    return; // the editor closed the connection
+                }
+                respond(out, generator, args[1], drive, path);
+            }
+        }
+    }
+
+    /**
+     * Generates a trajectory and writes the response, including when generation
+     * fails.
+     *
+     * @param out the stream to write the response to
+     * @param generator the generator, or {@code null} if none was found by name
+     * @param generatorName the name the generator was looked up by
+     * @param drive the drivetrain to generate for
+     * @param path the path to generate
+     * @throws IOException if the response can't be written
+     */
+    static void respond(DataOutputStream out, TrajectoryGenerator generator, String generatorName, SwerveDrivetrain drive, HolonomicPath path) throws IOException {
+        try {
+            if (generator == null) {
+                throw new GenerationException("Unknown generator \"" + generatorName + "\".");
+            }
+            long startTime = System.nanoTime();
+            HTrajectory trajectory = generator.generate(drive, path);
+            double solveTime = (System.nanoTime() - startTime) / 1e9;
+            out.writeByte(RESPONSE_SUCCEEDED);
+            out.writeDouble(solveTime);
+            writeSamples(out, trajectory.samples);
+        } catch (GenerationException | RuntimeException e) {
+            String message = String.valueOf(e.getMessage());
+            out.writeByte(RESPONSE_FAILED);
+            out.writeUTF(message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message);
+        }
+        out.flush();
+    }
+
+    static void writeSamples(DataOutputStream out, List<HTrajectorySample> samples) throws IOException {
+        out.writeInt(samples.size());
+        for (HTrajectorySample sample : samples) {
+            out.writeDouble(sample.ts);
+            out.writeDouble(sample.x);
+            out.writeDouble(sample.y);
+            out.writeDouble(sample.heading);
+            out.writeDouble(sample.vx);
+            out.writeDouble(sample.vy);
+            out.writeDouble(sample.omega);
+        }
+    }
+
+    static List<HTrajectorySample> readSamples(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count <= 0) {
+            throw new IOException("Corrupt response: " + count + " samples");
+        }
+        List<HTrajectorySample> samples = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            samples.add(new HTrajectorySample(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+                    in.readDouble(), in.readDouble(), in.readDouble()));
+        }
+        return samples;
+    }
+}
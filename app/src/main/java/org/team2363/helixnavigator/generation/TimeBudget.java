@@ -0,0 +1,112 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * Helpers for generating within a time budget (see
+ * {@link TrajectoryGenerator#generate(SwerveDrivetrain, HolonomicPath, long)}).
+ */
+public final class TimeBudget {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    /**
+     * The largest number of budgeted solves that run in this process at once,
+     * including solves that ran out of time and are finishing in the background
+     */
+    public static final int MAX_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private static final AtomicInteger threadCount = new AtomicInteger(0);
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "budgeted-generator-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private TimeBudget() {
+    }
+
+    /**
+     * Runs a generator that can't stop early on another thread and stops waiting
+     * for it when the budget runs out. The solve itself keeps running in the
+     * background until it finishes, and its result is discarded. Only
+     * {@link #MAX_THREADS} solves run at once, so solves abandoned one after
+     * another can't pile up and starve the processor; a solve that can't start
+     * yet waits for its turn within its budget, and is dropped without running
+     * if the budget runs out first. An abandoned solve still holds its thread
+     * until it finishes, so generators that may run for long, like the native
+     * solver, should be given a budget through
+     * {@link TrajectoryGenerators#stoppable(TrajectoryGenerator)} instead, which
+     * kills the solve at the deadline.
+     *
+     * @param generator the generator
+     * @param drive the drivetrain to generate for
+     * @param path the path to generate
+     * @param budgetMillis the time budget in milliseconds, or {@code 0} for none
+     * @return the generated trajectory
+     * @throws GenerationException if generation fails, or a {@link GenerationTimeoutException} if the budget runs out
+     */
+    public static HTrajectory await(TrajectoryGenerator generator, SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        if (budgetMillis <= 0) {
+            return generator.generate(drive, path);
+        }
+        AtomicBoolean started = new AtomicBoolean(false);
+        Future<HTrajectory> future = executor.submit(() -> {
+            started.set(true);
+            return generator.generate(drive, path);
+        });
+        try {
+            return future.get(budgetMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            if (!started.get()) {
+                executor.purge();
+                logger.fine("A " + generator.getName() + " solve ran out of time before a thread was free for it.");
+            } else {
+                logger.warning("Abandoned a " + generator.getName() + " solve after its time budget; it keeps running in the background.");
+            }
+            throw new GenerationTimeoutException(budgetMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GenerationException("Interrupted while generating.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GenerationException) {
+                throw (GenerationException) e.getCause();
+            }
+            throw new GenerationException(String.valueOf(e.getCause().getMessage()), e.getCause());
+        }
+    }
+
+    /**
+     * @param deadline a deadline from {@link #deadline(long)}
+     * @return the milliseconds left until the deadline, at least {@code 1} so it is never mistaken for no budget
+     */
+    static long remainingMillis(long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * @param budgetMillis a time budget in milliseconds
+     * @return the {@link System#nanoTime()} at which the budget runs out
+     */
+    static long deadline(long budgetMillis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+    }
+}
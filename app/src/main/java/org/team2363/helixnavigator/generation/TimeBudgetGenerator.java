@@ -0,0 +1,65 @@
+package org.team2363.helixnavigator.generation;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * Gives every solve of another generator a fixed time budget (see
+ * {@link TrajectoryGenerator#generate(SwerveDrivetrain, HolonomicPath, long)}),
+ * so that code that only knows about
+ * {@link TrajectoryGenerator#generate(SwerveDrivetrain, HolonomicPath)}, like
+ * {@link GenerationScheduler}, respects the budget too.
+ */
+public class TimeBudgetGenerator implements TrajectoryGenerator {
+
+    private final TrajectoryGenerator delegate;
+    private final long budgetMillis;
+
+    /**
+     * Constructs a {@code TimeBudgetGenerator}.
+     *
+     * @param delegate the generator to give the budget to
+     * @param budgetMillis the time budget of each solve in milliseconds, or {@code 0} for none
+     */
+    public TimeBudgetGenerator(TrajectoryGenerator delegate, long budgetMillis) {
+        this.delegate = delegate;
+        this.budgetMillis = Math.max(0, budgetMillis);
+    }
+
+    /**
+     * @return the generator given the budget
+     */
+    public TrajectoryGenerator getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * @return the time budget of each solve in milliseconds, or {@code 0} for none
+     */
+    public long getBudgetMillis() {
+        return budgetMillis;
+    }
+
+    @Override
+    public String getName() {
+        return "budgeted-" + delegate.getName();
+    }
+
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException {
+        return delegate.generate(drive, path, budgetMillis);
+    }
+
+    /**
+     * Generates a trajectory within the smaller of this generator's budget and
+     * the given one.
+     */
+    @Override
+    public HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        long budget = budgetMillis <= 0 ? this.budgetMillis
+                : this.budgetMillis <= 0 ? budgetMillis
+                : Math.min(budgetMillis, this.budgetMillis);
+        return delegate.generate(drive, path, budget);
+    }
+}
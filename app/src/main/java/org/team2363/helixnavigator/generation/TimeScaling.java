@@ -0,0 +1,106 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+
+/**
+ * <p>
+ * Derives slower (or faster) versions of a trajectory without solving again.
+ * Running a trajectory at a speed {@code s} divides every timestamp by
+ * {@code s} and multiplies every velocity and angular velocity by {@code s},
+ * which keeps the robot on the same path with accelerations scaled by
+ * {@code s * s}. So a trajectory that was feasible stays feasible at any speed
+ * below 1, which makes this a cheap way to get a safer version for a worn
+ * robot. It takes one pass over the samples.
+ * </p>
+ * <p>
+ * Each segment can also be given its own speed. The segments are found in the
+ * same way as in {@link WarmStart}. The speed may only change at a waypoint
+ * where the robot is stopped (see {@link SegmentedGenerator#isStop}), since
+ * changing it while the robot moves would make the velocity jump. So
+ * per-segment speeds below 1 keep a trajectory feasible too.
+ * </p>
+ */
+public final class TimeScaling {
+
+    private TimeScaling() {
+    }
+
+    /**
+     * Creates a copy of a trajectory that runs at a fraction of its speed.
+     *
+     * @param trajectory the trajectory
+     * @param speed the new speed as a fraction of the old one, e.g. 0.8 for 80%
+     * @return the scaled trajectory
+     * @throws IllegalArgumentException if the speed is not positive
+     */
+    public static HTrajectory scale(HTrajectory trajectory, double speed) {
+        checkSpeed(speed);
+        List<HTrajectorySample> samples = new ArrayList<>(trajectory.samples.size());
+        for (HTrajectorySample sample : trajectory.samples) {
+            samples.add(scale(sample, sample.ts / speed, speed));
+        }
+        return new HTrajectory(samples);
+    }
+
+    /**
+     * Creates a copy of a trajectory whose segments each run at a fraction of
+     * their speed.
+     *
+     * @param trajectory the trajectory
+     * @param path the path the trajectory was generated for
+     * @param speeds the new speed of each segment as a fraction of the old one
+     * @return the scaled trajectory
+     * @throws IllegalArgumentException if there isn't one positive speed per segment, the
+     *         speed changes at a waypoint where the robot isn't stopped, or the
+     *         trajectory has fewer samples than the path has waypoints
+     */
+    public static HTrajectory scale(HTrajectory trajectory, HolonomicPath path, double[] speeds) {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        if (speeds.length != waypoints.size() - 1) {
+            throw new IllegalArgumentException("Expected " + (waypoints.size() - 1) + " speeds, one per segment, but got " + speeds.length);
+        }
+        for (double speed : speeds) {
+            checkSpeed(speed);
+        }
+        for (int i = 1; i < speeds.length; i++) {
+            if (speeds[i] != speeds[i - 1] && !SegmentedGenerator.isStop(waypoints.get(i))) {
+                throw new IllegalArgumentException("The speed can only change at a waypoint where the robot stops, but waypoint "
+                        + (i + 1) + " doesn't stop the robot");
+            }
+        }
+        List<HTrajectorySample> oldSamples = trajectory.samples;
+        if (oldSamples.size() < waypoints.size()) {
+            throw new IllegalArgumentException("The trajectory has fewer samples than the path has waypoints");
+        }
+        int[] waypointSampleIndices = WarmStart.waypointSampleIndices(oldSamples, waypoints);
+        List<HTrajectorySample> samples = new ArrayList<>(oldSamples.size());
+        samples.add(scale(oldSamples.get(0), oldSamples.get(0).ts / speeds[0], speeds[0]));
+        int segment = 0;
+        for (int i = 1; i < oldSamples.size(); i++) {
+            while (i > waypointSampleIndices[segment + 1]) {
+                segment++;
+            }
+            HTrajectorySample sample = oldSamples.get(i);
+            double ts = samples.get(i - 1).ts + (sample.ts - oldSamples.get(i - 1).ts) / speeds[segment];
+            // the robot is stopped wherever the speed changes, so either speed gives the same sample
+            samples.add(scale(sample, ts, speeds[segment]));
+        }
+        return new HTrajectory(samples);
+    }
+
+    private static HTrajectorySample scale(HTrajectorySample sample, double ts, double speed) {
+        return new HTrajectorySample(ts, sample.x, sample.y, sample.heading, speed * sample.vx, speed * sample.vy, speed * sample.omega);
+    }
+
+    private static void checkSpeed(double speed) {
+        if (!(speed > 0.0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("Invalid speed " + speed);
+        }
+    }
+}
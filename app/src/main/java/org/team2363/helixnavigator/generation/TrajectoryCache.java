@@ -0,0 +1,191 @@
+package org.team2363.helixnavigator.generation;
+
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixnavigator.global.Standards;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+import com.jlbabilino.json.InvalidJSONTranslationConfiguration;
+import com.jlbabilino.json.JSONDeserializer;
+import com.jlbabilino.json.JSONDeserializerException;
+import com.jlbabilino.json.JSONParserException;
+import com.jlbabilino.json.JSONSerializer;
+import com.jlbabilino.json.JSONSerializerException;
+
+/**
+ * <p>
+ * A content-addressed store of generated trajectories. Entries are keyed by a
+ * SHA-256 hash of the canonical solver input (see {@link GenerationInputCodec}),
+ * so an unchanged path and robot configuration always map to the same stored
+ * trajectory no matter which document or path it came from.
+ * </p>
+ * <p>
+ * There are two tiers: a small in-memory LRU map, and a directory of trajectory
+ * files under the user data directory whose total size is bounded by evicting
+ * the least recently used files. All methods are thread safe.
+ * </p>
+ */
+public class TrajectoryCache {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    public static final File DEFAULT_DIRECTORY = new File(Standards.USER_DATA_DIR, "trajectory-cache");
+    public static final int DEFAULT_MEMORY_ENTRIES = 64;
+    public static final long DEFAULT_DISK_BYTES = 64L * 1024 * 1024;
+
+    private static final String FILE_EXTENSION = ".json";
+
+    private final File directory;
+    private final int maxMemoryEntries;
+    private final long maxDiskBytes;
+    private final Map<String, List<HTrajectorySample>> memory;
+
+    /**
+     * Constructs a {@code TrajectoryCache} with the default directory and limits.
+     */
+    public TrajectoryCache() {
+        this(DEFAULT_DIRECTORY, DEFAULT_MEMORY_ENTRIES, DEFAULT_DISK_BYTES);
+    }
+
+    /**
+     * Constructs a {@code TrajectoryCache}.
+     *
+     * @param directory the directory for the disk tier, or {@code null} to only cache in memory
+     * @param maxMemoryEntries the number of trajectories kept in memory
+     * @param maxDiskBytes the total size the disk tier may grow to
+     */
+    public TrajectoryCache(File directory, int maxMemoryEntries, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxMemoryEntries = maxMemoryEntries;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<HTrajectorySample>> eldest) {
+                return size() > TrajectoryCache.this.maxMemoryEntries;
+            }
+        };
+    }
+
+    /**
+     * Computes the cache key of a solver input.
+     *
+     * @param drive the drivetrain
+     * @param path the path
+     * @return a hex SHA-256 digest of the canonical encoding of the inputs
+     */
+    public static String key(SwerveDrivetrain drive, HolonomicPath path) {
+        return sha256Hex(GenerationInputCodec.encode(drive, path));
+    }
+
+    /**
+     * Computes a key that identifies a drivetrain, for grouping results by robot
+     * configuration.
+     *
+     * @param drive the drivetrain
+     * @return a hex SHA-256 digest of the canonical encoding of the drivetrain
+     */
+    public static String driveKey(SwerveDrivetrain drive) {
+        return sha256Hex(GenerationInputCodec.encode(drive));
+    }
+
+    private static String sha256Hex(byte[] bytes) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // every JVM is required to have it
+        }
+    }
+
+    /**
+     * Looks up a trajectory. A new {@code HTrajectory} is returned on every hit so
+     * that callers can bind its timestamp independently.
+     *
+     * @param key the cache key from {@link #key(SwerveDrivetrain, HolonomicPath)}
+     * @return the stored trajectory, or {@code null} if there is none
+     */
+    public synchronized HTrajectory get(String key) {
+        List<HTrajectorySample> samples = memory.get(key);
+        if (samples == null && directory != null) {
+            File file = new File(directory, key + FILE_EXTENSION);
+            if (file.isFile()) {
+                try {
+                    samples = JSONDeserializer.deserialize(file, HTrajectory.class).samples;
+                    memory.put(key, samples);
+                    file.setLastModified(System.currentTimeMillis()); // mark as recently used
+                } catch (IOException | JSONParserException | InvalidJSONTranslationConfiguration | JSONDeserializerException e) {
+                    logger.warning("Discarding unreadable cached trajectory \"" + file.getName() + "\": " + e.getMessage());
+                    file.delete();
+                }
+            }
+        }
+        return samples == null ? null : new HTrajectory(samples);
+    }
+
+    /**
+     * Stores a trajectory in both tiers.
+     *
+     * @param key the cache key from {@link #key(SwerveDrivetrain, HolonomicPath)}
+     * @param trajectory the trajectory generated for that key
+     */
+    public synchronized void put(String key, HTrajectory trajectory) {
+        memory.put(key, trajectory.samples);
+        if (directory != null) {
+            try {
+                directory.mkdirs();
+                JSONSerializer.serializeFile(trajectory, new File(directory, key + FILE_EXTENSION));
+                trimDisk();
+            } catch (IOException | InvalidJSONTranslationConfiguration | JSONSerializerException e) {
+                logger.warning("Could not write trajectory to cache: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes every entry from both tiers.
+     */
+    public synchronized void clear() {
+        memory.clear();
+        File[] files = listFiles();
+        for (File file : files) {
+            file.delete();
+        }
+    }
+
+    private void trimDisk() {
+        File[] files = listFiles();
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        if (totalBytes > maxDiskBytes) {
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+            for (int i = 0; i < files.length && totalBytes > maxDiskBytes; i++) {
+                totalBytes -= files[i].length();
+                files[i].delete();
+            }
+        }
+    }
+
+    private File[] listFiles() {
+        File[] files = directory == null ? null : directory.listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+        return files == null ? new File[0] : files;
+    }
+}
@@ -0,0 +1,54 @@
+package org.team2363.helixnavigator.generation;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Something that turns solver input into a trajectory. The editor, the batch
+ * pool, and the headless generator all dispatch through this interface, so a
+ * slow but optimal generator can be swapped for a fast approximate one.
+ * </p>
+ * <p>
+ * Implementations must be thread safe, since the same instance is called from
+ * several worker threads at once. Additional implementations can be provided
+ * as {@link java.util.ServiceLoader} services; see {@link TrajectoryGenerators}.
+ * </p>
+ */
+public interface TrajectoryGenerator {
+
+    /**
+     * @return a short lowercase name used to select this generator, like {@code "optimal"}
+     */
+    String getName();
+
+    /**
+     * Generates a trajectory. This may block for a long time.
+     *
+     * @param drive the drivetrain to generate for
+     * @param path the path to follow
+     * @return the generated trajectory
+     * @throws GenerationException if no trajectory can be generated for the path
+     */
+    HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path) throws GenerationException;
+
+    /**
+     * Generates a trajectory, giving up when a time budget runs out. Generators
+     * that can produce a usable result before they finish, like
+     * {@link MultiStartGenerator}, return the best one they have at that point.
+     * By default this only stops waiting for the solve (see
+     * {@link TimeBudget#await(TrajectoryGenerator, SwerveDrivetrain, HolonomicPath, long)}).
+     *
+     * @param drive the drivetrain to generate for
+     * @param path the path to follow
+     * @param budgetMillis the time budget in milliseconds, or {@code 0} for none
+     * @return the generated trajectory
+     * @throws GenerationException if no trajectory can be generated for the path,
+     *                             or a {@link GenerationTimeoutException} if the
+     *                             budget runs out without a result
+     */
+    default HTrajectory generate(SwerveDrivetrain drive, HolonomicPath path, long budgetMillis) throws GenerationException {
+        return TimeBudget.await(this, drive, path, budgetMillis);
+    }
+}
@@ -0,0 +1,141 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * The available trajectory generators: the two built in ones, plus any found
+ * on the class path through {@link ServiceLoader}.
+ */
+public final class TrajectoryGenerators {
+
+    /**
+     * The native time-optimal solver
+     */
+    public static final TrajectoryGenerator OPTIMAL = new OptimalGenerator();
+    /**
+     * The fast pure-Java approximation
+     */
+    public static final TrajectoryGenerator PREVIEW = new PreviewGenerator();
+
+    private static List<TrajectoryGenerator> generators = null;
+    private static final Map<TrajectoryGenerator, SegmentedGenerator> segmentedGenerators = new HashMap<>();
+    private static final Map<TrajectoryGenerator, ProcessPoolGenerator> isolatedGenerators = new HashMap<>();
+    private static final Map<TrajectoryGenerator, MultiStartGenerator> multiStartGenerators = new HashMap<>();
+    private static final Map<TrajectoryGenerator, ObstacleCullingGenerator> cullingGenerators = new HashMap<>();
+
+    private TrajectoryGenerators() {
+    }
+
+    /**
+     * @return every available generator, built in generators first
+     */
+    public static synchronized List<TrajectoryGenerator> all() {
+        if (generators == null) {
+            List<TrajectoryGenerator> list = new ArrayList<>();
+            list.add(OPTIMAL);
+            list.add(PREVIEW);
+            for (TrajectoryGenerator generator : ServiceLoader.load(TrajectoryGenerator.class)) {
+                list.add(generator);
+            }
+            generators = Collections.unmodifiableList(list);
+        }
+        return generators;
+    }
+
+    /**
+     * @param generator a generator
+     * @return a generator that splits paths and solves the pieces in parallel with {@code generator}
+     */
+    public static synchronized TrajectoryGenerator segmented(TrajectoryGenerator generator) {
+        if (generator instanceof SegmentedGenerator) {
+            return generator;
+        }
+        return segmentedGenerators.computeIfAbsent(generator, SegmentedGenerator::new);
+    }
+
+    /**
+     * @param generator a generator
+     * @return a generator that solves each path from several initial guesses with {@code generator} and keeps the best
+     */
+    public static synchronized TrajectoryGenerator multiStart(TrajectoryGenerator generator) {
+        if (generator instanceof MultiStartGenerator) {
+            return generator;
+        }
+        return multiStartGenerators.computeIfAbsent(generator, MultiStartGenerator::new);
+    }
+
+    /**
+     * @param generator a generator
+     * @return a generator that drops obstacles far from each segment before solving with {@code generator}
+     */
+    public static synchronized TrajectoryGenerator culled(TrajectoryGenerator generator) {
+        if (generator instanceof ObstacleCullingGenerator) {
+            return generator;
+        }
+        return cullingGenerators.computeIfAbsent(generator, ObstacleCullingGenerator::new);
+    }
+
+    /**
+     * @param generator a generator that can be found by name
+     * @return a generator that runs {@code generator} in a pool of worker processes
+     */
+    public static synchronized ProcessPoolGenerator isolated(TrajectoryGenerator generator) {
+        if (generator instanceof ProcessPoolGenerator) {
+            return (ProcessPoolGenerator) generator;
+        }
+        return isolatedGenerators.computeIfAbsent(generator, ProcessPoolGenerator::new);
+    }
+
+    /**
+     * Solves that run out of their time budget in this process can't be stopped,
+     * only abandoned (see {@link TimeBudget#await(TrajectoryGenerator, org.team2363.helixtrajectory.SwerveDrivetrain, org.team2363.helixtrajectory.HolonomicPath, long)}),
+     * so a generator that is given a budget should be made stoppable first.
+     * {@link #PREVIEW} finishes quickly enough that it is left as it is; any other
+     * generator is run in a worker process that is killed when the budget runs out.
+     *
+     * @param generator a generator that can be found by name
+     * @return a generator whose budgeted solves stop when the budget runs out
+     */
+    public static TrajectoryGenerator stoppable(TrajectoryGenerator generator) {
+        return generator == PREVIEW ? generator : isolated(generator);
+    }
+
+    /**
+     * Checks whether a generator gives the same trajectories as {@link #OPTIMAL},
+     * so that its results may be cached alongside the optimal generator's.
+     *
+     * @param generator a generator
+     * @return {@code true} if the generator's results are optimal
+     */
+    public static boolean isOptimal(TrajectoryGenerator generator) {
+        if (generator instanceof SegmentedGenerator) {
+            return isOptimal(((SegmentedGenerator) generator).getDelegate());
+        } else if (generator instanceof ProcessPoolGenerator) {
+            return isOptimal(((ProcessPoolGenerator) generator).getDelegate());
+        } else if (generator instanceof ObstacleCullingGenerator) {
+            // the dropped obstacles are checked afterwards, so they could only have been inactive constraints
+            return isOptimal(((ObstacleCullingGenerator) generator).getDelegate());
+        } else if (generator instanceof TimeBudgetGenerator) {
+            return isOptimal(((TimeBudgetGenerator) generator).getDelegate());
+        }
+        return generator == OPTIMAL;
+    }
+
+    /**
+     * @param name the name of a generator
+     * @return the first generator with that name, or {@code null} if there is none
+     */
+    public static TrajectoryGenerator forName(String name) {
+        for (TrajectoryGenerator generator : all()) {
+            if (generator.getName().equals(name)) {
+                return generator;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,476 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.logging.Logger;
+
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.ObstaclePoint;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * A visibility graph over a set of obstacles, used to give the solver initial
+ * guesses that go around obstacles instead of through them (see
+ * {@link #addInitialGuesses(HolonomicPath, SwerveDrivetrain)}). Without a guess
+ * the solver starts from the straight line between waypoints, and from there
+ * it often fails to find its way around an obstacle in the middle.
+ * </p>
+ * <p>
+ * Each obstacle is grown by the radius of the bumpers, both safety distances,
+ * and a little clearance, and replaced by the convex hull of octagons around
+ * its points, so the robot's center can touch a hull without its bumpers
+ * touching the obstacle. The graph's nodes are the corners of the hulls, with
+ * an edge between every two corners that can see each other, and routes are
+ * found with A*. Graphs are cached by the obstacles they are built from, so
+ * every path of a document with the same obstacles shares one graph.
+ * </p>
+ */
+public final class VisibilityGraph {
+
+    private static final Logger logger = Logger.getLogger("org.team2363.helixnavigator.generation");
+
+    /**
+     * The distance in meters kept between the bumpers and each safety distance
+     */
+    public static final double CLEARANCE = 0.05;
+    /**
+     * The number of graphs kept in the cache
+     */
+    public static final int CACHE_SIZE = 16;
+
+    private static final double EPSILON = 1e-6;
+    private static final int OCTAGON_SIDES = 8;
+
+    private static final Map<Key, VisibilityGraph> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, VisibilityGraph> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private static int buildCount = 0;
+
+    /**
+     * The grown obstacles, as counterclockwise convex polygons
+     */
+    private final List<double[]> hulls;
+    /**
+     * The bounding box of each hull: min x, min y, max x, max y
+     */
+    private final List<double[]> bounds;
+    /**
+     * The coordinates of the nodes
+     */
+    private final double[] nodes;
+    private final int[][] neighbors;
+
+    private VisibilityGraph(List<Obstacle> obstacles, double inflation) {
+        hulls = new ArrayList<>(obstacles.size());
+        bounds = new ArrayList<>(obstacles.size());
+        for (Obstacle obstacle : obstacles) {
+            if (!obstacle.points.isEmpty()) {
+                double[] hull = grow(obstacle, inflation + obstacle.safetyDistance);
+                hulls.add(hull);
+                bounds.add(bounds(hull));
+            }
+        }
+        List<Double> nodeList = new ArrayList<>();
+        for (double[] hull : hulls) {
+            for (int i = 0; i < hull.length; i += 2) {
+                if (!isBlocked(hull[i], hull[i + 1])) {
+                    nodeList.add(hull[i]);
+                    nodeList.add(hull[i + 1]);
+                }
+            }
+        }
+        nodes = new double[nodeList.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = nodeList.get(i);
+        }
+        int nodeCount = getNodeCount();
+        List<List<Integer>> adjacency = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            adjacency.add(new ArrayList<>());
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            for (int j = i + 1; j < nodeCount; j++) {
+                if (isVisible(nodes[2 * i], nodes[2 * i + 1], nodes[2 * j], nodes[2 * j + 1], -1, -1)) {
+                    adjacency.get(i).add(j);
+                    adjacency.get(j).add(i);
+                }
+            }
+        }
+        neighbors = new int[nodeCount][];
+        for (int i = 0; i < nodeCount; i++) {
+            neighbors[i] = adjacency.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Returns the cached graph for a set of obstacles, building it if needed.
+     *
+     * @param obstacles the obstacles
+     * @param inflation how far in meters to grow each obstacle beyond its safety distance
+     * @return the graph
+     */
+    public static VisibilityGraph forObstacles(List<Obstacle> obstacles, double inflation) {
+        Key key = new Key(obstacles, inflation);
+        synchronized (cache) {
+            VisibilityGraph graph = cache.get(key);
+            if (graph == null) {
+                long startTime = System.nanoTime();
+                graph = new VisibilityGraph(obstacles, inflation);
+                buildCount++;
+                logger.fine("Built a visibility graph with " + graph.getNodeCount() + " nodes in "
+                        + (System.nanoTime() - startTime) / 1000000 + " ms.");
+                cache.put(key, graph);
+            }
+            return graph;
+        }
+    }
+
+    /**
+     * @return the number of graphs built so far, for measuring how often the cache is used
+     */
+    public static int getBuildCount() {
+        synchronized (cache) {
+            return buildCount;
+        }
+    }
+
+    /**
+     * @return the number of corners of the grown obstacles that are not inside another one
+     */
+    public int getNodeCount() {
+        return nodes.length / 2;
+    }
+
+    /**
+     * Finds the shortest route between two points that stays out of the grown
+     * obstacles. A grown obstacle that one of the points is inside is ignored
+     * where the route leaves or enters that point, so that a waypoint close to
+     * an obstacle can still be reached.
+     *
+     * @return the corners the route turns at, an empty list if the points can see each other, or {@code null} if there is no route
+     */
+    public List<double[]> route(double startX, double startY, double goalX, double goalY) {
+        int startHull = hullContaining(startX, startY);
+        int goalHull = hullContaining(goalX, goalY);
+        if (isVisible(startX, startY, goalX, goalY, startHull, goalHull)) {
+            return List.of();
+        }
+        int nodeCount = getNodeCount();
+        boolean[] seesGoal = new boolean[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            seesGoal[i] = isVisible(nodes[2 * i], nodes[2 * i + 1], goalX, goalY, goalHull, -1);
+        }
+        // node indices, then the start at nodeCount and the goal at nodeCount + 1
+        double[] cost = new double[nodeCount + 2];
+        int[] previous = new int[nodeCount + 2];
+        Arrays.fill(cost, Double.POSITIVE_INFINITY);
+        Arrays.fill(previous, -1);
+        boolean[] closed = new boolean[nodeCount + 2];
+        int start = nodeCount;
+        int goal = nodeCount + 1;
+        PriorityQueue<double[]> open = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        cost[start] = 0.0;
+        open.add(new double[] {Math.hypot(goalX - startX, goalY - startY), start});
+        while (!open.isEmpty()) {
+            int current = (int) open.poll()[1];
+            if (closed[current]) {
+                continue;
+            }
+            closed[current] = true;
+            if (current == goal) {
+                break;
+            }
+            double x = current == start ? startX : nodes[2 * current];
+            double y = current == start ? startY : nodes[2 * current + 1];
+            if (current != start && seesGoal[current]) {
+                relax(open, cost, previous, current, goal, cost[current] + Math.hypot(goalX - x, goalY - y), 0.0);
+            }
+            if (current == start) {
+                for (int next = 0; next < nodeCount; next++) {
+                    if (isVisible(startX, startY, nodes[2 * next], nodes[2 * next + 1], startHull, -1)) {
+                        relax(open, cost, previous, start, next, Math.hypot(nodes[2 * next] - x, nodes[2 * next + 1] - y),
+                                Math.hypot(goalX - nodes[2 * next], goalY - nodes[2 * next + 1]));
+                    }
+                }
+            } else {
+                for (int next : neighbors[current]) {
+                    if (!closed[next]) {
+                        relax(open, cost, previous, current, next, cost[current] + Math.hypot(nodes[2 * next] - x, nodes[2 * next + 1] - y),
+                                Math.hypot(goalX - nodes[2 * next], goalY - nodes[2 * next + 1]));
+                    }
+                }
+            }
+        }
+        if (previous[goal] == -1) {
+            return null;
+        }
+        List<double[]> corners = new ArrayList<>();
+        for (int node = previous[goal]; node != start; node = previous[node]) {
+            corners.add(new double[] {nodes[2 * node], nodes[2 * node + 1]});
+        }
+        Collections.reverse(corners);
+        return corners;
+    }
+
+    private static void relax(PriorityQueue<double[]> open, double[] cost, int[] previous, int from, int to, double newCost, double heuristic) {
+        if (newCost < cost[to]) {
+            cost[to] = newCost;
+            previous[to] = from;
+            open.add(new double[] {newCost + heuristic, to});
+        }
+    }
+
+    /**
+     * Gives every segment without initial guess points whose straight line is
+     * blocked by its obstacles the corners of the shortest route around them as
+     * initial guess points. Segments the user has guided are left alone.
+     *
+     * @param path the path
+     * @param drive the drivetrain, whose bumpers set how far the obstacles are grown
+     * @return the path with the new initial guess points, or {@code path} itself if none were added
+     */
+    public static HolonomicPath addInitialGuesses(HolonomicPath path, SwerveDrivetrain drive) {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        List<Obstacle> sharedObstacles = new ArrayList<>();
+        for (HolonomicWaypoint waypoint : waypoints) {
+            for (Obstacle obstacle : waypoint.obstacles) {
+                if (obstacle.applyToAllSegments) {
+                    sharedObstacles.add(obstacle);
+                }
+            }
+        }
+        double inflation = ObstacleCullingGenerator.bumperRadius(drive) + drive.bumpers.safetyDistance + CLEARANCE;
+        List<HolonomicWaypoint> guided = null;
+        for (int i = 1; i < waypoints.size(); i++) {
+            HolonomicWaypoint from = waypoints.get(i - 1);
+            HolonomicWaypoint to = waypoints.get(i);
+            if (!to.initialGuessPoints.isEmpty()) {
+                continue;
+            }
+            List<Obstacle> obstacles = new ArrayList<>(sharedObstacles);
+            for (Obstacle obstacle : to.obstacles) {
+                if (!obstacle.applyToAllSegments) {
+                    obstacles.add(obstacle);
+                }
+            }
+            if (obstacles.isEmpty()) {
+                continue;
+            }
+            List<double[]> corners = forObstacles(obstacles, inflation).route(from.x, from.y, to.x, to.y);
+            if (corners == null || corners.isEmpty()) {
+                continue;
+            }
+            if (guided == null) {
+                guided = new ArrayList<>(waypoints);
+            }
+            guided.set(i, SolverInputs.withInitialGuessPoints(to, initialGuessPoints(from, to, corners)));
+        }
+        return guided == null ? path : new HolonomicPath(guided);
+    }
+
+    /**
+     * @return the corners as initial guess points, with headings turning evenly with distance along the route
+     */
+    private static List<InitialGuessPoint> initialGuessPoints(HolonomicWaypoint from, HolonomicWaypoint to, List<double[]> corners) {
+        double startHeading = from.headingConstrained || !to.headingConstrained ? from.heading : to.heading;
+        double endHeading = to.headingConstrained ? to.heading : startHeading;
+        double turn = Math.IEEEremainder(endHeading - startHeading, 2.0 * Math.PI);
+        double[] distances = new double[corners.size() + 1];
+        double x = from.x;
+        double y = from.y;
+        for (int i = 0; i <= corners.size(); i++) {
+            double nextX = i < corners.size() ? corners.get(i)[0] : to.x;
+            double nextY = i < corners.size() ? corners.get(i)[1] : to.y;
+            distances[i] = (i > 0 ? distances[i - 1] : 0.0) + Math.hypot(nextX - x, nextY - y);
+            x = nextX;
+            y = nextY;
+        }
+        double length = distances[corners.size()];
+        List<InitialGuessPoint> points = new ArrayList<>(corners.size());
+        for (int i = 0; i < corners.size(); i++) {
+            double fraction = length > 0.0 ? distances[i] / length : 0.0;
+            points.add(new InitialGuessPoint(corners.get(i)[0], corners.get(i)[1], startHeading + fraction * turn));
+        }
+        return points;
+    }
+
+    /**
+     * @return {@code true} if the point is inside one of the grown obstacles
+     */
+    public boolean isBlocked(double x, double y) {
+        return hullContaining(x, y) != -1;
+    }
+
+    /**
+     * @return the index of a hull the point is strictly inside, or {@code -1}
+     */
+    private int hullContaining(double x, double y) {
+        for (int h = 0; h < hulls.size(); h++) {
+            double[] box = bounds.get(h);
+            if (x > box[0] && y > box[1] && x < box[2] && y < box[3] && crossesInterior(hulls.get(h), x, y, x, y)) {
+                return h;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isVisible(double ax, double ay, double bx, double by, int ignoredHull, int otherIgnoredHull) {
+        double minX = Math.min(ax, bx), minY = Math.min(ay, by), maxX = Math.max(ax, bx), maxY = Math.max(ay, by);
+        for (int h = 0; h < hulls.size(); h++) {
+            if (h == ignoredHull || h == otherIgnoredHull) {
+                continue;
+            }
+            double[] box = bounds.get(h);
+            if (maxX < box[0] || maxY < box[1] || minX > box[2] || minY > box[3]) {
+                continue;
+            }
+            if (crossesInterior(hulls.get(h), ax, ay, bx, by)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Clips the segment PQ to a convex polygon shrunk by {@link #EPSILON}, so
+     * segments along an edge or through a corner don't count.
+     *
+     * @return {@code true} if part of the segment is strictly inside the polygon
+     */
+    private static boolean crossesInterior(double[] hull, double px, double py, double qx, double qy) {
+        double dx = qx - px;
+        double dy = qy - py;
+        double enter = 0.0;
+        double leave = 1.0;
+        for (int i = 0; i < hull.length; i += 2) {
+            double ax = hull[i], ay = hull[i + 1];
+            double ex = hull[(i + 2) % hull.length] - ax, ey = hull[(i + 3) % hull.length] - ay;
+            double edgeLength = Math.hypot(ex, ey);
+            if (edgeLength == 0.0) {
+                continue;
+            }
+            double nx = ey / edgeLength, ny = -ex / edgeLength; // outward, since the hull is counterclockwise
+            double offset = nx * (px - ax) + ny * (py - ay) + EPSILON;
+            double rate = nx * dx + ny * dy;
+            if (rate == 0.0) {
+                if (offset >= 0.0) {
+                    return false;
+                }
+            } else if (rate < 0.0) {
+                enter = Math.max(enter, -offset / rate);
+            } else {
+                leave = Math.min(leave, -offset / rate);
+            }
+            if (enter > leave) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the convex hull of octagons around the obstacle's points, big enough to hold circles of the given radius
+     */
+    private static double[] grow(Obstacle obstacle, double radius) {
+        double cornerRadius = radius / Math.cos(Math.PI / OCTAGON_SIDES);
+        List<double[]> points = new ArrayList<>(obstacle.points.size() * OCTAGON_SIDES);
+        for (ObstaclePoint point : obstacle.points) {
+            for (int k = 0; k < OCTAGON_SIDES; k++) {
+                double angle = 2.0 * Math.PI * (k + 0.5) / OCTAGON_SIDES;
+                points.add(new double[] {point.x + cornerRadius * Math.cos(angle), point.y + cornerRadius * Math.sin(angle)});
+            }
+        }
+        return convexHull(points);
+    }
+
+    /**
+     * @return the convex hull of the points, counterclockwise, by Andrew's monotone chain
+     */
+    private static double[] convexHull(List<double[]> points) {
+        points.sort((a, b) -> a[0] != b[0] ? Double.compare(a[0], b[0]) : Double.compare(a[1], b[1]));
+        int n = points.size();
+        double[][] hull = new double[2 * n][];
+        int k = 0;
+        for (int i = 0; i < n; i++) {
+            while (k >= 2 && turn(hull[k - 2], hull[k - 1], points.get(i)) <= 0.0) {
+                k--;
+            }
+            hull[k++] = points.get(i);
+        }
+        for (int i = n - 2, lower = k + 1; i >= 0; i--) {
+            while (k >= lower && turn(hull[k - 2], hull[k - 1], points.get(i)) <= 0.0) {
+                k--;
+            }
+            hull[k++] = points.get(i);
+        }
+        double[] flat = new double[2 * (k - 1)];
+        for (int i = 0; i < k - 1; i++) {
+            flat[2 * i] = hull[i][0];
+            flat[2 * i + 1] = hull[i][1];
+        }
+        return flat;
+    }
+
+    private static double turn(double[] a, double[] b, double[] c) {
+        return Geometry.cross(a[0], a[1], b[0], b[1], c[0], c[1]);
+    }
+
+    private static double[] bounds(double[] hull) {
+        double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int i = 0; i < hull.length; i += 2) {
+            box[0] = Math.min(box[0], hull[i]);
+            box[1] = Math.min(box[1], hull[i + 1]);
+            box[2] = Math.max(box[2], hull[i]);
+            box[3] = Math.max(box[3], hull[i + 1]);
+        }
+        return box;
+    }
+
+    /**
+     * The cache key of a graph: the coordinates and safety distances of its obstacles and the inflation.
+     */
+    private static final class Key {
+
+        private final double[] values;
+
+        private Key(List<Obstacle> obstacles, double inflation) {
+            int size = 1;
+            for (Obstacle obstacle : obstacles) {
+                size += 2 + 2 * obstacle.points.size();
+            }
+            values = new double[size];
+            int i = 0;
+            values[i++] = inflation;
+            for (Obstacle obstacle : obstacles) {
+                values[i++] = obstacle.safetyDistance;
+                values[i++] = obstacle.points.size();
+                for (ObstaclePoint point : obstacle.points) {
+                    values[i++] = point.x;
+                    values[i++] = point.y;
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(values, ((Key) other).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(values);
+        }
+    }
+}
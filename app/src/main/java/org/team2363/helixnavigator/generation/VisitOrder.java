@@ -0,0 +1,342 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.Obstacle;
+import org.team2363.helixtrajectory.SwerveDrivetrain;
+
+/**
+ * <p>
+ * Finds fast orders to visit the soft waypoints of a path in. A soft waypoint
+ * fixes only the robot's position, so when a path collects several game pieces
+ * in no particular order, the soft waypoints between the first and last
+ * waypoint can be visited in any order. Every other waypoint keeps its place.
+ * </p>
+ * <p>
+ * Orders are ranked by an estimate that takes microseconds, so the best few can
+ * be found without generating each one. Between two stops the robot is assumed
+ * to drive a trapezoidal profile over the total length of the legs, like
+ * {@link PreviewGenerator}, and each turn at a waypoint it doesn't stop at
+ * costs time in proportion to how sharp it is, up to the cost of a full stop
+ * for turning back. A leg is as long as the shortest way around the shared
+ * obstacles (see {@link VisibilityGraph}). The search is a branch and bound over
+ * the orders that drops any partial order whose lower bound can't beat the
+ * candidates found so far, so it handles ten soft waypoints in well under a
+ * second even though there are millions of orders.
+ * </p>
+ * <p>
+ * The estimate ignores heading changes and the exact shape of each curve, so
+ * the best estimate isn't always the fastest trajectory. Generating the top few
+ * candidates and keeping the fastest makes up for that.
+ * </p>
+ */
+public final class VisitOrder {
+
+    /**
+     * The largest number of soft waypoints that can be reordered
+     */
+    public static final int MAX_WAYPOINTS = 12;
+
+    /**
+     * An order to visit the waypoints of a path in.
+     */
+    public static final class Candidate {
+        /**
+         * For each position in the reordered path, the index of the waypoint of
+         * the original path that goes there
+         */
+        public final int[] order;
+        /**
+         * The reordered path. Initial guess points on legs that changed are
+         * removed, since they were placed for the old order.
+         */
+        public final HolonomicPath path;
+        /**
+         * The estimated duration of the trajectory, in seconds
+         */
+        public final double estimatedTime;
+
+        private Candidate(int[] order, HolonomicPath path, double estimatedTime) {
+            this.order = order;
+            this.path = path;
+            this.estimatedTime = estimatedTime;
+        }
+
+        /**
+         * @return {@code true} if this candidate keeps the original order
+         */
+        public boolean isOriginalOrder() {
+            for (int i = 0; i < order.length; i++) {
+                if (order[i] != i) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private final List<HolonomicWaypoint> waypoints;
+    private final boolean[] reorderable;
+    private final int[] softWaypoints;
+    private final double[][] distances;
+    private final boolean[] stops;
+    private final double maxVelocity;
+    private final double maxAcceleration;
+    private final double shortestLeg;
+    private final int count;
+    private final PriorityQueue<Candidate> best = new PriorityQueue<>(Comparator.<Candidate>comparingDouble(candidate -> candidate.estimatedTime).reversed());
+    private final int[] order;
+    private final boolean[] placed;
+
+    private VisitOrder(HolonomicPath path, SwerveDrivetrain drive, int count) {
+        waypoints = path.holonomicWaypoints;
+        int n = waypoints.size();
+        reorderable = new boolean[n];
+        List<Integer> soft = new ArrayList<>();
+        for (int i = 1; i < n - 1; i++) {
+            if (isSoft(waypoints.get(i))) {
+                reorderable[i] = true;
+                soft.add(i);
+            }
+        }
+        softWaypoints = soft.stream().mapToInt(Integer::intValue).toArray();
+        stops = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            stops[i] = i == 0 || i == n - 1 || PreviewGenerator.isStop(waypoints.get(i));
+        }
+        maxVelocity = PreviewGenerator.maxVelocity(drive);
+        maxAcceleration = PreviewGenerator.maxAcceleration(drive);
+        distances = distances(waypoints, drive);
+        double shortest = Double.POSITIVE_INFINITY;
+        for (int i : softWaypoints) {
+            for (int j = 0; j < n; j++) {
+                if (j != i) {
+                    shortest = Math.min(shortest, distances[i][j]);
+                }
+            }
+        }
+        shortestLeg = shortest;
+        this.count = count;
+        order = new int[n];
+        placed = new boolean[n];
+    }
+
+    /**
+     * Checks whether a waypoint only fixes the robot's position.
+     *
+     * @param waypoint the waypoint
+     * @return {@code true} if the waypoint can be visited in any order
+     */
+    public static boolean isSoft(HolonomicWaypoint waypoint) {
+        return waypoint.xConstrained && waypoint.yConstrained && !waypoint.headingConstrained
+                && !waypoint.velocityXConstrained && !waypoint.velocityYConstrained
+                && !waypoint.velocityMagnitudeConstrained && !waypoint.angularVelocityConstrained;
+    }
+
+    /**
+     * Checks that {@link #rank(HolonomicPath, SwerveDrivetrain, int)} can reorder
+     * a path, without searching, so that the check can be made before the search
+     * is started somewhere else.
+     *
+     * @param path the path
+     * @param drive the drivetrain
+     * @throws IllegalArgumentException if the path has fewer than two or more than
+     *         {@link #MAX_WAYPOINTS} soft waypoints between its first and last
+     *         waypoint, or the robot can't move
+     */
+    public static void checkReorderable(HolonomicPath path, SwerveDrivetrain drive) {
+        int softCount = 0;
+        for (int i = 1; i < path.holonomicWaypoints.size() - 1; i++) {
+            if (isSoft(path.holonomicWaypoints.get(i))) {
+                softCount++;
+            }
+        }
+        if (softCount < 2) {
+            throw new IllegalArgumentException("The path needs at least two soft waypoints between its first and last waypoint to reorder");
+        }
+        if (softCount > MAX_WAYPOINTS) {
+            throw new IllegalArgumentException("The path has " + softCount + " soft waypoints, but at most " + MAX_WAYPOINTS + " can be reordered");
+        }
+        double maxVelocity = PreviewGenerator.maxVelocity(drive);
+        double maxAcceleration = PreviewGenerator.maxAcceleration(drive);
+        if (!(maxVelocity > 0.0 && maxVelocity < Double.POSITIVE_INFINITY && maxAcceleration > 0.0 && maxAcceleration < Double.POSITIVE_INFINITY)) {
+            throw new IllegalArgumentException("The robot configuration does not allow the robot to move");
+        }
+    }
+
+    /**
+     * Finds the orders of the soft waypoints of a path with the lowest estimated
+     * durations.
+     *
+     * @param path the path
+     * @param drive the drivetrain
+     * @param count the largest number of candidates to return
+     * @return the candidates, fastest estimate first
+     * @throws IllegalArgumentException if the path can't be reordered (see
+     *         {@link #checkReorderable(HolonomicPath, SwerveDrivetrain)})
+     */
+    public static List<Candidate> rank(HolonomicPath path, SwerveDrivetrain drive, int count) {
+        checkReorderable(path, drive);
+        VisitOrder search = new VisitOrder(path, drive, Math.max(1, count));
+        search.order[0] = 0;
+        search.placed[0] = true;
+        search.search(1, 0.0, 0.0, 0.0);
+        List<Candidate> candidates = new ArrayList<>(search.best);
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.estimatedTime));
+        return candidates;
+    }
+
+    /**
+     * Places a waypoint at each remaining position of the path, depth first.
+     *
+     * @param position the next position to fill
+     * @param finishedTime the estimated time of the runs between stops that are complete
+     * @param runLength the length of the run that is not complete yet
+     * @param turnTime the estimated time lost in turns so far
+     */
+    private void search(int position, double finishedTime, double runLength, double turnTime) {
+        int n = waypoints.size();
+        if (position == n) {
+            double estimatedTime = finishedTime + turnTime;
+            if (best.size() < count || estimatedTime < best.peek().estimatedTime) {
+                best.add(new Candidate(order.clone(), reorder(order), estimatedTime));
+                if (best.size() > count) {
+                    best.poll();
+                }
+            }
+            return;
+        }
+        int previous = order[position - 1];
+        int[] choices;
+        if (reorderable[position]) {
+            // try the closest waypoints first, so good candidates are found early and prune more
+            choices = Arrays.stream(softWaypoints).filter(i -> !placed[i]).boxed()
+                    .sorted(Comparator.comparingDouble(i -> distances[previous][i]))
+                    .mapToInt(Integer::intValue).toArray();
+        } else {
+            choices = new int[] {position};
+        }
+        for (int next : choices) {
+            double nextRunLength = runLength + distances[previous][next];
+            double nextTurnTime = turnTime;
+            if (position >= 2 && !stops[position - 1]) {
+                nextTurnTime += turnTime(order[position - 2], previous, next);
+            }
+            double nextFinishedTime = finishedTime;
+            if (stops[position]) {
+                nextFinishedTime += runTime(nextRunLength);
+                nextRunLength = 0.0;
+            }
+            if (best.size() == count && lowerBound(position + 1, nextFinishedTime, nextRunLength, nextTurnTime) >= best.peek().estimatedTime) {
+                continue;
+            }
+            order[position] = next;
+            placed[next] = true;
+            search(position + 1, nextFinishedTime, nextRunLength, nextTurnTime);
+            placed[next] = false;
+        }
+    }
+
+    /**
+     * Estimates the time of every order that starts with the positions filled
+     * so far from below, by giving each leg that isn't known yet the length of the
+     * shortest leg of any soft waypoint and ignoring the turns that aren't known.
+     */
+    private double lowerBound(int position, double finishedTime, double runLength, double turnTime) {
+        int n = waypoints.size();
+        double bound = finishedTime + turnTime;
+        for (int i = position; i < n; i++) {
+            runLength += reorderable[i] || reorderable[i - 1] ? shortestLeg : distances[i - 1][i];
+            if (stops[i]) {
+                bound += runTime(runLength);
+                runLength = 0.0;
+            }
+        }
+        return bound;
+    }
+
+    /**
+     * @return the time to drive a straight line from a stop to a stop
+     */
+    private double runTime(double length) {
+        double accelerationLength = maxVelocity * maxVelocity / maxAcceleration;
+        return length >= accelerationLength
+                ? length / maxVelocity + maxVelocity / maxAcceleration
+                : 2.0 * Math.sqrt(length / maxAcceleration);
+    }
+
+    /**
+     * @return the time lost turning at {@code via} on the way from {@code from} to {@code to}
+     */
+    private double turnTime(int from, int via, int to) {
+        HolonomicWaypoint a = waypoints.get(from);
+        HolonomicWaypoint b = waypoints.get(via);
+        HolonomicWaypoint c = waypoints.get(to);
+        double inX = b.x - a.x;
+        double inY = b.y - a.y;
+        double outX = c.x - b.x;
+        double outY = c.y - b.y;
+        double lengths = Math.hypot(inX, inY) * Math.hypot(outX, outY);
+        if (lengths == 0.0) {
+            return 0.0;
+        }
+        double cosine = (inX * outX + inY * outY) / lengths;
+        // turning back costs as much as stopping, which is v / a more than driving through
+        return 0.5 * (1.0 - cosine) * maxVelocity / maxAcceleration;
+    }
+
+    private HolonomicPath reorder(int[] order) {
+        List<HolonomicWaypoint> reordered = new ArrayList<>(order.length);
+        for (int i = 0; i < order.length; i++) {
+            HolonomicWaypoint waypoint = waypoints.get(order[i]);
+            if (i > 0 && (order[i] != i || order[i - 1] != i - 1) && !waypoint.initialGuessPoints.isEmpty()) {
+                waypoint = SolverInputs.withInitialGuessPoints(waypoint, List.of());
+            }
+            reordered.add(waypoint);
+        }
+        return new HolonomicPath(reordered);
+    }
+
+    private static double[][] distances(List<HolonomicWaypoint> waypoints, SwerveDrivetrain drive) {
+        List<Obstacle> sharedObstacles = new ArrayList<>();
+        for (HolonomicWaypoint waypoint : waypoints) {
+            for (Obstacle obstacle : waypoint.obstacles) {
+                if (obstacle.applyToAllSegments) {
+                    sharedObstacles.add(obstacle);
+                }
+            }
+        }
+        VisibilityGraph graph = sharedObstacles.isEmpty() ? null : VisibilityGraph.forObstacles(sharedObstacles,
+                ObstacleCullingGenerator.bumperRadius(drive) + drive.bumpers.safetyDistance + VisibilityGraph.CLEARANCE);
+        int n = waypoints.size();
+        double[][] distances = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                HolonomicWaypoint from = waypoints.get(i);
+                HolonomicWaypoint to = waypoints.get(j);
+                double distance = Math.hypot(to.x - from.x, to.y - from.y);
+                List<double[]> corners = graph == null ? null : graph.route(from.x, from.y, to.x, to.y);
+                if (corners != null && !corners.isEmpty()) {
+                    distance = 0.0;
+                    double x = from.x;
+                    double y = from.y;
+                    for (double[] corner : corners) {
+                        distance += Math.hypot(corner[0] - x, corner[1] - y);
+                        x = corner[0];
+                        y = corner[1];
+                    }
+                    distance += Math.hypot(to.x - x, to.y - y);
+                }
+                distances[i][j] = distance;
+                distances[j][i] = distance;
+            }
+        }
+        return distances;
+    }
+}
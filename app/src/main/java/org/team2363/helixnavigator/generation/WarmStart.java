@@ -0,0 +1,106 @@
+package org.team2363.helixnavigator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.HTrajectorySample;
+import org.team2363.helixtrajectory.HolonomicPath;
+import org.team2363.helixtrajectory.HolonomicWaypoint;
+import org.team2363.helixtrajectory.InitialGuessPoint;
+
+/**
+ * <p>
+ * Seeds a new solve with the result of a previous one. After a small edit the
+ * previous trajectory is already close to the new optimum, so using its samples
+ * as initial guess points lets the solver converge in far fewer iterations than
+ * starting from straight lines between waypoints.
+ * </p>
+ * <p>
+ * The previous trajectory is split into segments by finding the sample closest
+ * to each waypoint of the new path (searching forward so the segments stay in
+ * order). A few evenly spaced samples from the inside of each segment then
+ * replace the initial guess points of the waypoint that ends that segment.
+ * </p>
+ */
+public final class WarmStart {
+
+    /**
+     * The number of initial guess points taken from each segment of the previous trajectory
+     */
+    public static final int POINTS_PER_SEGMENT = 4;
+
+    private WarmStart() {
+    }
+
+    /**
+     * Creates a copy of a path whose initial guesses follow a previous trajectory.
+     *
+     * @param path the path about to be solved
+     * @param previous the last trajectory generated for the same path
+     * @return the seeded path, or {@code path} itself if it can't be seeded
+     */
+    public static HolonomicPath seed(HolonomicPath path, HTrajectory previous) {
+        List<HolonomicWaypoint> waypoints = path.holonomicWaypoints;
+        if (previous == null || waypoints.size() < 2 || previous.samples.size() < waypoints.size()) {
+            return path;
+        }
+        List<HTrajectorySample> samples = previous.samples;
+        int[] waypointSampleIndices = waypointSampleIndices(samples, waypoints);
+        List<HolonomicWaypoint> seededWaypoints = new ArrayList<>(waypoints.size());
+        seededWaypoints.add(waypoints.get(0));
+        for (int i = 1; i < waypoints.size(); i++) {
+            List<InitialGuessPoint> guesses = segmentGuesses(samples, waypointSampleIndices[i - 1], waypointSampleIndices[i]);
+            if (guesses.isEmpty()) {
+                seededWaypoints.add(waypoints.get(i));
+            } else {
+                seededWaypoints.add(SolverInputs.withInitialGuessPoints(waypoints.get(i), guesses));
+            }
+        }
+        return new HolonomicPath(seededWaypoints);
+    }
+
+    /**
+     * Finds the sample closest to each waypoint, searching forward so that the
+     * indices never decrease. The first and last waypoints get the first and
+     * last samples.
+     *
+     * @param samples the samples of a trajectory, at least as many as there are waypoints
+     * @param waypoints the waypoints of the path the trajectory was generated for
+     * @return the index of the sample at each waypoint
+     */
+    static int[] waypointSampleIndices(List<HTrajectorySample> samples, List<HolonomicWaypoint> waypoints) {
+        int[] waypointSampleIndices = new int[waypoints.size()];
+        waypointSampleIndices[0] = 0;
+        waypointSampleIndices[waypoints.size() - 1] = samples.size() - 1;
+        for (int i = 1; i < waypoints.size() - 1; i++) {
+            waypointSampleIndices[i] = closestSampleIndex(samples, waypoints.get(i),
+                    waypointSampleIndices[i - 1], samples.size() - 1 - (waypoints.size() - 1 - i));
+        }
+        return waypointSampleIndices;
+    }
+
+    private static int closestSampleIndex(List<HTrajectorySample> samples, HolonomicWaypoint waypoint, int start, int end) {
+        int closestIndex = start;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (int i = start; i <= end; i++) {
+            double distance = Math.hypot(samples.get(i).x - waypoint.x, samples.get(i).y - waypoint.y);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closestIndex = i;
+            }
+        }
+        return closestIndex;
+    }
+
+    private static List<InitialGuessPoint> segmentGuesses(List<HTrajectorySample> samples, int startIndex, int endIndex) {
+        List<InitialGuessPoint> guesses = new ArrayList<>(POINTS_PER_SEGMENT);
+        int innerCount = endIndex - startIndex - 1;
+        int pointCount = Math.min(POINTS_PER_SEGMENT, innerCount);
+        for (int i = 1; i <= pointCount; i++) {
+            HTrajectorySample sample = samples.get(startIndex + (int) Math.round((double) i * (innerCount + 1) / (pointCount + 1)));
+            guesses.add(new InitialGuessPoint(sample.x, sample.y, sample.heading));
+        }
+        return guesses;
+    }
+}
@@ -10,7 +10,7 @@ import java.util.logging.StreamHandler;
 public final class Logs {
 
     private static final Logger GLOBAL_LOGGER = Logger.getLogger("org.team2363.helixnavigator");
-    private static final File LOG_FILE = new File(Standards.USER_DOCUMENTS_DIR, "HelixNavigator/helixnavigator.log");
+    private static final File LOG_FILE = new File(Standards.USER_DATA_DIR, "helixnavigator.log");
     private static FileOutputStream fileOut = null;
 
     private Logs() {
@@ -43,6 +43,11 @@ public class Standards {
      * The location of the "Documents" folder for the user
      */
     public static final File USER_DOCUMENTS_DIR = new File(System.getProperty("user.home") + File.separator + "Documents"); // TODO: make this work for every platform
+    /**
+     * The folder where this application keeps logs, caches, and other data that
+     * isn't part of a document
+     */
+    public static final File USER_DATA_DIR = new File(USER_DOCUMENTS_DIR, "HelixNavigator");
     public static final ExtensionFilter DOCUMENT_FILE_TYPE = new ExtensionFilter("HelixNavigator Document (*.json)", "*.json");
     public static final ExtensionFilter TRAJECTORY_FILE_TYPE = new ExtensionFilter("HelixTrajectory Trajectory (*.json)", "*.json");
     /**
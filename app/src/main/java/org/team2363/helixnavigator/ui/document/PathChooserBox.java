@@ -1,5 +1,8 @@
 package org.team2363.helixnavigator.ui.document;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.team2363.helixnavigator.document.DocumentManager;
 import org.team2363.helixnavigator.document.HDocument;
 import org.team2363.helixnavigator.document.HPath;
@@ -15,12 +18,15 @@ import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
+import javafx.scene.control.ChoiceDialog;
 import javafx.scene.control.ComboBox;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 
 public class PathChooserBox extends HBox {
 
+    private static final String NO_LINK = "(none)";
     private static final ObservableList<HPath> BLANK = FXCollections.<HPath>observableArrayList();
 
     private final DocumentManager documentManager;
@@ -29,6 +35,7 @@ public class PathChooserBox extends HBox {
     private final Button plusButton = new Button("+");
     private final Button minusButton = new Button("-");
     private final Button renameButton = new Button("R");
+    private final Button linkButton = new Button("L");
 
     private final ChangeListener<? super Number> onSelectedPathIndexChanged = this::selectedPathIndexChanged;
 
@@ -50,8 +57,10 @@ public class PathChooserBox extends HBox {
         plusButton.setOnAction(this::plusButtonPressed);
         minusButton.setOnAction(this::minusButtonPressed);
         renameButton.setOnAction(this::renameButtonPressed);
+        linkButton.setOnAction(this::linkButtonPressed);
+        linkButton.setTooltip(new Tooltip("Start this path where another path ends"));
         setSpacing(10.0);
-        getChildren().addAll(pathChooser, plusButton, minusButton, renameButton);
+        getChildren().addAll(pathChooser, plusButton, minusButton, renameButton, linkButton);
     }
 
     private void pathSelected(ActionEvent event) {
@@ -112,6 +121,47 @@ public class PathChooserBox extends HBox {
         }
     }
 
+    private void linkButtonPressed(ActionEvent event) {
+        if (documentManager.getIsDocumentOpen() && documentManager.getDocument().isPathSelected()) {
+            HDocument document = documentManager.getDocument();
+            HPath selectedPath = document.getSelectedPath();
+            List<String> choices = new ArrayList<>();
+            choices.add(NO_LINK);
+            for (HPath path : document.getPaths()) {
+                if (path != selectedPath) {
+                    choices.add(path.getName());
+                }
+            }
+            HPath upstreamPath = document.getUpstreamPath(selectedPath);
+            ChoiceDialog<String> prompt = new ChoiceDialog<>(upstreamPath == null ? NO_LINK : upstreamPath.getName(), choices);
+            prompt.setHeaderText("Choose the path that \"" + selectedPath.getName() + "\" starts after");
+            prompt.showAndWait().ifPresent(response -> {
+                if (response.equals(NO_LINK)) {
+                    document.unlinkPath(selectedPath);
+                    return;
+                }
+                for (HPath path : document.getPaths()) {
+                    if (path != selectedPath && path.getName().equals(response)) {
+                        if (path == upstreamPath) {
+                            return;
+                        }
+                        // a path starts after at most one other, so the old link goes first
+                        document.unlinkPath(selectedPath);
+                        try {
+                            document.linkPaths(path, selectedPath);
+                        } catch (IllegalArgumentException e) {
+                            if (upstreamPath != null) {
+                                document.linkPaths(upstreamPath, selectedPath);
+                            }
+                            new Alert(AlertType.ERROR, e.getMessage()).showAndWait();
+                        }
+                        return;
+                    }
+                }
+            });
+        }
+    }
+
     private void documentChanged(ObservableValue<? extends HDocument> currentDocument, HDocument oldDocument, HDocument newDocument) {
         unloadDocument(oldDocument);
         loadDocument(newDocument);
@@ -19,6 +19,7 @@ public class FieldImagePane extends Pane {
     private final Scale unitsScale = new Scale();
     private final Translate centerTranslate = new Translate();
     private final Scale zoomScale = new Scale();
+    private final ReachabilityView reachabilityView = new ReachabilityView();
     private final OriginView originView = new OriginView();
 
     private final ChangeListener<? super HFieldImage> onFieldImageChanged = this::fieldImageChanged;
@@ -30,8 +31,10 @@ public class FieldImagePane extends Pane {
         imageView.getTransforms().addAll(zoomScale, centerTranslate, unitsScale);
 
         originView.enableProperty().bind(this.documentManager.actions().showOriginProperty());
+        reachabilityView.mapProperty().bind(this.documentManager.actions().reachabilityMapProperty());
+        reachabilityView.getView().visibleProperty().bind(this.documentManager.actions().showReachabilityProperty());
 
-        getChildren().addAll(imageView, originView.getView());
+        getChildren().addAll(imageView, reachabilityView.getView(), originView.getView());
         setMouseTransparent(true); // clicks go through field image and to the background rectangle
 
         loadDocument(this.documentManager.getDocument());
@@ -49,6 +52,7 @@ public class FieldImagePane extends Pane {
             oldDocument.fieldImageProperty().removeListener(onFieldImageChanged);
             zoomScale.xProperty().unbind();
             zoomScale.yProperty().unbind();
+            reachabilityView.zoomScaleProperty().unbind();
         }
     }
 
@@ -58,6 +62,7 @@ public class FieldImagePane extends Pane {
             newDocument.fieldImageProperty().addListener(onFieldImageChanged);
             zoomScale.xProperty().bind(newDocument.zoomScaleProperty());
             zoomScale.yProperty().bind(newDocument.zoomScaleProperty());
+            reachabilityView.zoomScaleProperty().bind(newDocument.zoomScaleProperty());
         }
     }
 
@@ -0,0 +1,96 @@
+package org.team2363.helixnavigator.ui.editor.field;
+
+import org.team2363.helixnavigator.generation.ReachabilityMap;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Translate;
+
+/**
+ * Draws a {@link ReachabilityMap} over the field, one pixel per cell, from
+ * green for the cells reached fastest to red for the slowest. Cells that can't
+ * be reached are left clear.
+ */
+public class ReachabilityView {
+
+    private static final double OPACITY = 0.5;
+
+    private final ImageView imageView = new ImageView();
+    private final Scale zoomScale = new Scale();
+    private final Translate fieldTranslate = new Translate();
+    private final Scale cellScale = new Scale();
+
+    private final DoubleProperty zoomScaleProperty = new SimpleDoubleProperty(this, "zoomScale", 1.0);
+    private final ObjectProperty<ReachabilityMap> map = new SimpleObjectProperty<>(this, "map", null);
+
+    private final Pane pane = new Pane(imageView);
+
+    public ReachabilityView() {
+        // the first item in the list is the last transform applied:
+        imageView.getTransforms().addAll(zoomScale, fieldTranslate, cellScale);
+        imageView.setSmooth(true);
+        zoomScale.xProperty().bind(zoomScaleProperty);
+        zoomScale.yProperty().bind(zoomScaleProperty);
+
+        map.addListener((obs, oldMap, newMap) -> loadMap(newMap));
+    }
+
+    private void loadMap(ReachabilityMap map) {
+        if (map == null) {
+            imageView.setImage(null);
+            return;
+        }
+        WritableImage image = new WritableImage(map.columns, map.rows);
+        PixelWriter writer = image.getPixelWriter();
+        double maxTime = map.getMaxTime();
+        for (int row = 0; row < map.rows; row++) {
+            for (int column = 0; column < map.columns; column++) {
+                double time = map.getTime(column, row);
+                Color color = Double.isNaN(time) ? Color.TRANSPARENT
+                        : Color.hsb(120.0 * (1.0 - (maxTime > 0.0 ? time / maxTime : 0.0)), 1.0, 1.0, OPACITY);
+                // the image's rows go down, the field's rows go up
+                writer.setColor(column, map.rows - 1 - row, color);
+            }
+        }
+        imageView.setImage(image);
+        fieldTranslate.setY(-map.height);
+        cellScale.setX(map.width / map.columns);
+        cellScale.setY(map.height / map.rows);
+    }
+
+    public final DoubleProperty zoomScaleProperty() {
+        return zoomScaleProperty;
+    }
+
+    public final void setZoomScale(double value) {
+        zoomScaleProperty.set(value);
+    }
+
+    public final double getZoomScale() {
+        return zoomScaleProperty.get();
+    }
+
+    public final ObjectProperty<ReachabilityMap> mapProperty() {
+        return map;
+    }
+
+    public final void setMap(ReachabilityMap value) {
+        map.set(value);
+    }
+
+    public final ReachabilityMap getMap() {
+        return map.get();
+    }
+
+    public Pane getView() {
+        return pane;
+    }
+}
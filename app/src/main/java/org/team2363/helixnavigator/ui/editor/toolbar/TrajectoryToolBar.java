@@ -4,6 +4,7 @@ import static org.team2363.helixnavigator.global.Standards.ExportedUnits.TIME_UN
 
 import java.io.File;
 import java.io.IOException;
+import java.util.regex.Pattern;
 
 import javax.measure.quantity.Time;
 
@@ -11,7 +12,10 @@ import org.team2363.helixnavigator.document.DocumentManager;
 import org.team2363.helixnavigator.document.HDocument;
 import org.team2363.helixnavigator.document.HPath;
 import org.team2363.helixnavigator.document.HTrajectory;
+import org.team2363.helixnavigator.document.SolveTimes;
+import org.team2363.helixnavigator.generation.GenerationStatus;
 import org.team2363.helixnavigator.global.Standards;
+import org.team2363.lib.ui.validation.FilteredTextInputDialog;
 import org.team2363.lib.ui.validation.UnitTextField;
 
 import com.jlbabilino.json.InvalidJSONTranslationConfiguration;
@@ -23,14 +27,23 @@ import com.jlbabilino.json.JSONSerializerException;
 import javafx.animation.KeyFrame;
 import javafx.animation.KeyValue;
 import javafx.animation.Timeline;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
+import javafx.collections.FXCollections;
+import javafx.collections.MapChangeListener;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Label;
 import javafx.scene.control.Slider;
 import javafx.scene.control.ToggleButton;
 import javafx.scene.control.ToolBar;
+import javafx.scene.control.Tooltip;
 import javafx.stage.FileChooser;
 import javafx.util.Duration;
+import javafx.util.StringConverter;
 
 public class TrajectoryToolBar extends ToolBar {
 
@@ -40,19 +53,43 @@ public class TrajectoryToolBar extends ToolBar {
     private final ChangeListener<? super HTrajectory> onTrajectoryChanged = this::trajectoryChanged;
 
     private final Button generateTraj = new Button("Generate");
+    private final Button generateAllTraj = new Button("Generate All");
+    private final Button generateChangedTraj = new Button("Generate Changed");
+    private final Label batchStatusLabel = new Label();
+    private final ToggleButton warmStartButton = new ToggleButton("Warm Start");
+    private final ToggleButton liveButton = new ToggleButton("Live");
+    private final ToggleButton previewButton = new ToggleButton("Preview");
+    private final ToggleButton segmentedButton = new ToggleButton("Split");
+    private final ToggleButton isolatedButton = new ToggleButton("Isolate");
+    private final ToggleButton multiStartButton = new ToggleButton("Multi-start");
+    private final ToggleButton cullingButton = new ToggleButton("Cull");
+    private final ToggleButton automaticGuessesButton = new ToggleButton("Auto Guess");
+    private final ToggleButton localResolveButton = new ToggleButton("Local");
+    private final ToggleButton solverSessionsButton = new ToggleButton("Session");
+    private final ToggleButton reachabilityButton = new ToggleButton("Reach");
+    private final Label reachabilityLabel = new Label();
+    private final ChoiceBox<Double> timeBudgetChoiceBox = new ChoiceBox<>(FXCollections.observableArrayList(0.0, 2.0, 5.0, 10.0, 30.0));
+    private final ObjectProperty<Double> timeBudget; // kept here since bidirectional bindings only hold weak references
+    private final Button stopButton = new Button("Stop");
+    private final Label solveTimeLabel = new Label();
+    private final Tooltip batchStatusTooltip = new Tooltip();
     private final Button importTraj = new Button("Import Traj");
     private final Button exportTraj = new Button ("Export Traj");
+    private final Button scaleTraj = new Button("Scale Speed");
+    private final Button optimizeOrderButton = new Button("Best Order");
     private final Slider timestampSlider = new Slider();
     private final UnitTextField<Time> timestampInput = new UnitTextField<>(TIME_UNIT, Standards.SupportedUnits.SupportedTime.UNITS);
     private final ToggleButton animateButton = new ToggleButton("Animate");
 
+    private static final Pattern SPEED_PERCENTAGES = Pattern.compile("[0-9., ]+");
+
     private Timeline timeline;
 
     public TrajectoryToolBar(DocumentManager documentManager) {
         this.documentManager = documentManager;
 
         timestampSlider.setMinWidth(400.0);
-        getItems().addAll(importTraj, exportTraj, generateTraj, timestampSlider, animateButton);
+        getItems().addAll(importTraj, exportTraj, scaleTraj, generateTraj, optimizeOrderButton, stopButton, liveButton, previewButton, warmStartButton, segmentedButton, isolatedButton, multiStartButton, cullingButton, automaticGuessesButton, localResolveButton, solverSessionsButton, timeBudgetChoiceBox, solveTimeLabel, generateAllTraj, generateChangedTraj, batchStatusLabel, reachabilityButton, reachabilityLabel, timestampSlider, animateButton);
 
         this.documentManager.actions().generationRunningProperty().addListener((obsVal, isIdle, isGenerating) -> {
             System.out.println("Generation status changed to: " + isGenerating);
@@ -66,6 +103,54 @@ public class TrajectoryToolBar extends ToolBar {
         generateTraj.setOnAction(event -> {
             documentManager.actions().generateTrajectory();
         });
+        warmStartButton.selectedProperty().bindBidirectional(this.documentManager.actions().warmStartProperty());
+        liveButton.selectedProperty().bindBidirectional(this.documentManager.actions().liveGenerationProperty());
+        previewButton.selectedProperty().bindBidirectional(this.documentManager.actions().previewGenerationProperty());
+        segmentedButton.selectedProperty().bindBidirectional(this.documentManager.actions().segmentedGenerationProperty());
+        segmentedButton.setTooltip(new Tooltip("Solve the pieces between full stops in parallel"));
+        isolatedButton.selectedProperty().bindBidirectional(this.documentManager.actions().isolatedGenerationProperty());
+        isolatedButton.setTooltip(new Tooltip("Run the solver in separate processes"));
+        multiStartButton.selectedProperty().bindBidirectional(this.documentManager.actions().multiStartGenerationProperty());
+        multiStartButton.setTooltip(new Tooltip("Solve from several initial guesses at once and keep the fastest result"));
+        cullingButton.selectedProperty().bindBidirectional(this.documentManager.actions().obstacleCullingProperty());
+        cullingButton.setTooltip(new Tooltip("Leave obstacles far from each segment out of its solve"));
+        automaticGuessesButton.selectedProperty().bindBidirectional(this.documentManager.actions().automaticGuessesProperty());
+        automaticGuessesButton.setTooltip(new Tooltip("Guess a route around obstacles for segments without initial guess points"));
+        localResolveButton.selectedProperty().bindBidirectional(this.documentManager.actions().localResolveProperty());
+        localResolveButton.setTooltip(new Tooltip("Solve only the part of the path around the waypoints that changed"));
+        solverSessionsButton.selectedProperty().bindBidirectional(this.documentManager.actions().solverSessionsProperty());
+        solverSessionsButton.setTooltip(new Tooltip("Keep the control intervals and last solution of each path while only its numbers change"));
+        timeBudgetChoiceBox.setConverter(new StringConverter<Double>() {
+            @Override
+            public String toString(Double seconds) {
+                return seconds == null || seconds <= 0.0 ? "No limit" : String.format("%.0f s", seconds);
+            }
+            @Override
+            public Double fromString(String string) {
+                return null; // not editable
+            }
+        });
+        timeBudget = this.documentManager.actions().timeBudgetProperty().asObject();
+        timeBudgetChoiceBox.valueProperty().bindBidirectional(timeBudget);
+        timeBudgetChoiceBox.setTooltip(new Tooltip("Time budget per solve"));
+        stopButton.setOnAction(event -> this.documentManager.actions().cancelGeneration());
+        stopButton.disableProperty().bind(this.documentManager.actions().generationRunningProperty().not()
+                .and(this.documentManager.actions().batchRemainingProperty().isEqualTo(0)));
+        this.documentManager.actions().previewShownProperty().addListener((obsVal, wasPreview, isPreview) -> updateSolveTime());
+        this.documentManager.actions().getSolveTimes().addListener((MapChangeListener.Change<? extends HPath, ? extends SolveTimes> change) -> updateSolveTime());
+        generateAllTraj.setOnAction(event -> {
+            documentManager.actions().generateAllTrajectories();
+        });
+        generateAllTraj.disableProperty().bind(this.documentManager.actions().batchRemainingProperty().greaterThan(0));
+        generateChangedTraj.setOnAction(event -> {
+            documentManager.actions().generateChangedTrajectories();
+        });
+        generateChangedTraj.disableProperty().bind(this.documentManager.actions().batchRemainingProperty().greaterThan(0));
+        generateChangedTraj.setTooltip(new Tooltip("Generate only the paths that changed, and the paths linked after them"));
+        batchStatusLabel.setTooltip(batchStatusTooltip);
+        this.documentManager.actions().getBatchStatuses().addListener((MapChangeListener.Change<? extends HPath, ? extends GenerationStatus> change) -> {
+            updateBatchStatus();
+        });
         importTraj.setOnAction(event -> {
             if (this.documentManager.getIsDocumentOpen() && this.documentManager.getDocument().isPathSelected()) {
                 FileChooser chooser = new FileChooser();
@@ -99,6 +184,46 @@ public class TrajectoryToolBar extends ToolBar {
                 }
             }
         });
+        scaleTraj.setTooltip(new Tooltip("Slow down or speed up the trajectory without generating it again"));
+        scaleTraj.setOnAction(event -> {
+            if (this.documentManager.getIsDocumentOpen() && this.documentManager.getDocument().isPathSelected() &&
+                    this.documentManager.getDocument().getSelectedPath().getTrajectory() != null) {
+                FilteredTextInputDialog prompt = new FilteredTextInputDialog();
+                prompt.setHeaderText("Enter the new speed as a percentage of the current one,\nor one percentage for each segment separated by commas\n(the speed can only change where the robot stops)");
+                prompt.getEditor().setPromptText("80");
+                prompt.setValidator(SPEED_PERCENTAGES);
+                prompt.showAndWait().ifPresent(response -> {
+                    String[] percentages = response.split(",");
+                    double[] speeds = new double[percentages.length];
+                    try {
+                        for (int i = 0; i < percentages.length; i++) {
+                            speeds[i] = Double.parseDouble(percentages[i].trim()) / 100.0;
+                        }
+                        if (!this.documentManager.actions().scaleSelectedTrajectory(speeds)) {
+                            new Alert(AlertType.INFORMATION, "The trajectory can be scaled once it has finished generating.").showAndWait();
+                        }
+                    } catch (IllegalArgumentException e) {
+                        new Alert(AlertType.ERROR, "Could not scale trajectory: " + e.getMessage()).showAndWait();
+                    }
+                });
+            }
+        });
+        reachabilityButton.selectedProperty().bindBidirectional(this.documentManager.actions().showReachabilityProperty());
+        reachabilityButton.setTooltip(new Tooltip("Show how long it takes to reach each part of the field from the start of the path"));
+        reachabilityLabel.visibleProperty().bind(this.documentManager.actions().showReachabilityProperty());
+        this.documentManager.actions().reachabilityMapProperty().addListener((obsVal, oldMap, newMap) -> {
+            double maxTime = newMap == null ? Double.NaN : newMap.getMaxTime();
+            reachabilityLabel.setText(Double.isNaN(maxTime) ? ""
+                    : String.format("0 s (green) to %.1f s (red)%s", maxTime, newMap.getRefinedBy() == null ? ", estimated" : ""));
+        });
+        optimizeOrderButton.setTooltip(new Tooltip("Visit the soft waypoints in the order that gives the fastest trajectory"));
+        optimizeOrderButton.setOnAction(event -> {
+            try {
+                this.documentManager.actions().optimizeVisitOrder();
+            } catch (IllegalArgumentException e) {
+                new Alert(AlertType.ERROR, "Could not reorder waypoints: " + e.getMessage()).showAndWait();
+            }
+        });
         animateButton.selectedProperty().addListener((obs, wasSelected, isSelected) -> {
             if (documentManager.getIsDocumentOpen() && documentManager.getDocument().isPathSelected() &&
                     documentManager.getDocument().getSelectedPath().getTrajectory() != null) {
@@ -116,6 +241,8 @@ public class TrajectoryToolBar extends ToolBar {
     private void documentChanged(ObservableValue<? extends HDocument> currentDocument, HDocument oldDocument, HDocument newDocument) {
         unloadDocument(oldDocument);
         loadDocument(newDocument);
+        updateBatchStatus();
+        updateSolveTime();
     }
 
     private void unloadDocument(HDocument oldDocument) {
@@ -135,6 +262,7 @@ public class TrajectoryToolBar extends ToolBar {
     private void selectedPathChanged(ObservableValue<? extends HPath> currentPath, HPath oldPath, HPath newPath) {
         unloadSelectedPath(oldPath);
         loadSelectedPath(newPath);
+        updateSolveTime();
     }
 
     private void unloadSelectedPath(HPath oldPath) {
@@ -178,6 +306,60 @@ public class TrajectoryToolBar extends ToolBar {
         }
     }
 
+    private void updateSolveTime() {
+        SolveTimes times = null;
+        if (documentManager.getIsDocumentOpen() && documentManager.getDocument().isPathSelected()) {
+            times = documentManager.actions().getSolveTimes().get(documentManager.getDocument().getSelectedPath());
+        }
+        if (documentManager.actions().getPreviewShown()) {
+            solveTimeLabel.setText("Preview");
+        } else if (times == null) {
+            solveTimeLabel.setText("");
+        } else {
+            String cold = times.cold < 0.0 ? "-" : String.format("%.2f s", times.cold);
+            String warm = times.warm < 0.0 ? "-" : String.format("%.2f s", times.warm);
+            solveTimeLabel.setText("cold " + cold + " / warm " + warm);
+        }
+    }
+
+    private void updateBatchStatus() {
+        if (!documentManager.getIsDocumentOpen() || documentManager.actions().getBatchStatuses().isEmpty()) {
+            batchStatusLabel.setText("");
+            batchStatusTooltip.setText("");
+            return;
+        }
+        int succeeded = 0;
+        int failed = 0;
+        int cancelled = 0;
+        StringBuilder details = new StringBuilder();
+        for (HPath path : documentManager.getDocument().getPaths()) {
+            GenerationStatus status = documentManager.actions().getBatchStatuses().get(path);
+            if (status == null) {
+                continue;
+            }
+            details.append(path.getName()).append(": ").append(status);
+            if (status == GenerationStatus.SUCCEEDED) {
+                succeeded++;
+            } else if (status == GenerationStatus.FAILED || status == GenerationStatus.TIMED_OUT) {
+                failed++;
+                details.append(" (").append(documentManager.actions().getBatchFailureMessage(path)).append(")");
+            } else if (status == GenerationStatus.CANCELLED) {
+                cancelled++;
+            }
+            details.append("\n");
+        }
+        int total = documentManager.actions().getBatchStatuses().size();
+        String text = (succeeded + failed) + "/" + total + " generated";
+        if (failed > 0) {
+            text += ", " + failed + " failed";
+        }
+        if (cancelled > 0) {
+            text += ", " + cancelled + " cancelled";
+        }
+        batchStatusLabel.setText(text);
+        batchStatusTooltip.setText(details.toString().trim());
+    }
+
     private void updateAnimationMode(boolean isAnimating) {
         if (isAnimating) {
             timeline.playFrom(Duration.seconds(timestampSlider.getValue()));
@@ -0,0 +1,21 @@
+package org.team2363.helixnavigator.ui.menu.view;
+
+import org.team2363.helixnavigator.document.DocumentManager;
+
+import javafx.event.ActionEvent;
+import javafx.scene.control.MenuItem;
+
+public class GenerationMetricsMenuItem extends MenuItem {
+
+    private final GenerationMetricsStage generationMetricsStage;
+
+    public GenerationMetricsMenuItem(DocumentManager documentManager) {
+        generationMetricsStage = new GenerationMetricsStage(documentManager);
+        setText("Generation Metrics");
+        setOnAction(this::action);
+    }
+
+    public void action(ActionEvent event) {
+        generationMetricsStage.show();
+    }
+}
@@ -0,0 +1,109 @@
+package org.team2363.helixnavigator.ui.menu.view;
+
+import java.util.function.Function;
+
+import org.team2363.helixnavigator.document.DocumentManager;
+import org.team2363.helixnavigator.document.HDocument;
+import org.team2363.helixnavigator.document.HPath;
+import org.team2363.helixnavigator.generation.GenerationMetrics;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+import javafx.collections.MapChangeListener;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+
+/**
+ * A window listing the metrics of the most recent generation of each path in
+ * the open document.
+ */
+public class GenerationMetricsStage {
+
+    private final DocumentManager documentManager;
+
+    private final TableView<GenerationMetrics> table = new TableView<>();
+    private final Label logLabel = new Label();
+    private final VBox layout = new VBox(table, logLabel);
+    private final Scene scene = new Scene(layout, 1000, 300);
+    private final Stage stage = new Stage();
+
+    private final ListChangeListener<HPath> onPathsChanged = change -> refresh();
+
+    public GenerationMetricsStage(DocumentManager documentManager) {
+        this.documentManager = documentManager;
+
+        table.getColumns().add(column("Path", metrics -> metrics.pathName));
+        table.getColumns().add(column("Status", metrics -> metrics.status.toString()));
+        table.getColumns().add(column("Generator", metrics -> metrics.generator));
+        table.getColumns().add(column("Build (s)", metrics -> seconds(metrics.buildTime)));
+        table.getColumns().add(column("Solve (s)", metrics -> metrics.cacheHit ? "cached" : seconds(metrics.solveTime)));
+        table.getColumns().add(column("Wall (s)", metrics -> seconds(metrics.wallTime)));
+        table.getColumns().add(column("Warm", metrics -> metrics.warmStarted ? "yes" : "no"));
+        table.getColumns().add(column("Segments", metrics -> Integer.toString(metrics.segmentCount)));
+        table.getColumns().add(column("Samples", metrics -> Integer.toString(metrics.sampleCount)));
+        table.getColumns().add(column("Duration (s)", metrics -> seconds(metrics.trajectoryDuration)));
+        table.getColumns().add(column("Failure", metrics -> metrics.failureCause));
+        table.setPlaceholder(new Label("No trajectories generated yet"));
+        logLabel.setText("Logged to " + this.documentManager.actions().getMetricsLog().getFile().getAbsolutePath());
+        layout.setPadding(new Insets(5));
+        layout.setSpacing(5);
+        VBox.setVgrow(table, Priority.ALWAYS);
+        stage.setTitle("Generation Metrics");
+        stage.setScene(scene);
+
+        this.documentManager.actions().getGenerationMetrics().addListener((MapChangeListener.Change<? extends HPath, ? extends GenerationMetrics> change) -> refresh());
+        loadDocument(this.documentManager.getDocument());
+        this.documentManager.documentProperty().addListener(this::documentChanged);
+    }
+
+    private void documentChanged(ObservableValue<? extends HDocument> currentDocument, HDocument oldDocument, HDocument newDocument) {
+        if (oldDocument != null) {
+            oldDocument.getPaths().removeListener(onPathsChanged);
+        }
+        loadDocument(newDocument);
+    }
+
+    private void loadDocument(HDocument newDocument) {
+        if (newDocument != null) {
+            newDocument.getPaths().addListener(onPathsChanged);
+        }
+        refresh();
+    }
+
+    private void refresh() {
+        table.getItems().clear();
+        if (documentManager.getIsDocumentOpen()) {
+            for (HPath path : documentManager.getDocument().getPaths()) {
+                GenerationMetrics metrics = documentManager.actions().getGenerationMetrics().get(path);
+                if (metrics != null) {
+                    table.getItems().add(metrics);
+                }
+            }
+        }
+    }
+
+    private static TableColumn<GenerationMetrics, String> column(String title, Function<GenerationMetrics, String> value) {
+        TableColumn<GenerationMetrics, String> column = new TableColumn<>(title);
+        column.setCellValueFactory(features -> new ReadOnlyObjectWrapper<>(value.apply(features.getValue())));
+        column.setReorderable(false);
+        return column;
+    }
+
+    private static String seconds(double value) {
+        return String.format("%.3f", value);
+    }
+
+    public void show() {
+        if (stage.isShowing()) {
+            stage.requestFocus();
+        }
+        stage.show();
+    }
+}
@@ -9,13 +9,16 @@ public class ViewMenu extends Menu {
     private final DocumentManager documentManager;
 
     private final ZoomToFitMenuItem zoomToFitMenuItem;
+    private final GenerationMetricsMenuItem generationMetricsMenuItem;
 
     public ViewMenu(DocumentManager documentManager) {
         this.documentManager = documentManager;
 
         zoomToFitMenuItem = new ZoomToFitMenuItem(this.documentManager);
+        generationMetricsMenuItem = new GenerationMetricsMenuItem(this.documentManager);
 
         setText("_View");
         getItems().add(zoomToFitMenuItem);
+        getItems().add(generationMetricsMenuItem);
     }
 }
\ No newline at end of file
@@ -14,12 +14,14 @@ import org.team2363.helixnavigator.global.Standards.SupportedUnits.SupportedMome
 import org.team2363.helixnavigator.global.Standards.SupportedUnits.SupportedSpeed;
 import org.team2363.helixnavigator.global.Standards.SupportedUnits.SupportedTime;
 import org.team2363.helixnavigator.global.Standards.SupportedUnits.SupportedTorque;
+import org.team2363.lib.ui.validation.DecimalTextField;
 
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Tab;
+import javafx.scene.control.Tooltip;
 import javafx.scene.layout.GridPane;
 import javafx.scene.text.Text;
 
@@ -56,6 +58,9 @@ public class GeneralTab extends Tab {
     private final Text momentOfInertiaUnitText = new Text("Moment of Inertia Unit:");
     private final ChoiceBox<SupportedMomentOfInertia> momentOfInertiaUnitChoiceBox = new ChoiceBox<>(SupportedMomentOfInertia.SUPPORTED_UNITS);
 
+    private final Text controlIntervalDensityText = new Text("Control Intervals per Second:");
+    private final DecimalTextField controlIntervalDensityTextField = new DecimalTextField(1.0, 1000.0);
+
     private final GridPane optionsGrid = new GridPane();
     
     public GeneralTab(HDocument document) {
@@ -86,13 +91,17 @@ public class GeneralTab extends Tab {
         GridPane.setConstraints(momentOfInertiaUnitText, 0, 9);
         GridPane.setConstraints(momentOfInertiaUnitChoiceBox, 1, 9);
 
+        GridPane.setConstraints(controlIntervalDensityText, 0, 10);
+        GridPane.setConstraints(controlIntervalDensityTextField, 1, 10);
+
         optionsGrid.setHgap(10.0);
         optionsGrid.setVgap(10.0);
         optionsGrid.getChildren().addAll(fieldImageText, fieldImageChoiceBox, timeUnitText, timeUnitChoiceBox,
                 lengthUnitText, lengthUnitChoiceBox, massUnitText, massUnitChoiceBox,
                 speedUnitText, speedUnitChoiceBox, accelerationUnitText, accelerationUnitChoiceBox,
                 angleUnitText, angleUnitChoiceBox, angularSpeedUnitText, angularSpeedUnitChoiceBox,
-                torqueUnitText, torqueUnitChoiceBox, momentOfInertiaUnitText, momentOfInertiaUnitChoiceBox);
+                torqueUnitText, torqueUnitChoiceBox, momentOfInertiaUnitText, momentOfInertiaUnitChoiceBox,
+                controlIntervalDensityText, controlIntervalDensityTextField);
         optionsGrid.setPadding(new Insets(10.0, 0.0, 10.0, 0.0));
 
         // we are trusting that this is the only thing that could change
@@ -135,5 +144,9 @@ public class GeneralTab extends Tab {
         this.document.getUnitPreferences().angularSpeedUnitProperty().bind(angularSpeedUnitChoiceBox.valueProperty());
         this.document.getUnitPreferences().torqueUnitProperty().bind(torqueUnitChoiceBox.valueProperty());
         this.document.getUnitPreferences().momentOfInertiaUnitProperty().bind(momentOfInertiaUnitChoiceBox.valueProperty());
+
+        controlIntervalDensityTextField.setValue(this.document.getControlIntervalDensity());
+        controlIntervalDensityTextField.setTooltip(new Tooltip("Solver control intervals per second of estimated segment time"));
+        this.document.controlIntervalDensityProperty().bind(controlIntervalDensityTextField.valueProperty());
     }
 }
\ No newline at end of file
@@ -40,7 +40,7 @@ public class CustomWaypointEditDialog extends WaypointEditDialog {
     private final CheckBox velocityYConstrainedCheckBox = new CheckBox("Velocity Y");
     private final CheckBox velocityMagnitudeConstrainedCheckBox = new CheckBox("Velocity Magnitude");
     private final CheckBox angularVelocityConstrainedCheckBox = new CheckBox("Angular Velocity");
-    private final Text controlIntervalCountText = new Text("Control Interval Count:");
+    private final Text controlIntervalCountText = new Text("Control Interval Count (0 = auto):");
     private final IntegerTextField controlIntervalCountTextField = new IntegerTextField(0, Integer.MAX_VALUE);
 
     public CustomWaypointEditDialog(HCustomWaypoint customWaypoint) {
@@ -0,0 +1,61 @@
+package org.team2363.helixnavigator.document;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.team2363.helixnavigator.generation.ControlIntervals;
+import org.team2363.helixnavigator.global.DefaultResources;
+
+import com.jlbabilino.json.JSONDeserializer;
+import com.jlbabilino.json.JSONSerializer;
+
+public class HDocumentTest {
+
+    @BeforeAll
+    public static void loadResources() {
+        DefaultResources.loadAllResources();
+    }
+
+    private static HDocument documentWithLinkedPaths() {
+        HDocument document = new HDocument();
+        HPath first = new HPath();
+        first.setName("first");
+        HPath second = new HPath();
+        second.setName("second");
+        document.getPaths().addAll(first, second);
+        document.linkPaths(first, second);
+        document.setControlIntervalDensity(25.0);
+        return document;
+    }
+
+    /**
+     * Removes the keys added to documents after version 1.0.1.
+     */
+    private static String asSavedBeforeLinksAndDensity(String json) {
+        return json.replaceAll("\"(control_interval_density|path_links)\"\\s*:\\s*(\\[[^\\]]*\\]|[-+0-9.eE]+)\\s*,?", "")
+                .replaceAll(",(\\s*[}\\]])", "$1");
+    }
+
+    @Test
+    public void documentSavedBeforeLinksAndDensityLoadsWithDefaults() throws Exception {
+        String json = asSavedBeforeLinksAndDensity(JSONSerializer.serializeString(documentWithLinkedPaths()));
+        assertTrue(!json.contains("control_interval_density") && !json.contains("path_links"));
+
+        HDocument document = JSONDeserializer.deserialize(json, HDocument.class);
+
+        assertEquals(2, document.getPaths().size());
+        assertEquals(ControlIntervals.DEFAULT_DENSITY, document.getControlIntervalDensity(), 0.0);
+        assertTrue(document.getPathLinks().isEmpty());
+    }
+
+    @Test
+    public void linksAndDensityAreLoaded() throws Exception {
+        HDocument document = JSONDeserializer.deserialize(JSONSerializer.serializeString(documentWithLinkedPaths()), HDocument.class);
+
+        assertEquals(25.0, document.getControlIntervalDensity(), 0.0);
+        assertEquals(1, document.getPathLinks().size());
+        assertEquals("first", document.getUpstreamPath(document.getPaths().get(1)).getName());
+    }
+}
@@ -0,0 +1,111 @@
+package org.team2363.helixnavigator.document;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.junit.jupiter.api.Test;
+import org.team2363.helixnavigator.document.obstacle.HCircleObstacle;
+import org.team2363.helixnavigator.document.obstacle.HPolygonObstacle;
+import org.team2363.helixnavigator.document.obstacle.HPolygonPoint;
+import org.team2363.helixnavigator.document.timeline.HCustomWaypoint;
+import org.team2363.helixnavigator.document.timeline.HHardWaypoint;
+import org.team2363.helixnavigator.document.timeline.HInitialGuessWaypoint;
+import org.team2363.helixnavigator.document.timeline.HSoftWaypoint;
+import org.team2363.helixnavigator.generation.GenerationInputCodec;
+import org.team2363.helixtrajectory.HolonomicPath;
+
+public class HPathInputBuilderTest {
+
+    private final HPath path = new HPath();
+    private final HHardWaypoint start = new HHardWaypoint();
+    private final HInitialGuessWaypoint guess = new HInitialGuessWaypoint();
+    private final HCustomWaypoint end = new HCustomWaypoint();
+    private final HPolygonObstacle polygon = new HPolygonObstacle();
+    private final HPathInputBuilder builder;
+
+    public HPathInputBuilderTest() {
+        guess.setX(1.0);
+        guess.setY(1.0);
+        end.setX(3.0);
+        end.setY(0.5);
+        path.getWaypoints().addAll(start, guess, end);
+        path.getObstacles().add(polygon);
+        builder = new HPathInputBuilder(path);
+        assertBuildsLikeToPath();
+    }
+
+    private static byte[] encode(HolonomicPath holonomicPath) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            GenerationInputCodec.writePath(new DataOutputStream(bytes), holonomicPath);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void assertBuildsLikeToPath() {
+        assertArrayEquals(encode(path.toPath()), encode(builder.build()));
+    }
+
+    @Test
+    public void movingAWaypointIsSeen() {
+        end.setX(4.0);
+        assertBuildsLikeToPath();
+        guess.setY(-1.0);
+        assertBuildsLikeToPath();
+    }
+
+    @Test
+    public void addingAndRemovingWaypointsIsSeen() {
+        HSoftWaypoint soft = new HSoftWaypoint();
+        soft.setX(2.0);
+        path.getWaypoints().add(2, soft);
+        assertBuildsLikeToPath();
+        path.getWaypoints().remove(guess);
+        assertBuildsLikeToPath();
+    }
+
+    @Test
+    public void changingAConstraintIsSeen() {
+        end.setHeadingConstrained(!end.isHeadingConstrained());
+        assertBuildsLikeToPath();
+        end.setControlIntervalCount(end.getControlIntervalCount() + 5);
+        assertBuildsLikeToPath();
+    }
+
+    @Test
+    public void movingAnObstacleIsSeen() {
+        polygon.getPoints().get(0).setX(-1.0);
+        assertBuildsLikeToPath();
+        polygon.setSafetyDistance(polygon.getSafetyDistance() + 0.25);
+        assertBuildsLikeToPath();
+    }
+
+    @Test
+    public void addingAndRemovingPolygonPointsIsSeen() {
+        HPolygonPoint point = new HPolygonPoint();
+        point.setX(0.5);
+        point.setY(2.5);
+        polygon.getPoints().add(point);
+        assertBuildsLikeToPath();
+        point.setY(3.0);
+        assertBuildsLikeToPath();
+        polygon.getPoints().remove(0);
+        assertBuildsLikeToPath();
+    }
+
+    @Test
+    public void addingAndRemovingObstaclesIsSeen() {
+        HCircleObstacle circle = new HCircleObstacle();
+        circle.setCenterX(2.0);
+        path.getObstacles().add(circle);
+        assertBuildsLikeToPath();
+        path.getObstacles().remove(polygon);
+        assertBuildsLikeToPath();
+    }
+}
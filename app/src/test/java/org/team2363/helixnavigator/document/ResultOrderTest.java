@@ -0,0 +1,37 @@
+package org.team2363.helixnavigator.document;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class ResultOrderTest {
+
+    private final Object pathA = new Object();
+    private final Object pathB = new Object();
+    private final ResultOrder<Object> order = new ResultOrder<>();
+
+    @Test
+    public void resultsForDifferentPathsFinishingOutOfOrderAreBothShown() {
+        assertTrue(order.advance(pathA, 1, true));
+        assertTrue(order.advance(pathB, 2, true));
+        assertTrue(order.advance(pathB, 2, false));
+        assertTrue(order.advance(pathA, 1, false));
+    }
+
+    @Test
+    public void olderResultForTheSamePathIsDropped() {
+        assertTrue(order.advance(pathA, 1, true));
+        assertTrue(order.advance(pathA, 2, false));
+        assertFalse(order.advance(pathA, 1, false));
+        assertTrue(order.advance(pathB, 1, false));
+    }
+
+    @Test
+    public void previewIsShownBeforeItsOwnResultButNotAfter() {
+        assertTrue(order.advance(pathA, 3, true));
+        assertTrue(order.advance(pathA, 3, false));
+        assertFalse(order.advance(pathA, 3, true));
+        assertTrue(order.advance(pathA, 4, true));
+    }
+}
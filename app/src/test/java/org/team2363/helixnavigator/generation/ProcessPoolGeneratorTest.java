@@ -0,0 +1,23 @@
+package org.team2363.helixnavigator.generation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ProcessPoolGeneratorTest {
+
+    @Test
+    public void moduleOptionsAreForwardedInBothForms() {
+        List<String> inputArguments = List.of("-Xmx1g", "--add-modules=javafx.controls", "-Dfile.encoding=UTF-8",
+                "--add-opens", "javafx.graphics/javafx.scene=ALL-UNNAMED", "-ea");
+        assertEquals(List.of("--add-modules=javafx.controls", "--add-opens=javafx.graphics/javafx.scene=ALL-UNNAMED"),
+                ProcessPoolGenerator.moduleOptions(inputArguments));
+    }
+
+    @Test
+    public void otherArgumentsAreNotForwarded() {
+        assertEquals(List.of(), ProcessPoolGenerator.moduleOptions(List.of("-Xmx1g", "-Djava.awt.headless=true")));
+    }
+}